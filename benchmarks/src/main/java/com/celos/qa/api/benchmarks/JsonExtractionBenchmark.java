@@ -0,0 +1,70 @@
+package com.celos.qa.api.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.restClient.ApiCommonStatus;
+import com.celos.qa.api.restClient.JsonPointerExtractor;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/******************************************************************************
+ * Reading a few fields from bodies of 1KB to 4MB: parsing the whole tree and
+ * looking the paths up, against streaming them with JsonPointerExtractor.
+ * Paths near the start and one near the end show the effect of stopping early.
+ *******************************************************************************/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonExtractionBenchmark {
+
+	/** size of the body in bytes **/
+	@Param({ "1024", "65536", "1048576", "4194304" })
+	public int bodyBytes;
+
+	/** 'head' for paths near the start of the body, 'tail' for one at the end **/
+	@Param({ "head", "tail" })
+	public String paths;
+
+	private byte[] body;
+	private List<String> pointers;
+
+	@Setup
+	public void setUp() {
+		body = Payloads.users(bodyBytes, false).getBytes(StandardCharsets.UTF_8);
+		pointers = "head".equals(paths) ? Arrays.asList("/page", "/data/0/id", "/data/1/first_name")
+				: Arrays.asList("/page", "/data/0/id", "/total");
+	}
+
+	@Benchmark
+	public void readTree(Blackhole blackhole) throws Exception {
+		JsonNode tree = TestContainer.mapper.readTree(body);
+		for (String pointer : pointers) {
+			blackhole.consume(tree.at(ApiCommonStatus.jsonPointer(pointer)));
+		}
+	}
+
+	@Benchmark
+	public Map<String, JsonNode> streamingExtract() {
+		return JsonPointerExtractor.extract(body, pointers);
+	}
+}
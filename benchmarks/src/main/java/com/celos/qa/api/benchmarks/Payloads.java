@@ -0,0 +1,129 @@
+package com.celos.qa.api.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.testng.Reporter;
+
+/******************************************************************************
+ * Deterministic test payloads for the benchmarks, shaped like the reqres.in
+ * users listing the suite exercises and grown to a target size in bytes.
+ *******************************************************************************/
+final class Payloads {
+
+	private static final String[] FIRST_NAMES = { "George", "Janet", "Emma", "Eve", "Charles", "Tracey", "Michael",
+			"Lindsay", "Tobias", "Byron", "George", "Rachel" };
+	private static final String[] LAST_NAMES = { "Bluth", "Weaver", "Wong", "Holt", "Morris", "Ramos", "Lawson",
+			"Ferguson", "Funke", "Fields", "Edwards", "Howell" };
+
+	/** Empty & private to control instantiation **/
+	private Payloads() {
+	}
+
+	/**
+	 * Builds a users listing of at least the given size
+	 *
+	 * @param bytes  - minimum size of the payload
+	 * @param pretty - true to indent the JSON over several lines
+	 * @return String - JSON payload
+	 **/
+	static String users(int bytes, boolean pretty) {
+		SplittableRandom random = new SplittableRandom(42);
+		String nl = pretty ? "\n" : "";
+		String indent = pretty ? "    " : "";
+		StringBuilder json = new StringBuilder(bytes + 512);
+		json.append('{').append(nl).append(indent).append("\"page\": 1,").append(nl).append(indent)
+				.append("\"data\": [");
+		int id = 0;
+		do {
+			if (id > 0)
+				json.append(',');
+			id++;
+			String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+			String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+			json.append(nl).append(indent).append(indent).append('{').append(nl);
+			field(json, indent, nl, "id", String.valueOf(id), false, false);
+			field(json, indent, nl, "email", first.toLowerCase() + "." + last.toLowerCase() + id + "@reqres.in", true,
+					false);
+			field(json, indent, nl, "first_name", first, true, false);
+			field(json, indent, nl, "last_name", last, true, false);
+			field(json, indent, nl, "avatar", "https://reqres.in/img/faces/" + id + "-image.jpg", true, true);
+			json.append(indent).append(indent).append('}');
+		} while (json.length() < bytes);
+		json.append(nl).append(indent).append("],").append(nl).append(indent).append("\"total\": ").append(id)
+				.append(nl).append('}');
+		return json.toString();
+	}
+
+	/**
+	 * Builds a template of at least the given size with a $... placeholder for
+	 * each key of the given map
+	 *
+	 * @param bytes  - minimum size of the template
+	 * @param values - placeholders & their values
+	 * @return String - template text
+	 **/
+	static String template(int bytes, Map<String, String> values) {
+		StringBuilder template = new StringBuilder(bytes + 512);
+		String users = users(Math.min(bytes, 4096), true);
+		while (template.length() < bytes) {
+			template.append("{\"request\": {");
+			for (String key : values.keySet()) {
+				template.append("\"").append(key, 1, key.length()).append("\": \"").append(key).append("\", ");
+			}
+			template.append("\"users\": ").append(users).append("}}\n");
+		}
+		return template.toString();
+	}
+
+	/**
+	 * Placeholder/value pairs as searchAndReplaceTemplate expects them
+	 *
+	 * @param count - number of placeholders
+	 * @return Map<String, String> - $key to value
+	 **/
+	static Map<String, String> placeholders(int count) {
+		Map<String, String> values = new LinkedHashMap<String, String>();
+		for (int i = 0; i < count; i++) {
+			values.put("$field" + i, "value-" + i);
+		}
+		return values;
+	}
+
+	/**
+	 * String map of the given size, as held by a Session or used for headers &
+	 * query parameters
+	 *
+	 * @param count  - number of entries
+	 * @param prefix - prefix of the keys
+	 * @return Map<String, String> - the entries
+	 **/
+	static Map<String, String> entries(int count, String prefix) {
+		Map<String, String> entries = new LinkedHashMap<String, String>();
+		for (int i = 0; i < count; i++) {
+			entries.put(prefix + i, "value-" + i + "-" + Integer.toHexString(i * 0x9E3779B9));
+		}
+		return entries;
+	}
+
+	/**
+	 * Drops the messages TestNG's Reporter keeps for every Log call. Outside a
+	 * test run they are never read and would pile up across iterations.
+	 **/
+	static void clearReporter() {
+		Reporter.clear();
+	}
+
+	private static void field(StringBuilder json, String indent, String nl, String name, String value, boolean quoted,
+			boolean last) {
+		json.append(indent).append(indent).append(indent).append('"').append(name).append("\": ");
+		if (quoted)
+			json.append('"').append(value).append('"');
+		else
+			json.append(value);
+		if (!last)
+			json.append(',');
+		json.append(nl);
+	}
+}
@@ -0,0 +1,154 @@
+package com.celos.qa.api.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celos.qa.api.fields.ApiFields;
+import com.celos.qa.api.restClient.ApiResponse;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/******************************************************************************
+ * Benchmarks of JsonRestClient's response handling: formatResponse on bodies
+ * from 1KB to 4MB, plus the header helpers convertResponseHeadersToJson and
+ * headersToString.
+ *
+ * ApiResponse parses lazily, so formatResponse alone only reads the body.
+ * formatResponseAndParse adds the parse of the body a test reading it pays,
+ * and formatResponseStatusOnly the status block a test checking only the
+ * status builds.
+ *
+ * Responses come from a client whose request filter aborts every request
+ * with the canned body, so Jersey hands formatResponse a real inbound
+ * Response without any socket. invokeOnly measures that plumbing alone and is
+ * the baseline to subtract from formatResponse.
+ *******************************************************************************/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+
+	private static final String STATUS = ApiFields.RESPONSE_FIELD_STATUS.field();
+	private static final String RESPONSE_BODY = ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field();
+
+	/** size of the response body in bytes **/
+	@Param({ "1024", "65536", "1048576", "4194304" })
+	public int bodyBytes;
+
+	/** whether formatResponse logs the response body in full **/
+	@Param({ "true", "false" })
+	public boolean logResponseBody;
+
+	/** number of request & response headers **/
+	@Param({ "16" })
+	public int headerCount;
+
+	private Client client;
+	private WebTarget target;
+	private JsonRestClient restClient;
+	private Response headersResponse;
+
+	@Setup
+	public void setUp() {
+		final byte[] body = Payloads.users(bodyBytes, true).getBytes(StandardCharsets.UTF_8);
+		final Map<String, String> headers = Payloads.entries(headerCount, "X-Header-");
+		client = ClientBuilder.newClient().register((ClientRequestFilter) request -> {
+			Response.ResponseBuilder response = Response.ok(new ByteArrayInputStream(body),
+					MediaType.APPLICATION_JSON_TYPE.withCharset("utf-8"));
+			for (Map.Entry<String, String> header : headers.entrySet()) {
+				response.header(header.getKey(), header.getValue());
+			}
+			request.abortWith(response.build());
+		});
+		target = client.target("http://localhost").path("/api/users");
+		restClient = new JsonRestClient();
+		restClient.setLogResponseBody(logResponseBody);
+		restClient.setHeaders(headers);
+		Response.ResponseBuilder response = Response.ok();
+		for (Map.Entry<String, String> header : headers.entrySet()) {
+			response.header(header.getKey(), header.getValue());
+		}
+		headersResponse = response.build();
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearReporter() {
+		Payloads.clearReporter();
+	}
+
+	@TearDown
+	public void tearDown() {
+		client.close();
+	}
+
+	@Benchmark
+	public ApiResponse formatResponse() {
+		ApiResponse response = restClient.formatResponse(target.request().get());
+		// a multi-MB body logged on every call would otherwise fill the heap
+		// before the iteration ends
+		Payloads.clearReporter();
+		return response;
+	}
+
+	@Benchmark
+	public JsonNode formatResponseAndParse() {
+		JsonNode body = restClient.formatResponse(target.request().get()).get(RESPONSE_BODY);
+		Payloads.clearReporter();
+		return body;
+	}
+
+	@Benchmark
+	public JsonNode formatResponseStatusOnly() {
+		JsonNode status = restClient.formatResponse(target.request().get()).get(STATUS);
+		Payloads.clearReporter();
+		return status;
+	}
+
+	@Benchmark
+	public byte[] invokeOnly() throws Exception {
+		Response response = target.request().get();
+		try {
+			return response.readEntity(InputStream.class).readAllBytes();
+		} finally {
+			response.close();
+		}
+	}
+
+	@Benchmark
+	public ObjectNode convertResponseHeadersToJson() {
+		return restClient.convertResponseHeadersToJson(headersResponse);
+	}
+
+	@Benchmark
+	public String headersToString() {
+		return restClient.headersToString();
+	}
+}
@@ -0,0 +1,67 @@
+package com.celos.qa.api.benchmarks;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.Session;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/******************************************************************************
+ * Benchmarks of the key/value formatters: Session.toString and
+ * JsonRestClient.buildSemiColonSeparatedQueryParamList, from a handful of
+ * entries up to the size of a large session.
+ *******************************************************************************/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+
+	/** number of session values or query parameters **/
+	@Param({ "4", "64", "1024" })
+	public int entryCount;
+
+	private Session session;
+	private JsonRestClient restClient;
+	private JsonNode queryParams;
+
+	@Setup
+	public void setUp() {
+		session = new Session(new HashMap<String, String>(Payloads.entries(entryCount, "sessionKey")));
+		restClient = new JsonRestClient();
+		queryParams = TestContainer.mapper.valueToTree(Payloads.entries(entryCount, "param"));
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearReporter() {
+		Payloads.clearReporter();
+	}
+
+	@Benchmark
+	public String sessionToString() {
+		return session.toString();
+	}
+
+	@Benchmark
+	public String buildSemiColonSeparatedQueryParamList() {
+		return restClient.buildSemiColonSeparatedQueryParamList(queryParams);
+	}
+}
@@ -0,0 +1,68 @@
+package com.celos.qa.api.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celos.qa.api.commonUtils.TestCoreUtils;
+
+/******************************************************************************
+ * Benchmarks of the request body helpers of TestCoreUtils on bodies from 1KB
+ * to 4MB: searchAndReplaceTemplate filling $... placeholders and
+ * convertJsonToSingleLine flattening pretty-printed JSON.
+ *******************************************************************************/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+
+	/** size of the template or JSON body in bytes **/
+	@Param({ "1024", "65536", "1048576", "4194304" })
+	public int bodyBytes;
+
+	/** number of placeholders in the template **/
+	@Param({ "10" })
+	public int placeholderCount;
+
+	private Map<String, String> placeholders;
+	private String template;
+	private String prettyJson;
+
+	@Setup
+	public void setUp() {
+		placeholders = Payloads.placeholders(placeholderCount);
+		template = Payloads.template(bodyBytes, placeholders);
+		prettyJson = Payloads.users(bodyBytes, true);
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearReporter() {
+		Payloads.clearReporter();
+	}
+
+	@Benchmark
+	public String searchAndReplaceTemplate() {
+		return TestCoreUtils.searchAndReplaceTemplate(placeholders, template);
+	}
+
+	@Benchmark
+	public String convertJsonToSingleLine() {
+		return TestCoreUtils.convertJsonToSingleLine(prettyJson);
+	}
+}
@@ -0,0 +1,322 @@
+package com.celos.qa.api.cache;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.internal.util.collection.StringKeyIgnoreCaseMultivaluedMap;
+
+import com.celos.qa.api.data.ConfigMapping;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/******************************************************************************
+ * In-memory store of GET responses shared by every pooled client, bounded to
+ * client.cache.maxBytes of bodies and evicting the least recently used entry
+ * first. Bodies over client.cache.maxEntryBytes are not kept.
+ *
+ * Each entry keeps the freshness lifetime its response declared, from
+ * Cache-Control max-age or else Expires, and its ETag & Last-Modified
+ * validators. See ResponseCacheFilter for how entries are served.
+ *******************************************************************************/
+public final class ResponseCache {
+
+	private static final ResponseCache INSTANCE = new ResponseCache(
+			ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_CACHE_MAX_BYTES, 33554432L),
+			ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_CACHE_MAX_ENTRY_BYTES, 2097152L));
+
+	private final long maxBytes;
+	private final long maxEntryBytes;
+
+	/** entries in access order, guarded by this **/
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long bytes = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxBytes      - largest total size of the bodies kept
+	 * @param maxEntryBytes - largest body kept
+	 **/
+	public ResponseCache(long maxBytes, long maxEntryBytes) {
+		this.maxBytes = maxBytes;
+		this.maxEntryBytes = Math.min(maxBytes, maxEntryBytes);
+	}
+
+	/**
+	 * Returns the cache shared by every pooled client
+	 *
+	 * @return ResponseCache - run-wide cache
+	 **/
+	public static ResponseCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the entry of a key, marking it as recently used
+	 *
+	 * @param key - key of a request
+	 * @return Entry - cached response, null if none
+	 **/
+	public synchronized Entry get(String key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * Stores an entry, replacing any under the same key and evicting the least
+	 * recently used ones over the size bound
+	 *
+	 * @param key   - key of the request
+	 * @param entry - response to keep
+	 * @return boolean - false if the body was too large to keep
+	 **/
+	public synchronized boolean put(String key, Entry entry) {
+		if (entry.body.length > maxEntryBytes) {
+			remove(key);
+			return false;
+		}
+		Entry previous = entries.put(key, entry);
+		bytes += entry.body.length - (previous == null ? 0 : previous.body.length);
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (bytes > maxBytes && eldest.hasNext()) {
+			bytes -= eldest.next().body.length;
+			eldest.remove();
+		}
+		return true;
+	}
+
+	/**
+	 * Drops the entry of a key
+	 *
+	 * @param key - key of a request
+	 **/
+	public synchronized void remove(String key) {
+		Entry removed = entries.remove(key);
+		if (removed != null)
+			bytes -= removed.body.length;
+	}
+
+	/**
+	 * Drops every entry whose key starts with a prefix, e.g. all entries of one
+	 * URI after it was changed
+	 *
+	 * @param prefix - start of the keys to drop
+	 **/
+	public synchronized void removeStartingWith(String prefix) {
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, Entry> entry = iterator.next();
+			if (entry.getKey().startsWith(prefix)) {
+				bytes -= entry.getValue().body.length;
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Drops every entry
+	 **/
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	/********************
+	 * Accessor Methods *
+	 ********************/
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/** Total size of the bodies kept **/
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public long getMaxEntryBytes() {
+		return maxEntryBytes;
+	}
+
+	/**
+	 * A cached response: status, headers, body, when it was stored and how
+	 * long it stays fresh
+	 **/
+	public static final class Entry {
+		private final int status;
+		private final String reason;
+		private final MultivaluedMap<String, String> headers;
+		private final byte[] body;
+		private final long storedAtNanos;
+		private final long freshForNanos;
+		private final Map<String, String> vary;
+
+		/**
+		 * Constructor
+		 *
+		 * @param status   - status code
+		 * @param reason   - reason phrase
+		 * @param headers  - response headers, copied
+		 * @param body     - response body as received
+		 * @param vary     - values the request had for the headers named by Vary
+		 **/
+		public Entry(int status, String reason, MultivaluedMap<String, String> headers, byte[] body,
+				Map<String, String> vary) {
+			this.status = status;
+			this.reason = reason;
+			// header names are case-insensitive, servers differ in the case they send
+			this.headers = new StringKeyIgnoreCaseMultivaluedMap<String>();
+			for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+				this.headers.put(header.getKey(), new ArrayList<String>(header.getValue()));
+			}
+			this.body = body == null ? new byte[0] : body;
+			this.vary = vary;
+			storedAtNanos = System.nanoTime();
+			freshForNanos = freshnessLifetime(this.headers);
+		}
+
+		/**
+		 * Builds the entry confirmed by a 304 response: same body, headers
+		 * updated with those of the 304, freshness restarted
+		 *
+		 * @param notModified - headers of the 304 response
+		 * @return Entry - refreshed entry
+		 **/
+		public Entry refresh(MultivaluedMap<String, String> notModified) {
+			MultivaluedMap<String, String> merged = new StringKeyIgnoreCaseMultivaluedMap<String>();
+			merged.putAll(headers);
+			for (String name : new String[] { HttpHeaders.CACHE_CONTROL, HttpHeaders.EXPIRES, HttpHeaders.DATE,
+					HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, "Age" }) {
+				List<String> values = notModified.get(name);
+				if (values != null)
+					merged.put(name, new ArrayList<String>(values));
+				else if (name.equals("Age"))
+					merged.remove(name);
+			}
+			return new Entry(status, reason, merged, body, vary);
+		}
+
+		/** True while the entry can be served without asking the server **/
+		public boolean isFresh() {
+			return System.nanoTime() - storedAtNanos < freshForNanos;
+		}
+
+		/** True if the entry can be revalidated with If-None-Match or If-Modified-Since **/
+		public boolean hasValidator() {
+			return getETag() != null || getLastModified() != null;
+		}
+
+		/** Seconds since the response was generated, for the Age header **/
+		public long getAgeSeconds() {
+			return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - storedAtNanos) + initialAge(headers);
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+
+		public MultivaluedMap<String, String> getHeaders() {
+			return headers;
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+
+		public Map<String, String> getVary() {
+			return vary;
+		}
+
+		public String getETag() {
+			return headers.getFirst(HttpHeaders.ETAG);
+		}
+
+		public String getLastModified() {
+			return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+		}
+	}
+
+	/**
+	 * Freshness lifetime a response declares: max-age of Cache-Control, else
+	 * Expires less Date; 0 when it declares none or asks for revalidation,
+	 * less the Age it already had
+	 *
+	 * @param headers - response headers
+	 * @return long - nanoseconds the response is fresh for
+	 **/
+	static long freshnessLifetime(MultivaluedMap<String, String> headers) {
+		Map<String, String> directives = directives(headers.get(HttpHeaders.CACHE_CONTROL));
+		if (directives.containsKey("no-cache") || directives.containsKey("no-store"))
+			return 0;
+		long seconds = -1;
+		if (directives.containsKey("max-age")) {
+			seconds = parseSeconds(directives.get("max-age"));
+		} else if (headers.getFirst(HttpHeaders.EXPIRES) != null) {
+			ZonedDateTime expires = parseDate(headers.getFirst(HttpHeaders.EXPIRES));
+			ZonedDateTime date = parseDate(headers.getFirst(HttpHeaders.DATE));
+			if (expires != null)
+				seconds = expires.toEpochSecond() - (date == null ? ZonedDateTime.now() : date).toEpochSecond();
+		}
+		return TimeUnit.SECONDS.toNanos(Math.max(0, seconds - initialAge(headers)));
+	}
+
+	/**
+	 * Parses Cache-Control directives, e.g. max-age=60, no-cache
+	 *
+	 * @param values - Cache-Control header values, null if none
+	 * @return Map<String, String> - directive names in lower case to their
+	 *         value, empty for directives without one
+	 **/
+	public static Map<String, String> directives(List<String> values) {
+		Map<String, String> directives = new LinkedHashMap<String, String>();
+		if (values == null)
+			return directives;
+		for (String value : values) {
+			for (String directive : value.split(",")) {
+				int equals = directive.indexOf('=');
+				String name = (equals < 0 ? directive : directive.substring(0, equals)).trim().toLowerCase();
+				if (!name.isEmpty())
+					directives.put(name, equals < 0 ? "" : directive.substring(equals + 1).trim().replace("\"", ""));
+			}
+		}
+		return directives;
+	}
+
+	private static long initialAge(MultivaluedMap<String, String> headers) {
+		String age = headers.getFirst("Age");
+		return age == null ? 0 : Math.max(0, parseSeconds(age));
+	}
+
+	private static long parseSeconds(String value) {
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	private static ZonedDateTime parseDate(String value) {
+		if (value == null)
+			return null;
+		try {
+			return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+}
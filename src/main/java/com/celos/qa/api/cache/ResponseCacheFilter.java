@@ -0,0 +1,256 @@
+package com.celos.qa.api.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.metrics.RequestMetrics;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+/******************************************************************************
+ * Serves GET requests of a pooled client from the ResponseCache, following
+ * HTTP caching rules:
+ *
+ * - a fresh entry answers the request without it reaching the connector
+ * - a stale entry with an ETag or Last-Modified is revalidated with
+ *   If-None-Match / If-Modified-Since; a 304 answer is replaced by the cached
+ *   response and restarts its freshness
+ * - 200 responses are stored unless they say no-store or Vary: *, and only
+ *   when they are fresh for a while or carry a validator
+ * - a request with Cache-Control no-cache or max-age=0 is always revalidated,
+ *   one with no-store bypasses the cache
+ * - a successful request other than GET or HEAD drops the entries of its URI
+ *
+ * Runs after CompressionInterceptor, so a lookup sees the Accept-Encoding the
+ * request is sent with and Vary: Accept-Encoding entries match.
+ *
+ * Requests are keyed by URI and the headers carrying an identity
+ * (Authorization, x-authorization-gc and Cookie), so responses are never
+ * served to another identity. Bodies are kept as received, still compressed if they
+ * were, and decoded again when read.
+ *******************************************************************************/
+@Priority(Priorities.USER + 200)
+public class ResponseCacheFilter implements ClientRequestFilter, ClientResponseFilter {
+
+	private static Logger log = LogManager.getLogger(ResponseCacheFilter.class.getName());
+
+	/** ClientConfig property: true to cache the client's GET responses **/
+	public static final String ENABLED = ResponseCacheFilter.class.getName() + ".enabled";
+
+	/** request properties holding the key, and the entry being revalidated **/
+	private static final String KEY = ResponseCacheFilter.class.getName() + ".key";
+	private static final String REVALIDATING = ResponseCacheFilter.class.getName() + ".revalidating";
+
+	/** request headers telling one identity from another, all part of the key **/
+	private static final String[] IDENTITY_HEADERS = { HttpHeaders.AUTHORIZATION, "x-authorization-gc",
+			HttpHeaders.COOKIE };
+
+	private final ResponseCache cache;
+
+	/**
+	 * Constructor
+	 *
+	 * @param cache - cache to serve from and store to
+	 **/
+	public ResponseCacheFilter(ResponseCache cache) {
+		this.cache = cache;
+	}
+
+	/** True if clients cache by default, set by client.cache.enabled **/
+	public static boolean isEnabledByDefault() {
+		return ConfigMapping.getConfigPropertyAsBoolean(ConfigMapping.CLIENT_CACHE_ENABLED, false);
+	}
+
+	@Override
+	public void filter(ClientRequestContext requestContext) {
+		String method = requestContext.getMethod();
+		if (!"GET".equals(method)) {
+			if (!"HEAD".equals(method) && !"OPTIONS".equals(method))
+				requestContext.setProperty(KEY, uriKey(requestContext));
+			return;
+		}
+		Map<String, String> directives = ResponseCache.directives(cacheControl(requestContext));
+		if (directives.containsKey("no-store"))
+			return;
+		String key = key(requestContext);
+		requestContext.setProperty(KEY, key);
+		ResponseCache.Entry entry = cache.get(key);
+		if (entry == null || !entry.getVary().equals(vary(requestContext, entry.getVary().keySet()))) {
+			RequestMetrics.recordCacheMiss();
+			return;
+		}
+		boolean revalidate = directives.containsKey("no-cache") || "0".equals(directives.get("max-age"));
+		if (entry.isFresh() && !revalidate) {
+			RequestMetrics.recordCacheHit();
+			Log.logInfo(log, "Served from cache: " + key);
+			requestContext.removeProperty(KEY);
+			requestContext.abortWith(toResponse(entry));
+			return;
+		}
+		if (!entry.hasValidator()
+				|| requestContext.getHeaders().containsKey(HttpHeaders.IF_NONE_MATCH)
+				|| requestContext.getHeaders().containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+			RequestMetrics.recordCacheMiss();
+			return;
+		}
+		if (entry.getETag() != null)
+			requestContext.getHeaders().putSingle(HttpHeaders.IF_NONE_MATCH, entry.getETag());
+		if (entry.getLastModified() != null)
+			requestContext.getHeaders().putSingle(HttpHeaders.IF_MODIFIED_SINCE, entry.getLastModified());
+		requestContext.setProperty(REVALIDATING, entry);
+	}
+
+	@Override
+	public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+		Object key = requestContext.getProperty(KEY);
+		if (!(key instanceof String))
+			return;
+		requestContext.removeProperty(KEY);
+		int status = responseContext.getStatus();
+		if (!"GET".equals(requestContext.getMethod())) {
+			if (status >= 200 && status < 400)
+				cache.removeStartingWith((String) key);
+			return;
+		}
+		Object revalidating = requestContext.getProperty(REVALIDATING);
+		if (revalidating instanceof ResponseCache.Entry) {
+			requestContext.removeProperty(REVALIDATING);
+			if (status == Response.Status.NOT_MODIFIED.getStatusCode()) {
+				ResponseCache.Entry entry = ((ResponseCache.Entry) revalidating).refresh(responseContext.getHeaders());
+				cache.put((String) key, entry);
+				RequestMetrics.recordCacheRevalidated();
+				Log.logInfo(log, "Revalidated cached response: " + key);
+				replace(responseContext, entry);
+				return;
+			}
+			RequestMetrics.recordCacheMiss();
+		}
+		if (status == Response.Status.OK.getStatusCode())
+			store((String) key, requestContext, responseContext);
+	}
+
+	/**
+	 * Keeps a 200 response if it may be cached, reading its body at most once
+	 * and handing the bytes read back to the response
+	 **/
+	private void store(String key, ClientRequestContext requestContext, ClientResponseContext responseContext)
+			throws IOException {
+		Map<String, String> directives = ResponseCache.directives(
+				responseContext.getHeaders().get(HttpHeaders.CACHE_CONTROL));
+		List<String> varyHeaders = responseContext.getHeaders().get(HttpHeaders.VARY);
+		String varyValue = varyHeaders == null ? "" : String.join(",", varyHeaders);
+		if (directives.containsKey("no-store") || varyValue.contains("*"))
+			return;
+		if (ResponseCache.freshnessLifetime(responseContext.getHeaders()) <= 0
+				&& responseContext.getHeaderString(HttpHeaders.ETAG) == null
+				&& responseContext.getHeaderString(HttpHeaders.LAST_MODIFIED) == null)
+			return;
+		if (responseContext.getLength() > cache.getMaxEntryBytes())
+			return;
+		byte[] body = null;
+		if (responseContext.hasEntity()) {
+			InputStream stream = responseContext.getEntityStream();
+			ByteArrayOutputStream read = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int count;
+			while (read.size() <= cache.getMaxEntryBytes() && (count = stream.read(buffer)) != -1) {
+				read.write(buffer, 0, count);
+			}
+			if (read.size() > cache.getMaxEntryBytes()) {
+				responseContext.setEntityStream(new SequenceInputStream(new ByteArrayInputStream(read.toByteArray()), stream));
+				return;
+			}
+			body = read.toByteArray();
+			responseContext.setEntityStream(new ByteArrayInputStream(body));
+		}
+		Map<String, String> vary = Collections.emptyMap();
+		if (!varyValue.isEmpty()) {
+			List<String> names = new ArrayList<String>();
+			for (String name : varyValue.split(",")) {
+				if (!name.trim().isEmpty())
+					names.add(name.trim());
+			}
+			vary = vary(requestContext, names);
+		}
+		cache.put(key, new ResponseCache.Entry(responseContext.getStatus(),
+				responseContext.getStatusInfo().getReasonPhrase(), responseContext.getHeaders(), body, vary));
+	}
+
+	/** Turns a 304 response into the cached one **/
+	private static void replace(ClientResponseContext responseContext, ResponseCache.Entry entry) {
+		responseContext.setStatusInfo(Response.Status.fromStatusCode(entry.getStatus()) != null
+				? Response.Status.fromStatusCode(entry.getStatus())
+				: responseContext.getStatusInfo());
+		responseContext.getHeaders().clear();
+		for (Map.Entry<String, List<String>> header : entry.getHeaders().entrySet()) {
+			responseContext.getHeaders().addAll(header.getKey(), header.getValue());
+		}
+		responseContext.setEntityStream(new ByteArrayInputStream(entry.getBody()));
+	}
+
+	/** Builds the response aborting a request served from the cache **/
+	private static Response toResponse(ResponseCache.Entry entry) {
+		Response.ResponseBuilder response = Response.status(entry.getStatus(), entry.getReason());
+		for (Map.Entry<String, List<String>> header : entry.getHeaders().entrySet()) {
+			if (header.getKey().equalsIgnoreCase("Age"))
+				continue;
+			for (String value : header.getValue()) {
+				response.header(header.getKey(), value);
+			}
+		}
+		response.header("Age", String.valueOf(entry.getAgeSeconds()));
+		if (entry.getBody().length > 0)
+			response.entity(new ByteArrayInputStream(entry.getBody()));
+		return response.build();
+	}
+
+	private static List<String> cacheControl(ClientRequestContext requestContext) {
+		String value = requestContext.getHeaderString(HttpHeaders.CACHE_CONTROL);
+		return value == null ? null : Collections.singletonList(value);
+	}
+
+	/** Values a request has for the given headers **/
+	private static Map<String, String> vary(ClientRequestContext requestContext, Iterable<String> names) {
+		Map<String, String> values = new LinkedHashMap<String, String>();
+		for (String name : names) {
+			String value = requestContext.getHeaderString(name);
+			values.put(name, value == null ? "" : value);
+		}
+		return values;
+	}
+
+	/** Key of a GET request: its URI and the identity it is sent as **/
+	private static String key(ClientRequestContext requestContext) {
+		StringBuilder key = new StringBuilder(uriKey(requestContext));
+		for (String name : IDENTITY_HEADERS) {
+			String value = requestContext.getHeaderString(name);
+			if (value != null)
+				key.append(' ').append(name).append('=').append(value);
+		}
+		return key.toString();
+	}
+
+	private static String uriKey(ClientRequestContext requestContext) {
+		return requestContext.getUri().toString();
+	}
+}
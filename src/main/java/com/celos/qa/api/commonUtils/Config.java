@@ -3,7 +3,19 @@ package com.celos.qa.api.commonUtils;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.*;
 
@@ -13,20 +25,38 @@ import com.celos.qa.api.commonUtils.Log;
  * Reads file and loads values into Properties object.
  * Contains singleton instance of configuration properties.
  *
+ * Properties are served from an immutable snapshot that merges
+ * the file with the command line (system property) overrides
+ * once, so lookups take no lock. With 'config.watch=true' the
+ * file is watched and a new snapshot swapped in when it changes.
+ *
+ * A reload only reaches values looked up after it. Settings read
+ * once into static fields or shared instances - the log preview
+ * size of JsonRestClient, the ResourceCache and ResponseCache
+ * bounds, RequestMetrics on/off, retry delays, per-host limiter
+ * settings, the sizing of pooled clients already created - keep
+ * the value they started with until the JVM restarts.
+ *
  * @author Subbu
  * @since Mar 12 2023
  *************************************************************/
 
 public final class Config {
-	
+
 	private static Logger log = LogManager.getLogger(Config.class.getName());
-	
+
+	/** Property enabling the configuration file watcher **/
+	public static final String WATCH_PROPERTY = "config.watch";
+
 	/** Contains Properties read from config file **/
 	public Properties properties;
-	
-	/** Flag to have properties to read **/
-	private Boolean valuesLoaded = false;
-	
+
+	/** Current snapshot of each configuration file read, keyed by path **/
+	private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<String, Snapshot>();
+
+	/** Watchers of configuration files, keyed by path, guarded by this **/
+	private final Map<String, WatchService> watchers = new HashMap<String, WatchService>();
+
 	/** Singleton instance of class **/
 	private static final Config CONFIG_INSTANCE = new Config();
 
@@ -39,58 +69,155 @@ public final class Config {
      *
      * @return Config - singleton instance of this class
      **/
-    public static synchronized Config getInstance() {
+    public static Config getInstance() {
     	return CONFIG_INSTANCE;
     }
-   
+
+    /**
+     * Returns the current snapshot, loading it from the file on first use
+     *
+     * @param configFilePath - path to file containing properties
+     * @return Snapshot - current configuration snapshot
+     **/
+    private Snapshot snapshot(String configFilePath) {
+    	Snapshot current = snapshots.get(configFilePath);
+    	if (current == null) {
+    		synchronized (this) {
+    			current = snapshots.get(configFilePath);
+    			if (current == null) {
+    				current = loadSnapshot(configFilePath);
+    				snapshots.put(configFilePath, current);
+    				if (Boolean.parseBoolean(current.merged.get(WATCH_PROPERTY)))
+    					watch(configFilePath);
+    			}
+    		}
+    	}
+    	return current;
+    }
+
+    /**
+     * Reads a file and merges the properties found with the system properties
+     * into a new snapshot
+     *
+     * @param configFilePath - path to file containing properties
+     * @return Snapshot - configuration read from the file
+     **/
+    private Snapshot loadSnapshot(String configFilePath) {
+    	Properties fileProperties = new Properties();
+    	try {
+    		File file = new File(configFilePath);
+    		if(file.exists()) {
+    			FileInputStream inputStream = null;
+    			try {
+    				inputStream = new FileInputStream(configFilePath);
+    				fileProperties.load(inputStream);
+    			} catch (FileNotFoundException e) {
+    				Log.logFatal(log, "Configuration file - " + configFilePath + " - not found", e);
+    			} catch (Exception e) {
+    				Log.logFatal(log, "Exception occured when attemtping to load property file - " + configFilePath, e);
+    			} finally {
+    				if (inputStream != null) {
+    					try {
+    						inputStream.close();
+    					} catch (Exception e) {
+    						Log.logFatal(log, "Exception occured when attemtping to close input stream to property file - " + configFilePath, e);
+    					}
+    				}
+    			}
+    			Log.logInfo(log, "Configuration file - " + configFilePath + " - successfully loaded");
+    		} else {
+    			Log.logWarn(log, "Configuration file - " + configFilePath + " - does not exist");
+    		}
+    	} catch (Exception e) {
+    		Log.logFatal(log, "Exception occured when attemtping to open input stream to property file - " + configFilePath, e);
+    	}
+    	properties = fileProperties;
+    	return new Snapshot(fileProperties, System.getProperties());
+    }
+
     /**
-     * Reads a file and loads the properties found into the Properties object
+     * Rebuilds the snapshot of every configuration file read from the file and
+     * the current system properties. Readers switch to the new snapshot
+     * atomically.
+     **/
+    public synchronized void reload() {
+    	for (String configFilePath : snapshots.keySet()) {
+    		snapshots.put(configFilePath, loadSnapshot(configFilePath));
+    	}
+    }
+
+    /**
+     * Starts watching the configuration file; whenever it changes a new
+     * snapshot is loaded and swapped in. Has no effect if already watching.
      *
      * @param configFilePath - path to file containing properties
      **/
-    private synchronized void loadProperties(String configFilePath) {
-    	if (!valuesLoaded) {
+    public synchronized void watch(final String configFilePath) {
+    	if (watchers.containsKey(configFilePath))
+    		return;
+    	final Path file = new File(configFilePath).getAbsoluteFile().toPath();
+    	final WatchService service;
+    	try {
+    		service = FileSystems.getDefault().newWatchService();
+    		file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    	} catch (Exception e) {
+    		Log.logWarn(log, "Unable to watch configuration file - " + configFilePath + " - " + e.getMessage());
+    		return;
+    	}
+    	watchers.put(configFilePath, service);
+    	Thread thread = new Thread(() -> {
     		try {
-    			File file = new File(configFilePath);
-    			if(file.exists()) {
-    				properties = new Properties();
-    				FileInputStream inputStream = null;
-    				try {
-    					inputStream = new FileInputStream(configFilePath);
-    					properties.load(inputStream); 
-    				} catch (FileNotFoundException e) {
-    					Log.logFatal(log, "Configuration file - " + configFilePath + " - not found", e);
-    				} catch (Exception e) {
-    					Log.logFatal(log, "Exception occured when attemtping to load property file - " + configFilePath, e);
-    				} finally {
-    					if (inputStream != null) {
-    						try {
-    							inputStream.close();
-    						} catch (Exception e) {
-    							Log.logFatal(log, "Exception occured when attemtping to close input stream to property file - " + configFilePath, e);
+    			while (true) {
+    				WatchKey key = service.take();
+    				boolean changed = false;
+    				for (WatchEvent<?> event : key.pollEvents()) {
+    					if (file.getFileName().equals(event.context()))
+    						changed = true;
+    				}
+    				key.reset();
+    				if (changed) {
+    					try {
+    						synchronized (Config.this) {
+    							snapshots.put(configFilePath, loadSnapshot(configFilePath));
     						}
+    					} catch (AssertionError e) {
+    						// already logged; keep the previous snapshot and keep watching
     					}
     				}
-    				valuesLoaded = true;
-    				Log.logInfo(log, "Configuration file - " + configFilePath + " - successfully loaded");
     			}
+    		} catch (InterruptedException | ClosedWatchServiceException e) {
+    			// watching stopped
+    		}
+    	}, "config-watcher");
+    	thread.setDaemon(true);
+    	thread.start();
+    	Log.logInfo(log, "Watching configuration file - " + configFilePath);
+    }
+
+    /**
+     * Stops watching every configuration file
+     **/
+    public synchronized void stopWatching() {
+    	for (WatchService service : watchers.values()) {
+    		try {
+    			service.close();
     		} catch (Exception e) {
-    			Log.logFatal(log, "Exception occured when attemtping to open input stream to property file - " + configFilePath, e);
+    			Log.logWarn(log, "Exception when closing configuration file watcher - " + e.getMessage());
     		}
     	}
+    	watchers.clear();
     }
 
     /**
      * Lookup value of specified property in properties object read in from configuration file.
-     * If a command line argument exists with the same key, return the command line version. 
+     * If a command line argument exists with the same key, return the command line version.
      *
      * @param file - the path to the properties file
      * @param key - the key to the property to retrieve
      * @return String - the value of the property or null if property is not found
      **/
     public String getPropCmdLineOverWrite(String file, String key) {
-    	loadProperties(file);
-    	String prop = (System.getProperty(key) != null) ? System.getProperty(key) : properties.getProperty(key);
+    	String prop = snapshot(file).merged.get(key);
     	if (prop == null)
     		Log.logWarn(log, "Property value not found for key: " + key);
     	return prop;
@@ -104,11 +231,32 @@ public final class Config {
      * @return String - the value of the property or null if property is not found
      **/
     public String getPropConfigOnly(String file, String key) {
-    	loadProperties(file);
-    	String prop = properties.getProperty(key);
+    	String prop = snapshot(file).fileOnly.get(key);
     	if (prop == null)
     		Log.logWarn(log, "Property value not found for key: " + key);
     	return prop;
     }
 
+    /**
+     * Immutable view of the configuration: the file properties alone, and the
+     * file properties overridden by the system properties.
+     **/
+    private static final class Snapshot {
+    	private final Map<String, String> fileOnly;
+    	private final Map<String, String> merged;
+
+    	private Snapshot(Properties fileProperties, Properties systemProperties) {
+    		Map<String, String> file = new HashMap<String, String>();
+    		for (String name : fileProperties.stringPropertyNames()) {
+    			file.put(name, fileProperties.getProperty(name));
+    		}
+    		Map<String, String> all = new HashMap<String, String>(file);
+    		for (String name : systemProperties.stringPropertyNames()) {
+    			all.put(name, systemProperties.getProperty(name));
+    		}
+    		this.fileOnly = Collections.unmodifiableMap(file);
+    		this.merged = Collections.unmodifiableMap(all);
+    	}
+    }
+
 }
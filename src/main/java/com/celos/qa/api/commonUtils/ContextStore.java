@@ -0,0 +1,244 @@
+package com.celos.qa.api.commonUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/******************************************************************************
+ * Concurrent store of values shared between tests, in four scopes:
+ *
+ * SUITE  - visible to every test of the suite (the former TestContainer globals)
+ * CLASS  - visible to the tests of one test class
+ * TEST   - visible to a single test method invocation
+ * THREAD - visible to the current thread only
+ *
+ * Reads take no lock. The current class & test of each thread are tracked by
+ * ContextStoreListener, which also clears each scope when it ends so values
+ * do not outlive the tests that created them.
+ *******************************************************************************/
+public final class ContextStore {
+
+	/** Lifetime of a stored value **/
+	public enum Scope {
+		SUITE, CLASS, TEST, THREAD
+	}
+
+	private static final ConcurrentMap<String, Object> SUITE_VALUES = new ConcurrentHashMap<String, Object>();
+	private static final ConcurrentMap<String, ConcurrentMap<String, Object>> CLASS_VALUES = new ConcurrentHashMap<String, ConcurrentMap<String, Object>>();
+	private static final ConcurrentMap<String, ConcurrentMap<String, Object>> TEST_VALUES = new ConcurrentHashMap<String, ConcurrentMap<String, Object>>();
+
+	/** values of the current thread, dropped when the suite generation changes **/
+	private static final ThreadLocal<ThreadValues> THREAD_VALUES = ThreadLocal.withInitial(ThreadValues::new);
+
+	/** incremented whenever the suite ends, invalidating every thread's values **/
+	private static volatile int generation = 0;
+
+	/** class name & test key of the test running on the current thread **/
+	private static final ThreadLocal<String> CURRENT_CLASS = new ThreadLocal<String>();
+	private static final ThreadLocal<String> CURRENT_TEST = new ThreadLocal<String>();
+
+	/** Empty & private to control instantiation **/
+	private ContextStore() {
+	}
+
+	/********************
+	 * Accessor Methods *
+	 ********************/
+
+	/**
+	 * Stores a value in the given scope. A null value removes the key.
+	 *
+	 * @param scope - scope of the value
+	 * @param key   - name of the value
+	 * @param value - value to store
+	 **/
+	public static void put(Scope scope, String key, Object value) {
+		Map<String, Object> values = values(scope, true);
+		if (value == null)
+			values.remove(key);
+		else
+			values.put(key, value);
+	}
+
+	/**
+	 * Returns a value from the given scope
+	 *
+	 * @param scope - scope of the value
+	 * @param key   - name of the value
+	 * @return Object - the value, null if not found
+	 **/
+	public static Object get(Scope scope, String key) {
+		Map<String, Object> values = values(scope, false);
+		return values == null ? null : values.get(key);
+	}
+
+	/**
+	 * Returns a value from the given scope, cast to the given type
+	 *
+	 * @param scope - scope of the value
+	 * @param key   - name of the value
+	 * @param type  - expected type of the value
+	 * @return T - the value, null if not found
+	 **/
+	public static <T> T get(Scope scope, String key, Class<T> type) {
+		return type.cast(get(scope, key));
+	}
+
+	/**
+	 * Returns a value from the given scope as a String
+	 *
+	 * @param scope - scope of the value
+	 * @param key   - name of the value
+	 * @return String - the value's String form, null if not found
+	 **/
+	public static String getString(Scope scope, String key) {
+		Object value = get(scope, key);
+		return value == null ? null : value.toString();
+	}
+
+	/**
+	 * Returns a value from the given scope, atomically creating it first if
+	 * absent
+	 *
+	 * @param scope   - scope of the value
+	 * @param key     - name of the value
+	 * @param factory - creates the value when absent
+	 * @return Object - the existing or created value
+	 **/
+	public static Object computeIfAbsent(Scope scope, String key, Function<String, Object> factory) {
+		return values(scope, true).computeIfAbsent(key, factory);
+	}
+
+	/**
+	 * Removes a value from the given scope
+	 *
+	 * @param scope - scope of the value
+	 * @param key   - name of the value
+	 * @return Object - the removed value, null if not found
+	 **/
+	public static Object remove(Scope scope, String key) {
+		Map<String, Object> values = values(scope, false);
+		return values == null ? null : values.remove(key);
+	}
+
+	/**
+	 * Looks a value up from the narrowest scope to the widest: THREAD, TEST,
+	 * CLASS then SUITE
+	 *
+	 * @param key - name of the value
+	 * @return Object - the value in the narrowest scope holding it, null if none
+	 **/
+	public static Object lookup(String key) {
+		for (Scope scope : new Scope[] { Scope.THREAD, Scope.TEST, Scope.CLASS, Scope.SUITE }) {
+			Object value = get(scope, key);
+			if (value != null)
+				return value;
+		}
+		return null;
+	}
+
+	/**
+	 * Clears the current instance of a scope: the whole suite, the current
+	 * class, the current test or the current thread
+	 *
+	 * @param scope - scope to clear
+	 **/
+	public static void clear(Scope scope) {
+		Map<String, Object> values = values(scope, false);
+		if (values != null)
+			values.clear();
+	}
+
+	/*************
+	 * Lifecycle *
+	 *************/
+
+	/**
+	 * Marks the current thread as running the given test
+	 *
+	 * @param className - name of the test class
+	 * @param testKey   - unique key of the test method invocation
+	 **/
+	public static void enterTest(String className, String testKey) {
+		CURRENT_CLASS.set(className);
+		CURRENT_TEST.set(testKey);
+	}
+
+	/**
+	 * Ends the current thread's test, freeing its TEST scope
+	 **/
+	public static void exitTest() {
+		String testKey = CURRENT_TEST.get();
+		if (testKey != null)
+			TEST_VALUES.remove(testKey);
+		CURRENT_TEST.remove();
+	}
+
+	/**
+	 * Frees the CLASS scope of a test class
+	 *
+	 * @param className - name of the test class
+	 **/
+	public static void endClass(String className) {
+		CLASS_VALUES.remove(className);
+	}
+
+	/**
+	 * Frees every scope. Thread values are dropped by each thread on its next
+	 * access.
+	 **/
+	public static void endSuite() {
+		SUITE_VALUES.clear();
+		CLASS_VALUES.clear();
+		TEST_VALUES.clear();
+		generation++;
+		THREAD_VALUES.remove();
+	}
+
+	/**
+	 * Returns the map backing the current instance of a scope
+	 *
+	 * @param scope  - scope to resolve
+	 * @param create - true to create the map if it does not exist yet
+	 * @return Map<String, Object> - backing map, null if absent and not created
+	 **/
+	private static Map<String, Object> values(Scope scope, boolean create) {
+		switch (scope) {
+		case SUITE:
+			return SUITE_VALUES;
+		case CLASS:
+			return scoped(CLASS_VALUES, CURRENT_CLASS.get(), create);
+		case TEST:
+			return scoped(TEST_VALUES, CURRENT_TEST.get(), create);
+		default:
+			ThreadValues thread = THREAD_VALUES.get();
+			if (thread.generation != generation) {
+				thread.values.clear();
+				thread.generation = generation;
+			}
+			return thread.values;
+		}
+	}
+
+	private static Map<String, Object> scoped(ConcurrentMap<String, ConcurrentMap<String, Object>> scopes, String id,
+			boolean create) {
+		if (id == null) {
+			if (create)
+				throw new IllegalStateException("No test is running on thread " + Thread.currentThread().getName()
+						+ "; CLASS & TEST scopes are only available inside test methods");
+			return null;
+		}
+		ConcurrentMap<String, Object> values = scopes.get(id);
+		if (values == null && create)
+			values = scopes.computeIfAbsent(id, k -> new ConcurrentHashMap<String, Object>());
+		return values;
+	}
+
+	/** Values of one thread, tagged with the suite generation they belong to **/
+	private static class ThreadValues {
+		private final Map<String, Object> values = new HashMap<String, Object>();
+		private int generation = ContextStore.generation;
+	}
+}
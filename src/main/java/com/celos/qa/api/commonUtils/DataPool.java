@@ -0,0 +1,345 @@
+package com.celos.qa.api.commonUtils;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.ContextStore.Scope;
+import com.celos.qa.api.data.ConfigMapping;
+
+/******************************************************************************
+ * Pool of single-use test data (ids, accounts, ...) shared by parallel tests,
+ * without a global lock.
+ *
+ * Items are loaded into a shared deque. Each thread checks items out into its
+ * own partition a batch at a time and serves later takes from there; a thread
+ * whose partition and the shared deque are both empty steals from the other
+ * threads' partitions. Taken alone, items come out last in first out, the way
+ * the former Stack served them. The partitions of threads that have ended are
+ * dropped, and their items returned to the shared deque, when the next thread
+ * joins the pool.
+ *
+ * When the number of available items falls to the low water mark the refill
+ * callback, if any, is asked for more. When the pool is empty a take either
+ * fails at once or waits up to a timeout for items to be added, per the
+ * empty policy. A take that cannot be met in full gives back what it took
+ * before waiting, so takes waiting together never starve each other.
+ *******************************************************************************/
+public class DataPool<T> {
+
+	private static Logger log = LogManager.getLogger(DataPool.class.getName());
+
+	/** What a take does when the pool does not hold enough items **/
+	public enum EmptyPolicy {
+		WAIT, FAIL
+	}
+
+	/** longest pause between two attempts while waiting for items **/
+	private static final long MAX_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final String name;
+
+	/** items not yet checked out by any thread **/
+	private final ConcurrentLinkedDeque<T> shared = new ConcurrentLinkedDeque<T>();
+
+	/** items checked out by each thread; owners take from the tail, thieves from the head **/
+	private final List<Partition<T>> partitions = new CopyOnWriteArrayList<Partition<T>>();
+	private final ThreadLocal<Partition<T>> partition = ThreadLocal.withInitial(() -> {
+		pruneDeadPartitions();
+		Partition<T> local = new Partition<T>(Thread.currentThread());
+		partitions.add(local);
+		return local;
+	});
+
+	/** number of items in the shared deque and all partitions **/
+	private final LongAdder available = new LongAdder();
+
+	private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+	private int batchSize = ConfigMapping.getConfigPropertyAsInt(ConfigMapping.DATA_POOL_BATCH_SIZE, 8);
+	private int lowWaterMark = ConfigMapping.getConfigPropertyAsInt(ConfigMapping.DATA_POOL_LOW_WATER_MARK, 0);
+	private EmptyPolicy emptyPolicy = emptyPolicyFromConfig();
+	private long waitTimeoutMs = ConfigMapping.getConfigPropertyAsLong(ConfigMapping.DATA_POOL_WAIT_TIMEOUT_MS, 5000);
+	private Supplier<? extends Collection<T>> refill = null;
+
+	/**
+	 * Constructor - creates an empty pool
+	 *
+	 * @param name - name of the pool, used in messages
+	 **/
+	public DataPool(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Constructor - creates a pool holding the given items; the last item is
+	 * taken first
+	 *
+	 * @param name  - name of the pool, used in messages
+	 * @param items - initial items
+	 **/
+	public DataPool(String name, Collection<? extends T> items) {
+		this(name);
+		addAll(items);
+	}
+
+	/**
+	 * Returns the pool of Strings stored in the TestContainer under a key. A
+	 * Stack or other collection stored there by older code is converted into a
+	 * pool, once.
+	 *
+	 * @param key - key of data in TestContainer
+	 * @return DataPool<String> - pool stored under the key, null if none
+	 **/
+	@SuppressWarnings("unchecked")
+	public static DataPool<String> fromContainer(final String key) {
+		Object value = ContextStore.get(Scope.SUITE, key);
+		if (value == null || value instanceof DataPool)
+			return (DataPool<String>) value;
+		synchronized (DataPool.class) {
+			value = ContextStore.get(Scope.SUITE, key);
+			if (value instanceof Collection) {
+				List<String> items = new ArrayList<String>();
+				for (Object item : (Collection<?>) value) {
+					items.add((String) item);
+				}
+				value = new DataPool<String>(key, items);
+				ContextStore.put(Scope.SUITE, key, value);
+			}
+			return (DataPool<String>) value;
+		}
+	}
+
+	/********************
+	 * Accessor Methods *
+	 ********************/
+
+	/** Number of items a thread checks out of the shared deque at a time **/
+	public DataPool<T> setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+		return this;
+	}
+
+	/** Number of available items at or below which the refill callback is called **/
+	public DataPool<T> setLowWaterMark(int lowWaterMark) {
+		this.lowWaterMark = lowWaterMark;
+		return this;
+	}
+
+	/** What a take does when the pool does not hold enough items **/
+	public DataPool<T> setEmptyPolicy(EmptyPolicy emptyPolicy) {
+		this.emptyPolicy = emptyPolicy;
+		return this;
+	}
+
+	/** Longest time a take waits for items under the WAIT policy **/
+	public DataPool<T> setWaitTimeoutMs(long waitTimeoutMs) {
+		this.waitTimeoutMs = waitTimeoutMs;
+		return this;
+	}
+
+	/** Callback supplying more items when the pool runs low, null for none **/
+	public DataPool<T> setRefill(Supplier<? extends Collection<T>> refill) {
+		this.refill = refill;
+		return this;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/** Number of threads holding a partition of the pool **/
+	public int getPartitionCount() {
+		return partitions.size();
+	}
+
+	/** Approximate number of items available **/
+	public int size() {
+		return (int) Math.max(0, available.sum());
+	}
+
+	/**
+	 * Adds items to the pool; the last item is taken first
+	 *
+	 * @param items - items to add
+	 **/
+	public void addAll(Collection<? extends T> items) {
+		for (T item : items) {
+			shared.addLast(item);
+		}
+		available.add(items.size());
+	}
+
+	/**
+	 * Takes one item out of the pool
+	 *
+	 * @return T - the item
+	 **/
+	public T take() {
+		return take(1).get(0);
+	}
+
+	/**
+	 * Takes items out of the pool. Either all of them are returned or, when the
+	 * pool cannot supply them under the empty policy, none are taken and the
+	 * test fails.
+	 *
+	 * @param quantity - number of items to take
+	 * @return List<T> - the items taken
+	 **/
+	public List<T> take(int quantity) {
+		List<T> items = new ArrayList<T>(quantity);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+		long pause = 1000;
+		while (true) {
+			while (items.size() < quantity) {
+				T item = poll();
+				if (item == null)
+					break;
+				items.add(item);
+			}
+			refillIfLow();
+			if (items.size() == quantity)
+				return items;
+			if (available.sum() > 0) {
+				// Items being moved between deques by another thread are briefly
+				// in none of them; look again rather than fail
+				Thread.yield();
+				continue;
+			}
+			// Put back what was taken, so a failed take leaves the pool as it was
+			// and a waiting take holds nothing another take could finish with
+			giveBack(items);
+			if (emptyPolicy == EmptyPolicy.FAIL || System.nanoTime() - deadline >= 0)
+				break;
+			// Jitter keeps takes that gave back together from colliding again
+			LockSupport.parkNanos(pause + ThreadLocalRandom.current().nextLong(pause));
+			pause = Math.min(pause * 2, MAX_PAUSE_NANOS);
+		}
+		Log.logFatal(log, "Data pool '" + name + "' could not supply " + quantity + " item(s); " + size()
+				+ " available" + (emptyPolicy == EmptyPolicy.WAIT ? " after waiting " + waitTimeoutMs + " ms" : ""));
+		return null;
+	}
+
+	/**
+	 * Returns items taken by an unfinished take to this thread's partition, in
+	 * the order they came out, and empties the list
+	 *
+	 * @param items - items to return
+	 **/
+	private void giveBack(List<T> items) {
+		ConcurrentLinkedDeque<T> local = partition.get().items;
+		for (int i = items.size() - 1; i >= 0; i--) {
+			local.addLast(items.get(i));
+		}
+		available.add(items.size());
+		items.clear();
+	}
+
+	/**
+	 * Takes one item from this thread's partition, checking a batch out of the
+	 * shared deque or stealing from another partition when it is empty
+	 *
+	 * @return T - the item, null if the pool is empty
+	 **/
+	private T poll() {
+		Partition<T> owned = partition.get();
+		ConcurrentLinkedDeque<T> local = owned.items;
+		T item = local.pollLast();
+		if (item == null) {
+			// Check out a batch, keeping the shared order: the first item out
+			// ends up at the tail of the partition
+			for (int i = 0; i < batchSize; i++) {
+				T next = shared.pollLast();
+				if (next == null)
+					break;
+				local.addFirst(next);
+			}
+			item = local.pollLast();
+		}
+		if (item == null) {
+			for (Partition<T> victim : partitions) {
+				if (victim != owned && (item = victim.items.pollFirst()) != null)
+					break;
+			}
+		}
+		if (item != null)
+			available.decrement();
+		return item;
+	}
+
+	/**
+	 * Drops the partitions of threads that have ended, moving the items left in
+	 * them back to the shared deque
+	 **/
+	private void pruneDeadPartitions() {
+		for (Partition<T> dead : partitions) {
+			if (dead.isOwnerAlive())
+				continue;
+			partitions.remove(dead);
+			// The tail of the partition was due first, so it goes to the tail of the shared deque
+			T item;
+			while ((item = dead.items.pollFirst()) != null) {
+				shared.addLast(item);
+			}
+		}
+	}
+
+	/** Calls the refill callback when at or below the low water mark, one thread at a time **/
+	private void refillIfLow() {
+		if (refill == null || available.sum() > lowWaterMark || !refilling.compareAndSet(false, true))
+			return;
+		try {
+			Collection<T> items = refill.get();
+			if (items != null && !items.isEmpty()) {
+				addAll(items);
+				Log.logInfo(log, "Data pool '" + name + "' refilled with " + items.size() + " item(s)");
+			}
+		} finally {
+			refilling.set(false);
+		}
+	}
+
+	private static EmptyPolicy emptyPolicyFromConfig() {
+		String value = ConfigMapping.getConfigProperty(ConfigMapping.DATA_POOL_EMPTY_POLICY);
+		try {
+			return value == null ? EmptyPolicy.FAIL : EmptyPolicy.valueOf(value.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			Log.logWarn(log, "Unknown data pool empty policy '" + value + "', using FAIL");
+			return EmptyPolicy.FAIL;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "DataPool[" + name + ", available = " + size() + "]";
+	}
+
+	/** Items checked out by one thread; held weakly so the pool does not keep ended threads alive **/
+	private static final class Partition<T> {
+
+		private final WeakReference<Thread> owner;
+		private final ConcurrentLinkedDeque<T> items = new ConcurrentLinkedDeque<T>();
+
+		private Partition(Thread owner) {
+			this.owner = new WeakReference<Thread>(owner);
+		}
+
+		private boolean isOwnerAlive() {
+			Thread thread = owner.get();
+			return thread != null && thread.isAlive();
+		}
+	}
+}
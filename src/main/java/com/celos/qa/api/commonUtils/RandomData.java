@@ -0,0 +1,171 @@
+package com.celos.qa.api.commonUtils;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.data.ConfigMapping;
+
+/******************************************************************************
+ * Random test data generation without a shared generator. Each thread draws
+ * from its own SplittableRandom, derived from a single suite seed so a run can
+ * be replayed exactly.
+ *
+ * The seed is read from 'random.seed' (config file or -Drandom.seed) and
+ * chosen at random when blank; either way it is logged at start. Before each
+ * test method RandomDataListener reseeds the thread's generator from the suite
+ * seed and the identity of the invocation, so a test draws the same values on
+ * a replay whichever thread runs it and whatever ran before it. A thread that
+ * draws before any reseed is labelled by the order in which threads first
+ * draw. Each reset moves the thread on to a new generator derived from its
+ * label and the number of resets so far, so resets never repeat values yet
+ * replay identically.
+ *******************************************************************************/
+public final class RandomData {
+
+	private static Logger log = LogManager.getLogger(RandomData.class.getName());
+
+	/** seed every generator of the run derives from **/
+	private static final long SEED = initialSeed();
+
+	/** threads that have drawn without a reseed, numbering their initial labels **/
+	private static final AtomicLong UNLABELLED = new AtomicLong();
+
+	/** per-thread generator and the label it derives from **/
+	private static final ThreadLocal<Generator> GENERATOR = ThreadLocal
+			.withInitial(() -> new Generator("thread#" + UNLABELLED.getAndIncrement()));
+
+	/** Empty & private to control instantiation **/
+	private RandomData() {
+	}
+
+	/** Seed of this run, to pass as -Drandom.seed to replay it **/
+	public static long getSeed() {
+		return SEED;
+	}
+
+	/** Generator of the current thread; not to be shared with other threads **/
+	public static SplittableRandom current() {
+		return GENERATOR.get().random;
+	}
+
+	/**
+	 * Reseeds the current thread's generator from the suite seed and a label,
+	 * such as the identity of the test invocation about to run. The same label
+	 * always yields the same generator, so labels of repeated work must tell
+	 * the repetitions apart.
+	 *
+	 * @param label - name identifying the work about to draw values
+	 **/
+	public static void reseed(String label) {
+		GENERATOR.set(new Generator(label));
+	}
+
+	/**
+	 * Moves the current thread's generator on to a fresh one, derived from the
+	 * suite seed, the thread's label and the number of resets under that label,
+	 * so values drawn after a reset differ from all drawn before it
+	 **/
+	public static void reset() {
+		Generator generator = GENERATOR.get();
+		generator.resets++;
+		generator.random = new SplittableRandom(derive(generator.label + "#reset" + generator.resets));
+	}
+
+	/**
+	 * Generate a random integer
+	 *
+	 * @param min - minimum value of integer to be generated
+	 * @param max - maximum value of integer to be generated
+	 * @return int - random int between min & max, inclusive
+	 **/
+	public static int nextInt(int min, int max) {
+		return current().nextInt((max - min) + 1) + min;
+	}
+
+	/**
+	 * Generate a random String of characters taken from a character set
+	 *
+	 * @param length       - length of String to generate
+	 * @param characterSet - characters to generate random String from
+	 * @return String - random String
+	 **/
+	public static String string(int length, String characterSet) {
+		SplittableRandom random = current();
+		int size = characterSet.length();
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = characterSet.charAt(random.nextInt(size));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Generate a random name of 6 to 11 capital letters
+	 *
+	 * @return String - random name
+	 **/
+	public static String name() {
+		return string(current().nextInt(6) + 6, TestCoreUtils.charSet_alpha_upperCase);
+	}
+
+	/**
+	 * Mixes the suite seed with a label into the seed of a generator
+	 *
+	 * @param label - name of the generator
+	 * @return long - generator seed
+	 **/
+	private static long derive(String label) {
+		long z = SEED ^ (hash64(label) * 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * 64-bit FNV-1a hash of a label, so labels rarely collide the way 32-bit
+	 * String hash codes do
+	 *
+	 * @param label - text to hash
+	 * @return long - hash of the label
+	 **/
+	private static long hash64(String label) {
+		long hash = 0xCBF29CE484222325L;
+		for (int i = 0; i < label.length(); i++) {
+			hash ^= label.charAt(i);
+			hash *= 0x100000001B3L;
+		}
+		return hash;
+	}
+
+	private static long initialSeed() {
+		long seed;
+		String value = ConfigMapping.getConfigProperty(ConfigMapping.RANDOM_SEED);
+		if (value == null || value.trim().isEmpty()) {
+			seed = new SecureRandom().nextLong();
+		} else {
+			try {
+				seed = Long.parseLong(value.trim());
+			} catch (NumberFormatException e) {
+				seed = value.trim().hashCode();
+			}
+		}
+		Log.logInfo(log, "Random data seed: " + seed + " (replay with -D" + ConfigMapping.RANDOM_SEED + "=" + seed + ")");
+		return seed;
+	}
+
+	/** Generator of one thread, with the label it was seeded from; used by its thread only **/
+	private static final class Generator {
+		private final String label;
+		private int resets = 0;
+		private SplittableRandom random;
+
+		private Generator(String label) {
+			this.label = label;
+			this.random = new SplittableRandom(derive(label));
+		}
+	}
+}
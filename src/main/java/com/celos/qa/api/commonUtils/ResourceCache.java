@@ -0,0 +1,280 @@
+package com.celos.qa.api.commonUtils;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.data.ConfigMapping;
+
+/******************************************************************************
+ * Cache of resource files, so payload and data files are read once per run
+ * rather than on every call. Resources on disk at or above the mapping
+ * threshold are memory-mapped instead of copied onto the heap. Entries are
+ * served as read-only views and evicted least recently used first once the
+ * cache grows past its size bound.
+ *
+ * The bound counts the raw bytes of each resource plus, once a heap resource
+ * has been read as text, the decoded String at two bytes per character. The
+ * text of a memory-mapped resource is decoded on every call rather than kept,
+ * so it never lands on the heap for longer than the caller holds it.
+ *******************************************************************************/
+public final class ResourceCache {
+
+	private static Logger log = LogManager.getLogger(ResourceCache.class.getName());
+
+	/** cached resources in access order, guarded by the class lock **/
+	private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	/** total size of cached resources & their kept text, guarded by the class lock **/
+	private static long totalBytes = 0;
+
+	private static final AtomicLong HITS = new AtomicLong();
+	private static final AtomicLong MISSES = new AtomicLong();
+	private static final AtomicLong EVICTIONS = new AtomicLong();
+
+	/** maximum total size of cached resources, in bytes, guarded by the class lock **/
+	private static long maxBytes = ConfigMapping.getConfigPropertyAsLong(ConfigMapping.RESOURCE_CACHE_MAX_BYTES,
+			64L * 1024 * 1024);
+
+	/** resources on disk of this size or larger are memory-mapped **/
+	private static final long MAP_THRESHOLD = ConfigMapping
+			.getConfigPropertyAsLong(ConfigMapping.RESOURCE_CACHE_MAP_THRESHOLD_BYTES, 1024 * 1024);
+
+	/** Empty & private to control instantiation **/
+	private ResourceCache() {
+	}
+
+	/**
+	 * Returns a resource file as text, with line breaks normalized to "\n" and
+	 * no trailing line break, the same as TestCoreUtils.readResourceFile
+	 *
+	 * @param pathname - path to file within resources
+	 * @return String - file contents
+	 **/
+	public static String getText(String pathname) {
+		Entry entry = getEntry(pathname);
+		return entry == null ? null : entry.text();
+	}
+
+	/**
+	 * Returns a resource file's raw contents
+	 *
+	 * @param pathname - path to file within resources
+	 * @return ByteBuffer - read-only view of the file contents
+	 **/
+	public static ByteBuffer getBytes(String pathname) {
+		Entry entry = getEntry(pathname);
+		return entry == null ? null : entry.data.duplicate();
+	}
+
+	/**
+	 * Drops every cached resource, forcing them to be read again
+	 **/
+	public static synchronized void clear() {
+		ENTRIES.clear();
+		totalBytes = 0;
+	}
+
+	/**
+	 * Setter: maxBytes. Evicts least recently used resources down to the new
+	 * bound.
+	 *
+	 * @param bytes - maximum total size of cached resources
+	 **/
+	public static synchronized void setMaxBytes(long bytes) {
+		maxBytes = bytes;
+		evict();
+	}
+
+	/** Maximum total size of cached resources, in bytes **/
+	public static synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/** Total size of cached resources and their kept text, in bytes **/
+	public static synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+	/** Number of lookups served from the cache **/
+	public static long getHitCount() {
+		return HITS.get();
+	}
+
+	/** Number of lookups that had to read the resource **/
+	public static long getMissCount() {
+		return MISSES.get();
+	}
+
+	/** Number of resources evicted to stay within the size bound **/
+	public static long getEvictionCount() {
+		return EVICTIONS.get();
+	}
+
+	/** Number of resources currently cached **/
+	public static synchronized int size() {
+		return ENTRIES.size();
+	}
+
+	/**
+	 * Summarizes the cache in a single line
+	 *
+	 * @return String - entries, size and counters
+	 **/
+	public static synchronized String getStatistics() {
+		return "Resource cache - entries = " + ENTRIES.size() + " / bytes = " + totalBytes + " / hits = " + HITS.get()
+				+ " / misses = " + MISSES.get() + " / evictions = " + EVICTIONS.get();
+	}
+
+	/**
+	 * Looks up a resource, reading it on a miss. Reading happens outside the
+	 * lock; if two threads miss at once the first one cached wins.
+	 *
+	 * @param pathname - path to file within resources
+	 * @return Entry - cached resource
+	 **/
+	private static Entry getEntry(String pathname) {
+		synchronized (ResourceCache.class) {
+			Entry entry = ENTRIES.get(pathname);
+			if (entry != null) {
+				HITS.incrementAndGet();
+				return entry;
+			}
+		}
+		MISSES.incrementAndGet();
+		Entry loaded = load(pathname);
+		if (loaded == null)
+			return null;
+		synchronized (ResourceCache.class) {
+			Entry existing = ENTRIES.get(pathname);
+			if (existing != null)
+				return existing;
+			// Resources larger than the bound are served but not kept
+			if (loaded.size <= maxBytes) {
+				ENTRIES.put(pathname, loaded);
+				totalBytes += loaded.size;
+				evict();
+			}
+		}
+		return loaded;
+	}
+
+	/** Removes least recently used resources until within the size bound **/
+	private static void evict() {
+		Iterator<Map.Entry<String, Entry>> iterator = ENTRIES.entrySet().iterator();
+		while (totalBytes > maxBytes && iterator.hasNext()) {
+			Map.Entry<String, Entry> eldest = iterator.next();
+			totalBytes -= eldest.getValue().size;
+			iterator.remove();
+			EVICTIONS.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Reads a resource, memory-mapping it when it is a file on disk at or above
+	 * the mapping threshold
+	 *
+	 * @param pathname - path to file within resources
+	 * @return Entry - resource contents
+	 **/
+	private static Entry load(String pathname) {
+		URL url = ResourceCache.class.getResource(pathname);
+		if (url == null) {
+			Log.logFatal(log, "Unable to read resources file: " + pathname);
+			return null;
+		}
+		try {
+			if ("file".equals(url.getProtocol())) {
+				Path path = Paths.get(url.toURI());
+				long size = Files.size(path);
+				if (size >= MAP_THRESHOLD) {
+					try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+						return new Entry(pathname, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), true);
+					}
+				}
+				return new Entry(pathname, ByteBuffer.wrap(Files.readAllBytes(path)), false);
+			}
+			try (InputStream stream = url.openStream()) {
+				return new Entry(pathname, ByteBuffer.wrap(stream.readAllBytes()), false);
+			}
+		} catch (Exception e) {
+			Log.logFatal(log, "Unable to read resources file: " + pathname, e);
+		}
+		return null;
+	}
+
+	/**
+	 * Normalizes line breaks the way reading line by line and joining with "\n"
+	 * does: "\r\n" and "\r" become "\n" and one trailing line break is dropped
+	 *
+	 * @param text - decoded file contents
+	 * @return String - normalized contents
+	 **/
+	static String normalizeLineBreaks(String text) {
+		if (text.indexOf('\r') >= 0)
+			text = text.replace("\r\n", "\n").replace('\r', '\n');
+		return text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+	}
+
+	/**
+	 * Keeps the decoded text of a heap resource and counts it against the bound
+	 * while the resource is cached
+	 *
+	 * @param entry - resource the text was decoded from
+	 * @param text  - decoded text
+	 **/
+	private static synchronized void keepText(Entry entry, String text) {
+		if (entry.text != null)
+			return;
+		entry.text = text;
+		if (ENTRIES.get(entry.pathname) == entry) {
+			long textBytes = 2L * text.length();
+			entry.size += textBytes;
+			totalBytes += textBytes;
+			evict();
+		}
+	}
+
+	/**
+	 * A cached resource. The text of a heap resource is decoded on first use
+	 * and kept; that of a mapped one is decoded on every use.
+	 **/
+	private static class Entry {
+		private final String pathname;
+		private final ByteBuffer data;
+		private final boolean mapped;
+		/** bytes counted against the bound, guarded by the class lock **/
+		private long size;
+		private volatile String text = null;
+
+		private Entry(String pathname, ByteBuffer data, boolean mapped) {
+			this.pathname = pathname;
+			this.data = data.asReadOnlyBuffer();
+			this.mapped = mapped;
+			this.size = data.remaining();
+		}
+
+		private String text() {
+			String decoded = text;
+			if (decoded == null) {
+				decoded = normalizeLineBreaks(StandardCharsets.UTF_8.decode(data.duplicate()).toString());
+				if (!mapped)
+					keepText(this, decoded);
+			}
+			return decoded;
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package com.celos.qa.api.commonUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/******************************************************************************
+ * Renders template files with session values, producing the same output as
+ * TestCoreUtils.searchAndReplaceTemplate. Each template file is read through
+ * the ResourceCache and compiled into literal and placeholder segments for the
+ * set of keys it is rendered with; rendering is then a single pass into a
+ * reusable buffer. The compiled forms are kept only as long as the
+ * ResourceCache keeps the template's text, so they fall under its bound.
+ *
+ * Keys are matched literally, in the iteration order of the map, and a key
+ * inside a region already claimed by an earlier key is not matched, exactly as
+ * the sequential replaceAll calls behave. Keys containing regular expression
+ * characters other than '$' fall back to searchAndReplaceTemplate, as do values
+ * that would let a later key match again - inside the value, or across it and
+ * the text next to it - so output never differs.
+ *******************************************************************************/
+public class TemplateEngine {
+
+	/** regular expression characters, besides '$', that make a key a pattern **/
+	private static final String REGEX_CHARACTERS = "\\^.|?*+()[]{}";
+
+	/** compiled forms kept per template before they are discarded **/
+	private static final int MAX_COMPILED_PER_TEMPLATE = 16;
+
+	/** buffers above this size are not kept for reuse **/
+	private static final int MAX_REUSED_BUFFER = 1 << 20;
+
+	/** compiled forms of each template, held weakly by the text the ResourceCache keeps **/
+	private static final Map<String, Template> TEMPLATES = Collections
+			.synchronizedMap(new WeakHashMap<String, Template>());
+
+	/** per-thread output buffer **/
+	private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+	/**
+	 * Reads a template resource and renders it with the values passed in
+	 *
+	 * @param filePath - path to template within resources
+	 * @param kvPairs  - keys & values to replace
+	 * @return String - template with keys replaced
+	 **/
+	public static String render(String filePath, Map<String, String> kvPairs) {
+		String text = TestCoreUtils.readResourceFile(filePath);
+		return TEMPLATES.computeIfAbsent(text, t -> new Template()).render(text, kvPairs);
+	}
+
+	/**
+	 * Drops the compiled forms of every template, forcing them to be compiled
+	 * again
+	 **/
+	public static void clearCache() {
+		TEMPLATES.clear();
+	}
+
+	/** Number of templates whose compiled forms are kept **/
+	public static int size() {
+		return TEMPLATES.size();
+	}
+
+	/**
+	 * Compiled forms of a template, keyed by the ordered list of keys they were
+	 * compiled for. The text is passed in rather than kept, or it would keep
+	 * its own weak key reachable.
+	 **/
+	private static class Template {
+		private final ConcurrentMap<List<String>, Compiled> compiled = new ConcurrentHashMap<List<String>, Compiled>();
+
+		private String render(String text, Map<String, String> kvPairs) {
+			List<String> keys = Collections.unmodifiableList(new ArrayList<String>(kvPairs.keySet()));
+			Compiled form = compiled.get(keys);
+			if (form == null) {
+				if (compiled.size() >= MAX_COMPILED_PER_TEMPLATE)
+					compiled.clear();
+				form = compiled.computeIfAbsent(keys, k -> Compiled.compile(text, k));
+			}
+			if (form == Compiled.UNSUPPORTED)
+				return TestCoreUtils.searchAndReplaceTemplate(kvPairs, text);
+			return form.render(keys, kvPairs, text);
+		}
+	}
+
+	/**
+	 * Template split into segments. literals[i] is followed by the value of
+	 * keys[placeholders[i]]; the last literal has no placeholder after it.
+	 **/
+	private static class Compiled {
+		private static final Compiled UNSUPPORTED = new Compiled(null, null, null, 0);
+		private static final Compiled VERBATIM = new Compiled(new String[0], new int[0], new int[0], 0);
+
+		private final String[] literals;
+		private final int[] placeholders;
+		/** indexes of keys found in the template, in key order **/
+		private final int[] usedKeys;
+		private final int literalLength;
+
+		private Compiled(String[] literals, int[] placeholders, int[] usedKeys, int literalLength) {
+			this.literals = literals;
+			this.placeholders = placeholders;
+			this.usedKeys = usedKeys;
+			this.literalLength = literalLength;
+		}
+
+		/**
+		 * Finds every occurrence of each key, claiming them in key order the way
+		 * successive replaceAll calls would.
+		 **/
+		private static Compiled compile(String text, List<String> keys) {
+			for (String key : keys) {
+				if (key == null || key.isEmpty())
+					return UNSUPPORTED;
+				for (int i = 0; i < key.length(); i++) {
+					if (REGEX_CHARACTERS.indexOf(key.charAt(i)) >= 0)
+						return UNSUPPORTED;
+				}
+			}
+			// owner[i] = index of the key claiming character i, -1 if literal
+			int[] owner = new int[text.length()];
+			Arrays.fill(owner, -1);
+			int[] matchKey = new int[text.length() + 1];
+			Arrays.fill(matchKey, -1);
+			List<Integer> used = new ArrayList<Integer>();
+			for (int k = 0; k < keys.size(); k++) {
+				String key = keys.get(k);
+				boolean found = false;
+				int from = text.indexOf(key);
+				while (from >= 0) {
+					if (isUnclaimed(owner, from, key.length())) {
+						Arrays.fill(owner, from, from + key.length(), k);
+						matchKey[from] = k;
+						found = true;
+						from = text.indexOf(key, from + key.length());
+					} else {
+						from = text.indexOf(key, from + 1);
+					}
+				}
+				if (found)
+					used.add(k);
+			}
+			List<String> literals = new ArrayList<String>();
+			List<Integer> placeholders = new ArrayList<Integer>();
+			int literalLength = 0;
+			int start = 0;
+			int i = 0;
+			while (i < text.length()) {
+				if (matchKey[i] >= 0) {
+					literals.add(text.substring(start, i));
+					literalLength += i - start;
+					placeholders.add(matchKey[i]);
+					i += keys.get(matchKey[i]).length();
+					start = i;
+				} else {
+					i++;
+				}
+			}
+			// Without placeholders the text is its own rendering; a literal of
+			// the whole text would keep the template's weak key reachable
+			if (placeholders.isEmpty())
+				return VERBATIM;
+			literals.add(text.substring(start));
+			literalLength += text.length() - start;
+			int[] placeholderArray = new int[placeholders.size()];
+			for (int p = 0; p < placeholderArray.length; p++) {
+				placeholderArray[p] = placeholders.get(p);
+			}
+			int[] usedArray = new int[used.size()];
+			for (int u = 0; u < usedArray.length; u++) {
+				usedArray[u] = used.get(u);
+			}
+			return new Compiled(literals.toArray(new String[0]), placeholderArray, usedArray, literalLength);
+		}
+
+		private static boolean isUnclaimed(int[] owner, int from, int length) {
+			for (int i = from; i < from + length; i++) {
+				if (owner[i] >= 0)
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Renders in a single pass. Values are run through the same replacement
+		 * processing replaceAll applies.
+		 **/
+		private String render(List<String> keys, Map<String, String> kvPairs, String text) {
+			if (placeholders.length == 0)
+				return text;
+			String[] values = new String[keys.size()];
+			int valueLength = 0;
+			for (int u = 0; u < usedKeys.length; u++) {
+				int k = usedKeys[u];
+				values[k] = effectiveValue(kvPairs.get(keys.get(k)));
+				valueLength += values[k].length();
+			}
+			// A later key matching in or across a value would be replaced again by
+			// searchAndReplaceTemplate; let it do so
+			if (formsLaterKey(keys, values))
+				return TestCoreUtils.searchAndReplaceTemplate(kvPairs, text);
+			StringBuilder buffer = BUFFER.get();
+			buffer.setLength(0);
+			buffer.ensureCapacity(literalLength + valueLength);
+			for (int p = 0; p < placeholders.length; p++) {
+				buffer.append(literals[p]).append(values[placeholders[p]]);
+			}
+			buffer.append(literals[literals.length - 1]);
+			String result = buffer.toString();
+			if (buffer.capacity() > MAX_REUSED_BUFFER)
+				BUFFER.remove();
+			return result;
+		}
+
+		/**
+		 * True if a key, when its turn comes in the sequential replacement, would
+		 * match text that touches the value of an earlier key: inside the value,
+		 * across its edges, or across the join left by an empty value. E.g. a
+		 * value ending in '$' before the literal "job" forms a later key "$job".
+		 * Only the few characters around each placeholder are checked.
+		 **/
+		private boolean formsLaterKey(List<String> keys, String[] values) {
+			for (int p = 0; p < placeholders.length; p++) {
+				String value = values[placeholders[p]];
+				for (int later = placeholders[p] + 1; later < keys.size(); later++) {
+					String key = keys.get(later);
+					String before = before(p, later, keys, values, key.length() - 1);
+					String window = before + value + after(p, later, keys, values, key.length() - 1);
+					int start = before.length();
+					int end = start + value.length();
+					for (int from = window.indexOf(key); from >= 0; from = window.indexOf(key, from + 1)) {
+						if (from < end && from + key.length() > start)
+							return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Up to 'reach' characters before placeholder p, as the text stands when
+		 * keys[stage] is replaced: earlier keys hold their values, the others
+		 * are still the key
+		 **/
+		private String before(int p, int stage, List<String> keys, String[] values, int reach) {
+			StringBuilder text = new StringBuilder();
+			for (int q = p; q >= 0 && text.length() < reach; q--) {
+				text.insert(0, literals[q]);
+				if (q > 0 && text.length() < reach)
+					text.insert(0, piece(q - 1, stage, keys, values));
+			}
+			return text.length() > reach ? text.substring(text.length() - reach) : text.toString();
+		}
+
+		/** Up to 'reach' characters after placeholder p, see before() **/
+		private String after(int p, int stage, List<String> keys, String[] values, int reach) {
+			StringBuilder text = new StringBuilder();
+			for (int q = p + 1; q < literals.length && text.length() < reach; q++) {
+				text.append(literals[q]);
+				if (q < placeholders.length && text.length() < reach)
+					text.append(piece(q, stage, keys, values));
+			}
+			return text.length() > reach ? text.substring(0, reach) : text.toString();
+		}
+
+		/** Text of placeholder q when keys[stage] is replaced **/
+		private String piece(int q, int stage, List<String> keys, String[] values) {
+			return placeholders[q] < stage ? values[placeholders[q]] : keys.get(placeholders[q]);
+		}
+
+		/**
+		 * Applies the replacement string processing of Matcher.replaceAll; a null
+		 * or invalid replacement is replaced with blank, as
+		 * searchAndReplaceTemplate does.
+		 **/
+		private static String effectiveValue(String value) {
+			if (value == null)
+				return "";
+			if (value.indexOf('$') < 0 && value.indexOf('\\') < 0)
+				return value;
+			try {
+				Matcher matcher = Pattern.compile("x").matcher("x");
+				return matcher.replaceAll(value);
+			} catch (Exception e) {
+				return "";
+			}
+		}
+	}
+}
@@ -1,14 +1,10 @@
 package com.celos.qa.api.commonUtils;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.celos.qa.api.commonUtils.ContextStore.Scope;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class TestContainer {
 	
-	/** Map to hold all global settings for this test run **/
-	private static Map<String, Object> globalVars = new HashMap<String, Object>();
-
 	/** Jackson object mapper for creating new JSON objects **/
 	public static ObjectMapper mapper = new ObjectMapper();
 
@@ -25,14 +21,14 @@ public class TestContainer {
 	 * Accessor Methods *
 	 ********************/
 
-	/** Set global setting **/
-	public static synchronized void setGlobal(String key, Object val) {
-		globalVars.put(key, val);
+	/** Set global setting, held in the suite scope of the ContextStore **/
+	public static void setGlobal(String key, Object val) {
+		ContextStore.put(Scope.SUITE, key, val);
 	}
 
 	/** Get global setting **/
 	public static Object getGlobal(String key) {
-		return globalVars.get(key);
+		return ContextStore.get(Scope.SUITE, key);
 	}
 
 	/** Variable representing the environment under test **/
@@ -42,7 +38,7 @@ public class TestContainer {
 
 	/** Variable representing the environment under test **/
 	public static String getEnvironment() {
-		return globalVars.get("environment").toString();
+		return ContextStore.get(Scope.SUITE, "environment").toString();
 	}
 
 	/** Variable to hold test type such as **/
@@ -52,7 +48,7 @@ public class TestContainer {
 
 	/** Variable to hold test type such as **/
 	public static String getDomain() {
-		return globalVars.get("domain").toString();
+		return ContextStore.get(Scope.SUITE, "domain").toString();
 	}
 
 }
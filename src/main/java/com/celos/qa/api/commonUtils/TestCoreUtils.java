@@ -3,11 +3,8 @@ package com.celos.qa.api.commonUtils;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -25,8 +22,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.Stack;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.regex.Matcher;
@@ -49,12 +44,13 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import com.celos.qa.api.commonUtils.ContextStore.Scope;
+
 
 public class TestCoreUtils {
 
 	private static Logger log = LogManager.getLogger(TestCoreUtils.class.getName());
 
-	private static Random random = new Random();
 	public static String charSet_alpha_lowerCase = "abcdefghijklmnopqrstuvxyz";
 	public static String charSet_alpha_upperCase = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
 	public static String charSet_numeric = "0123456789";
@@ -86,35 +82,14 @@ public class TestCoreUtils {
 	}
 
 	/**
-	 * Read file from resource directory and return as String
+	 * Read file from resource directory and return as String. Files are read
+	 * once and then served from the ResourceCache.
 	 *
 	 * @param pathname - path to file within - src/main/resources
 	 * @return String - file contents
 	 */
 	public static String readResourceFile(String pathname) {
-		InputStream inputStream = TestCoreUtils.class.getResourceAsStream(pathname);
-		InputStreamReader streamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-		StringBuilder buffer = new StringBuilder();
-		BufferedReader reader = new BufferedReader(streamReader);
-		try {
-			String line = reader.readLine();
-			while (line != null) {
-				buffer.append(line);
-				line = reader.readLine();
-				if (line != null) {
-					buffer.append("\n");
-				}
-			}
-		} catch (Exception e) {
-			Log.logFatal(log, "Unable to read resources file: " + pathname, e);
-		} finally {
-			try {
-				reader.close();
-			} catch (Exception e) {
-				Log.logFatal(log, "Unable to close reader object", e);
-			}
-		}
-		return buffer.toString();
+		return ResourceCache.getText(pathname);
 	}
 
 	/**
@@ -135,12 +110,11 @@ public class TestCoreUtils {
 	}
 
 	/**
-	 * Resets the seed in the random generator object
+	 * Moves the random generator of the current thread on to a fresh one, see
+	 * RandomData.reset
 	 */
 	public static void resetRandomSeed() {
-		synchronized (random) {
-			random = new Random();
-		}
+		RandomData.reset();
 	}
 
 	/**
@@ -151,12 +125,7 @@ public class TestCoreUtils {
 	 * @return int - random int between min & max
 	 */
 	public static int generateRandomNumber(int min, int max) {
-		int number;
-		synchronized (random) {
-			// Add 1 to make it inclusive.
-			number = random.nextInt((max - min) + 1) + min;
-		}
-		return number;
+		return RandomData.nextInt(min, max);
 	}
 
 	/**
@@ -181,15 +150,7 @@ public class TestCoreUtils {
 	 * @return String - random number
 	 */
 	public static String generateRandomNumber(int length, String characters) {
-
-		StringBuffer buffer = new StringBuffer("");
-		int charactersLength = characters.length();
-
-		for (int i = 0; i < length; i++) {
-			double index = Math.random() * charactersLength;
-			buffer.append(characters.charAt((int) index));
-		}
-		return buffer.toString();
+		return RandomData.string(length, characters);
 	}
 
 	/**
@@ -201,27 +162,17 @@ public class TestCoreUtils {
 	 * @return String - random String
 	 **/
 	public static String getRandomString(int length, String characterSet) {
-		StringBuilder sb = new StringBuilder(length);
-		for (int i = 0; i < length; i++) {
-			int index = (int) (characterSet.length() * Math.random());
-			sb.append(characterSet.charAt(index));
-		}
-		return sb.toString();
+		return RandomData.string(length, characterSet);
 	}
 
 	/**
-	 * This method generates a random name of length ranging from 6-12 characters
+	 * This method generates a random name of length ranging from 6-11 characters
 	 * comprised of capital letters.
 	 *
 	 * @return String - random name
 	 */
 	public static String generateRandomName() {
-		StringBuilder builder = new StringBuilder();
-		int length = random.nextInt(6) + 6;
-		for (int i = 0; i < length; i++) {
-			builder.append(charSet_alpha_upperCase.charAt(random.nextInt(charSet_alpha_upperCase.length())));
-		}
-		return builder.toString();
+		return RandomData.name();
 	}
 
 	/**
@@ -325,13 +276,7 @@ public class TestCoreUtils {
 	 * @return String - random name
 	 */
 	public static String randomName() {
-		String[] namesList = new String[300];
-		for (int i = 0; i < 300; i++) {
-			namesList[i] = TestCoreUtils.generateRandomName();
-		}
-
-		// randomly selects an index from the array
-		return namesList[random.nextInt(namesList.length)];
+		return RandomData.name();
 	}
 
 	/**
@@ -474,17 +419,18 @@ public class TestCoreUtils {
 	 * @param iQty: number of items to retrieve from the container
 	 * @since March 21, 2019
 	 ***************************************************************************/
-	public static synchronized String[] retrieveDataViaFile(int iQty, String key, String path) {
+	public static String[] retrieveDataViaFile(int iQty, String key, final String path) {
 		try {
 			if (TestContainer.getGlobal(key) == null) {
-				String[] fileContents = TestCoreUtils.readResourceFile(path).split("\n");
-				// read from file and upload contents to global
-				Stack<String> data = new Stack<>();
-				for (String line : fileContents) {
-					if (!line.trim().equals(""))
-						data.push(line.trim());
-				}
-				TestContainer.setGlobal(key, data);
+				// read from file and upload contents to global, once
+				ContextStore.computeIfAbsent(Scope.SUITE, key, k -> {
+					List<String> data = new ArrayList<String>();
+					for (String line : TestCoreUtils.readResourceFile(path).split("\n")) {
+						if (!line.trim().equals(""))
+							data.add(line.trim());
+					}
+					return new DataPool<String>(k, data);
+				});
 			}
 		} catch (Exception e) {
 			Log.logFatal(log, "Error when attempting to read from file path: " + path, e);
@@ -499,18 +445,17 @@ public class TestCoreUtils {
 	 * @param iQty: number of items to retrieve from the container
 	 * @since March 21, 2019
 	 ***************************************************************************/
-	public static synchronized String[] retrieveDataViaContainer(int iQty, String key) {
-		String[] data = new String[iQty];
+	public static String[] retrieveDataViaContainer(int iQty, String key) {
+		DataPool<String> pool = null;
 		try {
-			Stack<?> dataStack = (Stack<?>) TestContainer.getGlobal(key);
-			for (int i = 0; i < iQty; i++) {
-				data[i] = ((String) dataStack.pop());
-				Log.logInfo(log, "Item retrieved: " + data[i]);
-			}
-			TestContainer.setGlobal(key, dataStack);
+			pool = DataPool.fromContainer(key);
 		} catch (Exception e) {
 			Assertion.fail("Error when attempting to retrieve data from TestContainer");
 		}
+		if (pool == null)
+			Assertion.fail("Error when attempting to retrieve data from TestContainer");
+		String[] data = pool.take(iQty).toArray(new String[iQty]);
+		Log.logInfo(log, "Items retrieved from '" + key + "': " + String.join(", ", data));
 		return data;
 	}
 
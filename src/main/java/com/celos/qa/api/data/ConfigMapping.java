@@ -19,6 +19,92 @@ public class ConfigMapping {
     /** API Config Property Field Names **/
     public static final String URL_API_WDPRO_STARWAVE = "url.res.req";
 
+    /** Client Connection Pool Property Field Names **/
+    public static final String CLIENT_POOL_MAX_PER_ROUTE = "client.pool.maxPerRoute";
+    public static final String CLIENT_POOL_MAX_TOTAL = "client.pool.maxTotal";
+    public static final String CLIENT_POOL_IDLE_TIMEOUT_MS = "client.pool.idleTimeoutMs";
+
+    /** Client Transport Property Field Names **/
+    public static final String CLIENT_TRANSPORT = "client.transport";
+    public static final String CLIENT_TRANSPORT_HTTP2 = "client.transport.http2";
+
+    /** Client Retry & Hedging Property Field Names **/
+    public static final String CLIENT_RETRY_MAX_RETRIES = "client.retry.maxRetries";
+    public static final String CLIENT_RETRY_BASE_DELAY_MS = "client.retry.baseDelayMs";
+    public static final String CLIENT_RETRY_MAX_DELAY_MS = "client.retry.maxDelayMs";
+    public static final String CLIENT_RETRY_STATUSES = "client.retry.statuses";
+    public static final String CLIENT_RETRY_BUDGET_RATIO = "client.retry.budgetRatio";
+    public static final String CLIENT_RETRY_BUDGET_MIN = "client.retry.budgetMin";
+    public static final String CLIENT_HEDGE_ENABLED = "client.hedge.enabled";
+    public static final String CLIENT_HEDGE_PERCENTILE = "client.hedge.percentile";
+    public static final String CLIENT_HEDGE_DELAY_MS = "client.hedge.delayMs";
+    public static final String CLIENT_HEDGE_MIN_DELAY_MS = "client.hedge.minDelayMs";
+    public static final String CLIENT_HEDGE_MAX_THREADS = "client.hedge.maxThreads";
+
+    /** Client Concurrency Limiter Property Field Names **/
+    public static final String CLIENT_LIMITER_ENABLED = "client.limiter.enabled";
+    public static final String CLIENT_LIMITER_INITIAL_LIMIT = "client.limiter.initialLimit";
+    public static final String CLIENT_LIMITER_MIN_LIMIT = "client.limiter.minLimit";
+    public static final String CLIENT_LIMITER_MAX_LIMIT = "client.limiter.maxLimit";
+    public static final String CLIENT_LIMITER_BACKOFF_RATIO = "client.limiter.backoffRatio";
+    public static final String CLIENT_LIMITER_LATENCY_TOLERANCE = "client.limiter.latencyTolerance";
+    public static final String CLIENT_LIMITER_MAX_WAIT_MS = "client.limiter.maxWaitMs";
+
+    /** Client Compression Property Field Names **/
+    public static final String CLIENT_COMPRESSION_ENABLED = "client.compression.enabled";
+    public static final String CLIENT_COMPRESSION_REQUEST_THRESHOLD_BYTES = "client.compression.requestThresholdBytes";
+
+    /** Client Response Cache Property Field Names **/
+    public static final String CLIENT_CACHE_ENABLED = "client.cache.enabled";
+    public static final String CLIENT_CACHE_MAX_BYTES = "client.cache.maxBytes";
+    public static final String CLIENT_CACHE_MAX_ENTRY_BYTES = "client.cache.maxEntryBytes";
+
+    /** Asynchronous Request Property Field Names **/
+    public static final String CLIENT_ASYNC_MAX_IN_FLIGHT = "client.async.maxInFlight";
+
+    /** Client Logging Property Field Names **/
+    public static final String CLIENT_LOG_RESPONSE_BODY = "client.log.responseBody";
+    public static final String CLIENT_LOG_PREVIEW_BYTES = "client.log.previewBytes";
+
+    /** Client Response Body Property Field Names **/
+    public static final String CLIENT_BODY_SPILL_THRESHOLD_BYTES = "client.body.spillThresholdBytes";
+    public static final String CLIENT_BODY_SPILL_DIR = "client.body.spillDir";
+
+    /** Client Metrics Property Field Names **/
+    public static final String CLIENT_METRICS_ENABLED = "client.metrics.enabled";
+    public static final String CLIENT_METRICS_DIR = "client.metrics.dir";
+
+    /** Client Record/Replay Property Field Names **/
+    public static final String CLIENT_REPLAY_MODE = "client.replay.mode";
+    public static final String CLIENT_REPLAY_FILE = "client.replay.file";
+
+    /** Resource Cache Property Field Names **/
+    public static final String RESOURCE_CACHE_MAX_BYTES = "resource.cache.maxBytes";
+    public static final String RESOURCE_CACHE_MAP_THRESHOLD_BYTES = "resource.cache.mapThresholdBytes";
+
+    /** Library Fan Out Property Field Names **/
+    public static final String LIB_FAN_OUT_CONCURRENCY = "lib.fanOut.concurrency";
+
+    /** Test Data Pool Property Field Names **/
+    public static final String DATA_POOL_BATCH_SIZE = "data.pool.batchSize";
+    public static final String DATA_POOL_LOW_WATER_MARK = "data.pool.lowWaterMark";
+    public static final String DATA_POOL_EMPTY_POLICY = "data.pool.emptyPolicy";
+    public static final String DATA_POOL_WAIT_TIMEOUT_MS = "data.pool.waitTimeoutMs";
+
+    /** Load Mode Property Field Names **/
+    public static final String LOAD_MAX_IN_FLIGHT = "load.maxInFlight";
+    public static final String LOAD_DRAIN_TIMEOUT_MS = "load.drainTimeoutMs";
+
+    /** Stub Server Property Field Names **/
+    public static final String STUB_ENABLED = "stub.enabled";
+    public static final String STUB_PORT = "stub.port";
+    public static final String STUB_THREADS = "stub.threads";
+    public static final String STUB_BACKLOG = "stub.backlog";
+    public static final String STUB_ROUTES = "stub.routes";
+
+    /** Random Data Property Field Names **/
+    public static final String RANDOM_SEED = "random.seed";
+
     /**
      * Convenience method to retrieve a property from the default configuration file
      * @param key - name of property to retrieve
@@ -29,4 +115,59 @@ public class ConfigMapping {
     	return value == "null" ? null : value;
     }
 
+    /**
+     * Convenience method to retrieve a numeric property from the default configuration file
+     * @param key - name of property to retrieve
+     * @param defaultValue - value returned when the property is missing or not a number
+     * @return long - value of property, if not found defaultValue
+     **/
+    public static long getConfigPropertyAsLong(String key, long defaultValue) {
+    	String value = getConfigProperty(key);
+    	if (value == null)
+    		return defaultValue;
+    	try {
+    		return Long.parseLong(value.trim());
+    	} catch (NumberFormatException e) {
+    		return defaultValue;
+    	}
+    }
+
+    /**
+     * Convenience method to retrieve a true/false property from the default configuration file
+     * @param key - name of property to retrieve
+     * @param defaultValue - value returned when the property is missing
+     * @return boolean - value of property, if not found defaultValue
+     **/
+    public static boolean getConfigPropertyAsBoolean(String key, boolean defaultValue) {
+    	String value = getConfigProperty(key);
+    	return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Convenience method to retrieve a numeric property from the default configuration file
+     * @param key - name of property to retrieve
+     * @param defaultValue - value returned when the property is missing or not a number
+     * @return int - value of property, if not found defaultValue
+     **/
+    public static int getConfigPropertyAsInt(String key, int defaultValue) {
+    	return (int) getConfigPropertyAsLong(key, defaultValue);
+    }
+
+    /**
+     * Convenience method to retrieve a decimal property from the default configuration file
+     * @param key - name of property to retrieve
+     * @param defaultValue - value returned when the property is missing or not a number
+     * @return double - value of property, if not found defaultValue
+     **/
+    public static double getConfigPropertyAsDouble(String key, double defaultValue) {
+    	String value = getConfigProperty(key);
+    	if (value == null)
+    		return defaultValue;
+    	try {
+    		return Double.parseDouble(value.trim());
+    	} catch (NumberFormatException e) {
+    		return defaultValue;
+    	}
+    }
+
 }
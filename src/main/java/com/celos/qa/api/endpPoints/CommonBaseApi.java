@@ -1,9 +1,11 @@
 package com.celos.qa.api.endpPoints;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.celos.qa.api.data.ConfigMapping;
 import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.RequestSpec;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import jakarta.ws.rs.client.Invocation;
@@ -11,8 +13,24 @@ import jakarta.ws.rs.core.Response;
 
 public class CommonBaseApi extends JsonRestClient {
 	
-	private String baseUrl = ConfigMapping.getConfigProperty(ConfigMapping.URL_API_WDPRO_STARWAVE);
-	
+	private String baseUrl;
+
+	/**
+	 * Targets the host configured in url.res.req
+	 */
+	public CommonBaseApi() {
+		this(ConfigMapping.getConfigProperty(ConfigMapping.URL_API_WDPRO_STARWAVE));
+	}
+
+	/**
+	 * Targets another host, such as a StubServer
+	 *
+	 * @param baseUrl - scheme, host & port of requests
+	 */
+	public CommonBaseApi(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
 	/**
 	 * Execute a GET Request to /api/users
 	 */
@@ -20,10 +38,27 @@ public class CommonBaseApi extends JsonRestClient {
 	public final Map<String, JsonNode> requestUsersData(){
 		StringBuilder resource = new StringBuilder();
 		resource.append("/api/users");
-		System.out.println(baseUrl+resource.toString());
 		Invocation.Builder builder = buildRequest(baseUrl, resource.toString(), null);
 		Response response = builder.get();
 		return formatResponse(response);
 	}
 
+	/**
+	 * Execute a GET Request to /api/users described by a RequestSpec. Safe to
+	 * call from several threads on one instance.
+	 */
+	public final Map<String, JsonNode> requestUsersData(RequestSpec spec){
+		return invoke("GET", spec, baseUrl, "/api/users");
+	}
+
+	/**
+	 * Execute a GET Request to /api/users without blocking the caller
+	 */
+	public final CompletableFuture<Map<String, JsonNode>> requestUsersDataAsync(){
+		StringBuilder resource = new StringBuilder();
+		resource.append("/api/users");
+		Invocation.Builder builder = buildRequest(baseUrl, resource.toString(), null);
+		return formatResponseAsync(() -> builder.get());
+	}
+
 }
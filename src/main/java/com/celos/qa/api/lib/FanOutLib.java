@@ -0,0 +1,125 @@
+package com.celos.qa.api.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.fields.ApiFields;
+import com.celos.qa.api.restClient.ApiCommonStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/******************************************************************************
+ * Runs many independent endpoint calls at once and aggregates their results
+ * and status checks into a single FanOutReport. Each call gets its own virtual
+ * thread when the JVM supports them (Java 21+); otherwise the calls share a
+ * pool of platform threads the size of the concurrency cap.
+ *******************************************************************************/
+public class FanOutLib {
+
+	private static Logger log = LogManager.getLogger(FanOutLib.class.getName());
+
+	/**
+	 * Runs every call with the configured concurrency cap, validating each
+	 * response with ApiCommonStatus.validateStatusOk
+	 *
+	 * @param calls - endpoint calls to run
+	 * @return FanOutReport - results and failures of every call
+	 **/
+	public static FanOutReport fanOut(List<Callable<Map<String, JsonNode>>> calls) {
+		return fanOut(calls, ConfigMapping.getConfigPropertyAsInt(ConfigMapping.LIB_FAN_OUT_CONCURRENCY, 32),
+				ApiCommonStatus::validateStatusOk);
+	}
+
+	/**
+	 * Runs every call, at most 'concurrency' at a time, and applies statusCheck
+	 * to the status block of each response. A call fails when it throws or when
+	 * its status check fails; failures do not stop the remaining calls.
+	 *
+	 * @param calls       - endpoint calls to run
+	 * @param concurrency - maximum number of calls running at once
+	 * @param statusCheck - check applied to each status block, null to skip
+	 * @return FanOutReport - results and failures of every call
+	 **/
+	public static FanOutReport fanOut(List<Callable<Map<String, JsonNode>>> calls, int concurrency,
+			final Consumer<JsonNode> statusCheck) {
+		if (concurrency < 1)
+			throw new IllegalArgumentException("concurrency must be at least 1 - found " + concurrency);
+		Log.logInfo(log, "Fanning out " + calls.size() + " call(s) with concurrency " + concurrency);
+		long start = System.nanoTime();
+		ExecutorService virtualThreads = newVirtualThreadExecutor();
+		ExecutorService executor = virtualThreads != null ? virtualThreads : newPlatformPool(concurrency);
+		final Semaphore permits = new Semaphore(concurrency);
+		FanOutReport report = new FanOutReport(calls.size());
+		List<Future<?>> futures = new ArrayList<Future<?>>(calls.size());
+		try {
+			for (int i = 0; i < calls.size(); i++) {
+				final int index = i;
+				final Callable<Map<String, JsonNode>> call = calls.get(i);
+				futures.add(executor.submit(() -> {
+					permits.acquireUninterruptibly();
+					try {
+						Map<String, JsonNode> response = call.call();
+						report.setResult(index, response);
+						if (statusCheck != null)
+							statusCheck.accept(response.get(ApiFields.RESPONSE_FIELD_STATUS.field()));
+					} catch (Throwable t) {
+						report.setFailure(index, t);
+					} finally {
+						permits.release();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (Exception e) {
+			Log.logFatal(log, "Fan out interrupted before all calls completed", e);
+		} finally {
+			executor.shutdown();
+		}
+		report.setElapsedNanos(System.nanoTime() - start);
+		Log.logInfo(log, report.toString());
+		return report;
+	}
+
+	/**
+	 * Creates an executor starting a new virtual thread per task, looked up
+	 * reflectively so this compiles and runs on JVMs without virtual threads.
+	 *
+	 * @return ExecutorService - virtual thread executor, null if unsupported
+	 **/
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a fixed pool of daemon platform threads
+	 *
+	 * @param size - number of threads
+	 * @return ExecutorService - fixed daemon thread pool
+	 **/
+	private static ExecutorService newPlatformPool(int size) {
+		final AtomicInteger count = new AtomicInteger();
+		return Executors.newFixedThreadPool(size, runnable -> {
+			Thread thread = new Thread(runnable, "fan-out-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
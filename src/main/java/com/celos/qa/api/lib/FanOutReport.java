@@ -0,0 +1,135 @@
+package com.celos.qa.api.lib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/******************************************************************************
+ * Aggregated outcome of a FanOutLib run. Results are kept in the order the
+ * calls were submitted; a failed call has a failure message, and a null result
+ * if it threw or its response if only its status check failed.
+ *******************************************************************************/
+public class FanOutReport {
+
+	private static Logger log = LogManager.getLogger(FanOutReport.class.getName());
+
+	/** response of each call, by submission index **/
+	private final AtomicReferenceArray<Map<String, JsonNode>> results;
+
+	/** failure of each call, by submission index **/
+	private final AtomicReferenceArray<String> failures;
+
+	/** wall clock time of the whole fan out **/
+	private long elapsedNanos;
+
+	FanOutReport(int size) {
+		results = new AtomicReferenceArray<Map<String, JsonNode>>(size);
+		failures = new AtomicReferenceArray<String>(size);
+	}
+
+	void setResult(int index, Map<String, JsonNode> result) {
+		results.set(index, result);
+	}
+
+	void setFailure(int index, Throwable failure) {
+		failures.set(index, failure.getClass().getSimpleName() + ": " + failure.getMessage());
+	}
+
+	void setElapsedNanos(long nanos) {
+		elapsedNanos = nanos;
+	}
+
+	/**
+	 * Returns the response of every call in submission order. Calls that threw
+	 * have a null entry; calls that failed their status check keep their
+	 * response, for the test to inspect.
+	 *
+	 * @return List<Map<String, JsonNode>> - responses of all calls
+	 **/
+	public List<Map<String, JsonNode>> getResults() {
+		List<Map<String, JsonNode>> list = new ArrayList<Map<String, JsonNode>>(results.length());
+		for (int i = 0; i < results.length(); i++) {
+			list.add(results.get(i));
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Returns the failure message of every failed call, keyed by submission
+	 * index
+	 *
+	 * @return SortedMap<Integer, String> - failures of all calls
+	 **/
+	public SortedMap<Integer, String> getFailures() {
+		SortedMap<Integer, String> map = new TreeMap<Integer, String>();
+		for (int i = 0; i < failures.length(); i++) {
+			if (failures.get(i) != null)
+				map.put(i, failures.get(i));
+		}
+		return Collections.unmodifiableSortedMap(map);
+	}
+
+	/** Number of calls run **/
+	public int getTotalCount() {
+		return results.length();
+	}
+
+	/** Number of calls that failed **/
+	public int getFailedCount() {
+		return getFailures().size();
+	}
+
+	/** Number of calls that passed **/
+	public int getPassedCount() {
+		return getTotalCount() - getFailedCount();
+	}
+
+	/** Wall clock time of the whole fan out, in milliseconds **/
+	public long getElapsedMillis() {
+		return elapsedNanos / 1000000;
+	}
+
+	/**
+	 * Fails the test listing every failed call, if any
+	 **/
+	public void assertAllPassed() {
+		SortedMap<Integer, String> failed = getFailures();
+		if (!failed.isEmpty()) {
+			StringBuilder message = new StringBuilder();
+			message.append(failed.size()).append(" of ").append(getTotalCount()).append(" call(s) failed:");
+			for (Map.Entry<Integer, String> entry : failed.entrySet()) {
+				message.append("\n\t[").append(entry.getKey()).append("] ").append(entry.getValue());
+			}
+			Log.logFatal(log, message.toString());
+		}
+	}
+
+	/**
+	 * Summarizes the fan out in a single line
+	 *
+	 * @return String - totals and elapsed time
+	 **/
+	@Override
+	public String toString() {
+		Integer[] failed = getFailures().keySet().toArray(new Integer[0]);
+		String summary = "Fan out completed - total = " + getTotalCount() + " / passed = "
+				+ (getTotalCount() - failed.length) + " / failed = " + failed.length + " / elapsed = "
+				+ getElapsedMillis() + "ms";
+		if (failed.length == 0)
+			return summary;
+		// List only the first few failed indexes to keep the line readable
+		return summary + " / failed indexes = " + Arrays.toString(Arrays.copyOf(failed, Math.min(failed.length, 20)))
+				+ (failed.length > 20 ? "..." : "");
+	}
+}
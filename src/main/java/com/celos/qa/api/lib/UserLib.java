@@ -1,6 +1,9 @@
 package com.celos.qa.api.lib;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -9,6 +12,7 @@ import com.celos.qa.api.commonUtils.Log;
 import com.celos.qa.api.endpPoints.CommonBaseApi;
 import com.celos.qa.api.fields.ApiFields;
 import com.celos.qa.api.restClient.ApiCommonStatus;
+import com.celos.qa.api.restClient.RequestSpec;
 import com.fasterxml.jackson.databind.JsonNode;
 
 public class UserLib {
@@ -25,5 +29,18 @@ public class UserLib {
 		Log.logInfo(log, "Get Users Details is completed");
 		return userDetailsResponse;
 	}
+	
+	public static FanOutReport getUsersDetails(int numberOfCalls){
+		Log.logInfo(log, "Get User Details - " + numberOfCalls + " call(s) in parallel");
+		// One client serves every call, each request carrying its own spec
+		final CommonBaseApi baseApi = new CommonBaseApi();
+		List<Callable<Map<String, JsonNode>>> calls = new ArrayList<Callable<Map<String, JsonNode>>>();
+		for (int i = 0; i < numberOfCalls; i++) {
+			calls.add(() -> baseApi.requestUsersData(RequestSpec.EMPTY));
+		}
+		FanOutReport report = FanOutLib.fanOut(calls);
+		Log.logInfo(log, "Get Users Details is completed");
+		return report;
+	}
 
 }
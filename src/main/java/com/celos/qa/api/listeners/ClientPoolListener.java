@@ -0,0 +1,22 @@
+package com.celos.qa.api.listeners;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import com.celos.qa.api.restClient.ClientPool;
+
+/******************************************************************************
+ * Closes the pooled REST clients and their connections once a suite finishes.
+ * Registered through META-INF/services, so no testng.xml change is needed.
+ *******************************************************************************/
+public class ClientPoolListener implements ISuiteListener {
+
+	@Override
+	public void onStart(ISuite suite) {
+	}
+
+	@Override
+	public void onFinish(ISuite suite) {
+		ClientPool.shutdown();
+	}
+}
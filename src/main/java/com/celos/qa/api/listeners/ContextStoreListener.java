@@ -0,0 +1,88 @@
+package com.celos.qa.api.listeners;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import com.celos.qa.api.commonUtils.ContextStore;
+
+/******************************************************************************
+ * Tracks the test running on each thread for the CLASS & TEST scopes of the
+ * ContextStore, and frees each scope when it ends: a test's values after the
+ * test method, a class's values after its <test>, everything after the suite.
+ * Registered through META-INF/services, so no testng.xml change is needed.
+ *******************************************************************************/
+public class ContextStoreListener implements IInvokedMethodListener, ITestListener, ISuiteListener {
+
+	@Override
+	public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+		if (method.isTestMethod()) {
+			ContextStore.enterTest(testResult.getTestClass().getName(), testKey(testResult));
+		}
+	}
+
+	@Override
+	public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+		if (method.isTestMethod()) {
+			ContextStore.exitTest();
+		}
+	}
+
+	/** Key unique to one invocation of a test method **/
+	private static String testKey(ITestResult testResult) {
+		return testResult.getTestClass().getName() + "." + testResult.getMethod().getMethodName() + "@"
+				+ Integer.toHexString(System.identityHashCode(testResult));
+	}
+
+	@Override
+	public void onFinish(ITestContext context) {
+		Set<String> classes = new HashSet<String>();
+		for (ITestNGMethod method : context.getAllTestMethods()) {
+			classes.add(method.getTestClass().getName());
+		}
+		for (String className : classes) {
+			ContextStore.endClass(className);
+		}
+	}
+
+	@Override
+	public void onFinish(ISuite suite) {
+		ContextStore.endSuite();
+	}
+
+	@Override
+	public void onStart(ISuite suite) {
+	}
+
+	@Override
+	public void onStart(ITestContext context) {
+	}
+
+	@Override
+	public void onTestStart(ITestResult result) {
+	}
+
+	@Override
+	public void onTestSuccess(ITestResult result) {
+	}
+
+	@Override
+	public void onTestFailure(ITestResult result) {
+	}
+
+	@Override
+	public void onTestSkipped(ITestResult result) {
+	}
+
+	@Override
+	public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+	}
+}
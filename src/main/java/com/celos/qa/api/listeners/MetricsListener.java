@@ -0,0 +1,23 @@
+package com.celos.qa.api.listeners;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import com.celos.qa.api.metrics.RequestMetrics;
+
+/******************************************************************************
+ * Exports the request metrics recorded during a suite to JSON and Prometheus
+ * text files once it finishes. Registered through META-INF/services, so no
+ * testng.xml change is needed.
+ *******************************************************************************/
+public class MetricsListener implements ISuiteListener {
+
+	@Override
+	public void onStart(ISuite suite) {
+	}
+
+	@Override
+	public void onFinish(ISuite suite) {
+		RequestMetrics.export(suite.getName());
+	}
+}
@@ -0,0 +1,32 @@
+package com.celos.qa.api.listeners;
+
+import java.util.Arrays;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+import com.celos.qa.api.commonUtils.RandomData;
+
+/******************************************************************************
+ * Reseeds the thread's RandomData generator before each test method from the
+ * identity of the invocation: test class, method, parameters and invocation
+ * index. A replayed invocation draws the same values whichever thread runs it
+ * and whatever ran before it.
+ * Registered through META-INF/services, so no testng.xml change is needed.
+ *******************************************************************************/
+public class RandomDataListener implements IInvokedMethodListener {
+
+	@Override
+	public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+		if (method.isTestMethod()) {
+			RandomData.reseed(testResult.getTestClass().getName() + "." + testResult.getMethod().getMethodName()
+					+ Arrays.toString(testResult.getParameters()) + "#"
+					+ testResult.getMethod().getCurrentInvocationCount());
+		}
+	}
+
+	@Override
+	public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+	}
+}
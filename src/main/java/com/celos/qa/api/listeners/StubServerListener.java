@@ -0,0 +1,50 @@
+package com.celos.qa.api.listeners;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.stub.StubServer;
+
+/******************************************************************************
+ * With stub.enabled=true, starts a StubServer for the suite, loads the routes
+ * file named by stub.routes, and points url.res.req at the stub so the
+ * endpoint classes run offline. The server is stopped when the suite ends.
+ * Registered through META-INF/services, so no testng.xml change is needed.
+ *******************************************************************************/
+public class StubServerListener implements ISuiteListener {
+
+	private static volatile StubServer server = null;
+
+	/**
+	 * Returns the suite's stub server
+	 *
+	 * @return StubServer - the running server, null if stubbing is disabled
+	 **/
+	public static StubServer getServer() {
+		return server;
+	}
+
+	@Override
+	public void onStart(ISuite suite) {
+		if (!ConfigMapping.getConfigPropertyAsBoolean(ConfigMapping.STUB_ENABLED, false))
+			return;
+		StubServer stub = new StubServer();
+		String routes = ConfigMapping.getConfigProperty(ConfigMapping.STUB_ROUTES);
+		if (routes != null && !routes.trim().isEmpty())
+			stub.routes(routes.trim());
+		stub.start();
+		System.setProperty(ConfigMapping.URL_API_WDPRO_STARWAVE, stub.getBaseUrl());
+		TestContainer.props.reload();
+		server = stub;
+	}
+
+	@Override
+	public void onFinish(ISuite suite) {
+		if (server != null) {
+			server.stop();
+			server = null;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.celos.qa.api.load;
+
+import java.util.concurrent.TimeUnit;
+
+/******************************************************************************
+ * Target arrival rate of a load run over time. LoadRunner starts a call at
+ * every arrival, whether or not earlier calls have completed (an open model),
+ * so the rate offered does not drop when responses slow down.
+ *******************************************************************************/
+public abstract class LoadProfile {
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	/** pause before looking again when the target rate is zero **/
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final long durationNanos;
+
+	protected LoadProfile(long duration, TimeUnit unit) {
+		if (duration <= 0)
+			throw new IllegalArgumentException("duration must be positive - found " + duration);
+		this.durationNanos = unit.toNanos(duration);
+	}
+
+	/**
+	 * Target arrival rate at a point of the run
+	 *
+	 * @param elapsedNanos - time since the start of the run
+	 * @return double - arrivals per second
+	 **/
+	public abstract double rateAt(long elapsedNanos);
+
+	/** Length of the run, in nanoseconds **/
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * Time of the arrival following the one at elapsedNanos
+	 *
+	 * @param elapsedNanos - time of the previous arrival since the start of the run
+	 * @return long - time of the next arrival since the start of the run
+	 **/
+	long nextArrival(long elapsedNanos) {
+		double rate = rateAt(elapsedNanos);
+		if (rate <= 0)
+			return elapsedNanos + IDLE_NANOS;
+		return elapsedNanos + Math.max(1, (long) (NANOS_PER_SECOND / rate));
+	}
+
+	/**
+	 * Same arrival rate for the whole run
+	 *
+	 * @param perSecond - arrivals per second
+	 * @param duration  - length of the run
+	 * @param unit      - unit of duration
+	 * @return LoadProfile - constant profile
+	 **/
+	public static LoadProfile constant(final double perSecond, long duration, TimeUnit unit) {
+		return new LoadProfile(duration, unit) {
+			@Override
+			public double rateAt(long elapsedNanos) {
+				return perSecond;
+			}
+
+			@Override
+			public String toString() {
+				return "constant " + perSecond + "/s for " + getDurationNanos() / 1000000 + "ms";
+			}
+		};
+	}
+
+	/**
+	 * Arrival rate rising (or falling) linearly over the run
+	 *
+	 * @param fromPerSecond - arrivals per second at the start
+	 * @param toPerSecond   - arrivals per second at the end
+	 * @param duration      - length of the run
+	 * @param unit          - unit of duration
+	 * @return LoadProfile - ramp profile
+	 **/
+	public static LoadProfile ramp(final double fromPerSecond, final double toPerSecond, long duration,
+			TimeUnit unit) {
+		return new LoadProfile(duration, unit) {
+			@Override
+			public double rateAt(long elapsedNanos) {
+				double progress = Math.min(1.0, (double) elapsedNanos / getDurationNanos());
+				return fromPerSecond + (toPerSecond - fromPerSecond) * progress;
+			}
+
+			@Override
+			public String toString() {
+				return "ramp " + fromPerSecond + "/s to " + toPerSecond + "/s over " + getDurationNanos() / 1000000
+						+ "ms";
+			}
+		};
+	}
+
+	/**
+	 * Arrival rate raised by a fixed amount at regular steps
+	 *
+	 * @param startPerSecond - arrivals per second during the first step
+	 * @param stepPerSecond  - arrivals per second added at each following step
+	 * @param steps          - number of steps
+	 * @param stepDuration   - length of each step
+	 * @param unit           - unit of stepDuration
+	 * @return LoadProfile - step profile
+	 **/
+	public static LoadProfile steps(final double startPerSecond, final double stepPerSecond, final int steps,
+			long stepDuration, TimeUnit unit) {
+		if (steps < 1)
+			throw new IllegalArgumentException("steps must be at least 1 - found " + steps);
+		final long stepNanos = unit.toNanos(stepDuration);
+		return new LoadProfile(stepNanos * steps, TimeUnit.NANOSECONDS) {
+			@Override
+			public double rateAt(long elapsedNanos) {
+				long step = Math.min(steps - 1, elapsedNanos / stepNanos);
+				return startPerSecond + stepPerSecond * step;
+			}
+
+			@Override
+			public String toString() {
+				return steps + " step(s) of " + stepNanos / 1000000 + "ms from " + startPerSecond + "/s by "
+						+ stepPerSecond + "/s";
+			}
+		};
+	}
+}
@@ -0,0 +1,332 @@
+package com.celos.qa.api.load;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.load.LoadScenario.Operation;
+
+/******************************************************************************
+ * Outcome of a LoadRunner run: arrivals, completions, errors and latency
+ * percentiles, overall and per operation, with assertions against a budget.
+ *
+ * Latency is measured from each call's scheduled start and recorded into
+ * HdrHistograms in microseconds; service time, measured from when the call
+ * actually started, is kept alongside for comparison. Once the run finishes
+ * the report is closed: calls still completing after the drain timeout are
+ * not recorded, so its numbers no longer change.
+ *******************************************************************************/
+public class LoadReport {
+
+	private static Logger log = LogManager.getLogger(LoadReport.class.getName());
+
+	/** significant digits kept by the histograms **/
+	private static final int PRECISION = 3;
+
+	private final String name;
+	private final Map<String, Stats> operations = new LinkedHashMap<String, Stats>();
+	private final Stats total = new Stats();
+
+	/** written by the scheduling thread only **/
+	private long scheduled = 0;
+	private long maxScheduleLagNanos = 0;
+
+	private long startNanos;
+	private long elapsedNanos;
+
+	/** held shared while recording and exclusively to close the report **/
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private boolean closed = false;
+
+	LoadReport(LoadScenario scenario) {
+		this.name = scenario.getName();
+		for (Operation operation : scenario.getOperations()) {
+			operations.put(operation.getName(), new Stats());
+		}
+	}
+
+	void start(long nanos) {
+		startNanos = nanos;
+	}
+
+	void finish(long nanos) {
+		lock.writeLock().lock();
+		try {
+			closed = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		elapsedNanos = nanos - startNanos;
+		total.freeze();
+		for (Stats stats : operations.values()) {
+			stats.freeze();
+		}
+	}
+
+	void recordScheduleLag(long lagNanos) {
+		scheduled++;
+		if (lagNanos > maxScheduleLagNanos)
+			maxScheduleLagNanos = lagNanos;
+	}
+
+	void recordSuccess(Operation operation, long latencyNanos, long serviceNanos) {
+		record(operation, latencyNanos, serviceNanos, null);
+	}
+
+	void recordFailure(Operation operation, long latencyNanos, long serviceNanos, Throwable failure) {
+		record(operation, latencyNanos, serviceNanos, failure);
+	}
+
+	private void record(Operation operation, long latencyNanos, long serviceNanos, Throwable failure) {
+		lock.readLock().lock();
+		try {
+			if (closed)
+				return;
+			operations.get(operation.getName()).record(latencyNanos, serviceNanos, failure);
+			total.record(latencyNanos, serviceNanos, failure);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/********************
+	 * Accessor Methods *
+	 ********************/
+
+	public String getName() {
+		return name;
+	}
+
+	/** Number of calls the schedule started **/
+	public long getScheduledCount() {
+		return scheduled;
+	}
+
+	/** Number of calls that completed, passed or failed **/
+	public long getCompletedCount() {
+		return total.completed.sum();
+	}
+
+	/** Number of calls that failed **/
+	public long getErrorCount() {
+		return total.errors.sum();
+	}
+
+	/** Share of completed calls that failed, between 0 and 1 **/
+	public double getErrorRate() {
+		long completed = getCompletedCount();
+		return completed == 0 ? 0 : (double) getErrorCount() / completed;
+	}
+
+	/** Completed calls per second over the whole run **/
+	public double getThroughput() {
+		return elapsedNanos == 0 ? 0 : getCompletedCount() * 1e9 / elapsedNanos;
+	}
+
+	/** Wall clock time of the run, including waiting for the last calls, in milliseconds **/
+	public long getElapsedMillis() {
+		return elapsedNanos / 1000000;
+	}
+
+	/** Longest delay between a call's scheduled start and its submission, in milliseconds **/
+	public double getMaxScheduleLagMillis() {
+		return maxScheduleLagNanos / 1e6;
+	}
+
+	/**
+	 * Latency at a percentile over all operations, measured from the
+	 * scheduled start
+	 *
+	 * @param percentile - percentile between 0 and 100, e.g. 99.9
+	 * @return double - latency in milliseconds
+	 **/
+	public double getLatencyMillis(double percentile) {
+		return total.latency.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	/**
+	 * Latency of one operation at a percentile, measured from the scheduled
+	 * start
+	 *
+	 * @param operation  - name of the operation
+	 * @param percentile - percentile between 0 and 100, e.g. 99.9
+	 * @return double - latency in milliseconds
+	 **/
+	public double getLatencyMillis(String operation, double percentile) {
+		return stats(operation).latency.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	/**
+	 * Service time at a percentile over all operations, measured from when
+	 * each call actually started
+	 *
+	 * @param percentile - percentile between 0 and 100, e.g. 99.9
+	 * @return double - service time in milliseconds
+	 **/
+	public double getServiceTimeMillis(double percentile) {
+		return total.service.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	/** Latency histogram over all operations, in microseconds **/
+	public Histogram getLatencyHistogram() {
+		return total.latency.copy();
+	}
+
+	/**
+	 * Number of failures per failure type
+	 *
+	 * @return Map<String, Long> - failure type & count, sorted by type
+	 **/
+	public Map<String, Long> getErrors() {
+		Map<String, Long> errors = new TreeMap<String, Long>();
+		for (Map.Entry<String, LongAdder> entry : total.errorTypes.entrySet()) {
+			errors.put(entry.getKey(), entry.getValue().sum());
+		}
+		return Collections.unmodifiableMap(errors);
+	}
+
+	/**************
+	 * Assertions *
+	 **************/
+
+	/**
+	 * Fails the test if the latency at a percentile exceeds the budget
+	 *
+	 * @param percentile - percentile between 0 and 100, e.g. 99
+	 * @param maxMillis  - latency budget in milliseconds
+	 **/
+	public void assertLatencyWithin(double percentile, double maxMillis) {
+		double actual = getLatencyMillis(percentile);
+		if (actual > maxMillis)
+			Log.logFatal(log, "Load run '" + name + "' - p" + percentile + " latency " + actual + "ms exceeds budget of "
+					+ maxMillis + "ms\n" + this);
+	}
+
+	/**
+	 * Fails the test if the latency of an operation at a percentile exceeds the
+	 * budget
+	 *
+	 * @param operation  - name of the operation
+	 * @param percentile - percentile between 0 and 100, e.g. 99
+	 * @param maxMillis  - latency budget in milliseconds
+	 **/
+	public void assertLatencyWithin(String operation, double percentile, double maxMillis) {
+		double actual = getLatencyMillis(operation, percentile);
+		if (actual > maxMillis)
+			Log.logFatal(log, "Load run '" + name + "' - " + operation + " p" + percentile + " latency " + actual
+					+ "ms exceeds budget of " + maxMillis + "ms\n" + this);
+	}
+
+	/**
+	 * Fails the test if the share of failed calls exceeds the budget
+	 *
+	 * @param maxErrorRate - error budget between 0 and 1, e.g. 0.01 for 1%
+	 **/
+	public void assertErrorRateAtMost(double maxErrorRate) {
+		if (getErrorRate() > maxErrorRate)
+			Log.logFatal(log, "Load run '" + name + "' - error rate " + getErrorRate() + " exceeds budget of "
+					+ maxErrorRate + " - errors = " + getErrors() + "\n" + this);
+	}
+
+	/**
+	 * Fails the test if fewer calls per second completed than expected
+	 *
+	 * @param minPerSecond - minimum completed calls per second
+	 **/
+	public void assertThroughputAtLeast(double minPerSecond) {
+		if (getThroughput() < minPerSecond)
+			Log.logFatal(log, "Load run '" + name + "' - throughput " + String.format("%.1f", getThroughput())
+					+ "/s below " + minPerSecond + "/s\n" + this);
+	}
+
+	/**
+	 * Summarizes the run, with a line per operation
+	 *
+	 * @return String - totals, throughput and latency percentiles
+	 **/
+	@Override
+	public String toString() {
+		StringBuilder summary = new StringBuilder();
+		summary.append("Load run '").append(name).append("' completed - scheduled = ").append(scheduled)
+				.append(" / completed = ").append(getCompletedCount()).append(" / errors = ").append(getErrorCount())
+				.append(" / throughput = ").append(String.format("%.1f", getThroughput())).append("/s / elapsed = ")
+				.append(getElapsedMillis()).append("ms / max schedule lag = ")
+				.append(String.format("%.2f", getMaxScheduleLagMillis())).append("ms");
+		summary.append("\n\t").append(line("all", total));
+		if (operations.size() > 1) {
+			for (Map.Entry<String, Stats> entry : operations.entrySet()) {
+				summary.append("\n\t").append(line(entry.getKey(), entry.getValue()));
+			}
+		}
+		if (!total.errorTypes.isEmpty())
+			summary.append("\n\terrors = ").append(getErrors());
+		return summary.toString();
+	}
+
+	private static String line(String operation, Stats stats) {
+		Histogram latency = stats.latency;
+		return String.format("%s - count = %d / errors = %d / latency ms p50 = %.2f p90 = %.2f p99 = %.2f p99.9 = %.2f max = %.2f",
+				operation, stats.completed.sum(), stats.errors.sum(), latency.getValueAtPercentile(50) / 1000.0,
+				latency.getValueAtPercentile(90) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+				latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0);
+	}
+
+	private Stats stats(String operation) {
+		Stats stats = operations.get(operation);
+		if (stats == null)
+			throw new IllegalArgumentException("No operation '" + operation + "' in load run '" + name + "'");
+		return stats;
+	}
+
+	/** Counters & histograms of one operation, or of all of them **/
+	private static class Stats {
+		private final LongAdder completed = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final ConcurrentMap<String, LongAdder> errorTypes = new ConcurrentHashMap<String, LongAdder>();
+		private final Recorder latencyRecorder = new Recorder(PRECISION);
+		private final Recorder serviceRecorder = new Recorder(PRECISION);
+		private Histogram latency = new Histogram(PRECISION);
+		private Histogram service = new Histogram(PRECISION);
+
+		private void record(long latencyNanos, long serviceNanos, Throwable failure) {
+			completed.increment();
+			if (latencyNanos > 0) {
+				latencyRecorder.recordValue(latencyNanos / 1000);
+				serviceRecorder.recordValue(serviceNanos / 1000);
+			}
+			if (failure != null) {
+				errors.increment();
+				errorTypes.computeIfAbsent(errorType(failure), k -> new LongAdder()).increment();
+			}
+		}
+
+		/** Failure class and the start of its message's first line **/
+		private static String errorType(Throwable failure) {
+			String message = failure.getMessage();
+			if (message == null)
+				return failure.getClass().getSimpleName();
+			int end = message.indexOf('\n');
+			message = end >= 0 ? message.substring(0, end) : message;
+			return failure.getClass().getSimpleName() + ": "
+					+ (message.length() > 80 ? message.substring(0, 80) + "..." : message);
+		}
+
+		/** Takes the histograms recorded so far; later recordings are ignored **/
+		private void freeze() {
+			latency = latencyRecorder.getIntervalHistogram();
+			service = serviceRecorder.getIntervalHistogram();
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.celos.qa.api.load;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.commonUtils.RandomData;
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.fields.ApiFields;
+import com.celos.qa.api.load.LoadScenario.Operation;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/******************************************************************************
+ * Drives a LoadScenario at the arrival rate of a LoadProfile.
+ *
+ * Arrivals follow the schedule regardless of how long earlier calls take, and
+ * each call's latency is measured from its scheduled start rather than from
+ * when it actually started. A slow server therefore shows up as higher
+ * latency instead of a quietly lower request rate (coordinated omission).
+ * Calls beyond the in-flight cap wait for a slot, and that wait counts toward
+ * their latency.
+ *******************************************************************************/
+public class LoadRunner {
+
+	private static Logger log = LogManager.getLogger(LoadRunner.class.getName());
+
+	/** pause between checks for calls still running at the end of a run **/
+	private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final int maxInFlight;
+	private long drainTimeoutMs = ConfigMapping.getConfigPropertyAsLong(ConfigMapping.LOAD_DRAIN_TIMEOUT_MS, 60000);
+
+	/**
+	 * Constructor - uses the configured in-flight cap
+	 **/
+	public LoadRunner() {
+		this(ConfigMapping.getConfigPropertyAsInt(ConfigMapping.LOAD_MAX_IN_FLIGHT, 1000));
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxInFlight - maximum number of calls running at once
+	 **/
+	public LoadRunner(int maxInFlight) {
+		if (maxInFlight < 1)
+			throw new IllegalArgumentException("maxInFlight must be at least 1 - found " + maxInFlight);
+		this.maxInFlight = maxInFlight;
+	}
+
+	/** Longest time to wait for calls still running once the schedule ends **/
+	public LoadRunner setDrainTimeoutMs(long drainTimeoutMs) {
+		this.drainTimeoutMs = drainTimeoutMs;
+		return this;
+	}
+
+	/**
+	 * Runs a scenario for the length of a profile, then waits for the calls
+	 * still running
+	 *
+	 * @param scenario - calls to make
+	 * @param profile  - arrival rate over time
+	 * @return LoadReport - throughput, errors and latencies of the run
+	 **/
+	public LoadReport run(LoadScenario scenario, LoadProfile profile) {
+		if (scenario.getOperations().isEmpty())
+			throw new IllegalArgumentException("Scenario '" + scenario.getName() + "' has no operation");
+		Log.logInfo(log, "Load run '" + scenario.getName() + "' - " + profile + " - max in flight " + maxInFlight);
+		final LoadReport report = new LoadReport(scenario);
+		final Semaphore slots = new Semaphore(maxInFlight);
+		final AtomicInteger pending = new AtomicInteger();
+		SplittableRandom random = RandomData.current();
+		ExecutorService executor = newExecutor();
+		long start = System.nanoTime();
+		report.start(start);
+		try {
+			for (long elapsed = 0; elapsed < profile.getDurationNanos(); elapsed = profile.nextArrival(elapsed)) {
+				final long intended = start + elapsed;
+				long wait;
+				while ((wait = intended - System.nanoTime()) > 0) {
+					LockSupport.parkNanos(wait);
+				}
+				report.recordScheduleLag(System.nanoTime() - intended);
+				final Operation operation = scenario.pick(random);
+				pending.incrementAndGet();
+				try {
+					executor.execute(() -> {
+						try {
+							call(scenario, operation, intended, slots, report);
+						} finally {
+							pending.decrementAndGet();
+						}
+					});
+				} catch (RejectedExecutionException e) {
+					pending.decrementAndGet();
+					report.recordFailure(operation, 0, 0, e);
+				}
+			}
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+			while (pending.get() > 0 && System.nanoTime() - deadline < 0) {
+				LockSupport.parkNanos(DRAIN_POLL_NANOS);
+			}
+			if (pending.get() > 0)
+				Log.logWarn(log, "Load run '" + scenario.getName() + "' - " + pending.get()
+						+ " call(s) still running after " + drainTimeoutMs + "ms, reporting without them");
+		} finally {
+			executor.shutdownNow();
+		}
+		report.finish(System.nanoTime());
+		Log.logInfo(log, report.toString());
+		return report;
+	}
+
+	/**
+	 * Makes one call and records its outcome, timed from its scheduled start
+	 **/
+	private static void call(LoadScenario scenario, Operation operation, long intended, Semaphore slots,
+			LoadReport report) {
+		slots.acquireUninterruptibly();
+		long started = System.nanoTime();
+		try {
+			Map<String, JsonNode> response = operation.getCall().call();
+			if (scenario.getStatusCheck() != null)
+				scenario.getStatusCheck().accept(response.get(ApiFields.RESPONSE_FIELD_STATUS.field()));
+			long end = System.nanoTime();
+			report.recordSuccess(operation, end - intended, end - started);
+		} catch (Throwable t) {
+			long end = System.nanoTime();
+			report.recordFailure(operation, end - intended, end - started, t);
+		} finally {
+			slots.release();
+		}
+	}
+
+	/**
+	 * Creates an executor starting a thread per call: virtual threads when the
+	 * JVM supports them (Java 21+), daemon platform threads otherwise
+	 *
+	 * @return ExecutorService - unbounded executor
+	 **/
+	private static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			final AtomicInteger count = new AtomicInteger();
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "load-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+}
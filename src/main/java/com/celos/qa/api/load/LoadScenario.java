@@ -0,0 +1,149 @@
+package com.celos.qa.api.load;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.celos.qa.api.endpPoints.CommonBaseApi;
+import com.celos.qa.api.fields.ApiFields;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/******************************************************************************
+ * Mix of endpoint calls a load run draws from. Each arrival runs one
+ * operation, picked at random in proportion to the operation weights, e.g.
+ *
+ * new LoadScenario("users")
+ *     .endpoint("getUsers", 9, CommonBaseApi::requestUsersData)
+ *     .operation("createUser", 1, () -> UserLib.createUser(...));
+ *******************************************************************************/
+public class LoadScenario {
+
+	private final String name;
+	private final List<Operation> operations = new ArrayList<Operation>();
+	private int totalWeight = 0;
+	private Consumer<JsonNode> statusCheck = LoadScenario::expectOk;
+
+	/**
+	 * Constructor - creates an empty scenario
+	 *
+	 * @param name - name of the scenario, used in the report
+	 **/
+	public LoadScenario(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Adds a call to the mix
+	 *
+	 * @param name   - name of the operation, used in the report
+	 * @param weight - relative share of arrivals running this operation
+	 * @param call   - endpoint call returning the formatted response
+	 * @return LoadScenario - this scenario
+	 **/
+	public LoadScenario operation(String name, int weight, Callable<Map<String, JsonNode>> call) {
+		if (weight < 1)
+			throw new IllegalArgumentException("weight must be at least 1 - found " + weight);
+		operations.add(new Operation(name, weight, call));
+		totalWeight += weight;
+		return this;
+	}
+
+	/**
+	 * Adds a CommonBaseApi method to the mix, called on a new CommonBaseApi
+	 * each time, which logs none of its requests
+	 *
+	 * @param name   - name of the operation, used in the report
+	 * @param weight - relative share of arrivals running this operation
+	 * @param method - endpoint method, e.g. CommonBaseApi::requestUsersData
+	 * @return LoadScenario - this scenario
+	 **/
+	public LoadScenario endpoint(String name, int weight, final Function<CommonBaseApi, Map<String, JsonNode>> method) {
+		return operation(name, weight, () -> {
+			CommonBaseApi api = new CommonBaseApi();
+			api.setLogRequests(false);
+			return method.apply(api);
+		});
+	}
+
+	/**
+	 * Sets the check applied to the status block of every response; a failed
+	 * check counts as an error in the report, which fails the test once through
+	 * its assertions. The default check expects 200 and, unlike
+	 * ApiCommonStatus.validateStatusOk, logs nothing per failed call.
+	 *
+	 * @param statusCheck - check to apply, null to skip
+	 * @return LoadScenario - this scenario
+	 **/
+	public LoadScenario statusCheck(Consumer<JsonNode> statusCheck) {
+		this.statusCheck = statusCheck;
+		return this;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<Operation> getOperations() {
+		return Collections.unmodifiableList(operations);
+	}
+
+	Consumer<JsonNode> getStatusCheck() {
+		return statusCheck;
+	}
+
+	/** Default status check: anything but 200 counts as an error, without a log line per call **/
+	private static void expectOk(JsonNode status) {
+		int code = status == null ? -1 : status.path(ApiFields.RESPONSE_FIELD_CODE.field()).asInt(-1);
+		if (code != HttpURLConnection.HTTP_OK)
+			throw new IllegalStateException("Status " + code);
+	}
+
+	/**
+	 * Picks the operation of an arrival
+	 *
+	 * @param random - generator of the scheduling thread
+	 * @return Operation - operation to run
+	 **/
+	Operation pick(SplittableRandom random) {
+		if (operations.size() == 1)
+			return operations.get(0);
+		int ticket = random.nextInt(totalWeight);
+		for (Operation operation : operations) {
+			ticket -= operation.weight;
+			if (ticket < 0)
+				return operation;
+		}
+		return operations.get(operations.size() - 1);
+	}
+
+	/** One weighted call of the mix **/
+	public static class Operation {
+		private final String name;
+		private final int weight;
+		private final Callable<Map<String, JsonNode>> call;
+
+		private Operation(String name, int weight, Callable<Map<String, JsonNode>> call) {
+			this.name = name;
+			this.weight = weight;
+			this.call = call;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getWeight() {
+			return weight;
+		}
+
+		Callable<Map<String, JsonNode>> getCall() {
+			return call;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.celos.qa.api.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import org.glassfish.jersey.client.spi.PostInvocationInterceptor;
+import org.glassfish.jersey.client.spi.PreInvocationInterceptor;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/******************************************************************************
+ * Records every request of a pooled client into RequestMetrics. The clock
+ * starts before the request filters run and stops once the response headers
+ * are in; request bodies are counted as they are written and response bodies
+ * as they are read.
+ *******************************************************************************/
+public class MetricsInterceptor implements PreInvocationInterceptor, PostInvocationInterceptor, WriterInterceptor {
+
+	/** request property holding the Exchange of a request **/
+	private static final String EXCHANGE = MetricsInterceptor.class.getName() + ".exchange";
+
+	@Override
+	public void beforeRequest(ClientRequestContext requestContext) {
+		requestContext.setProperty(EXCHANGE, new Exchange(System.nanoTime()));
+	}
+
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+		final Object exchange = context.getProperty(EXCHANGE);
+		if (exchange instanceof Exchange) {
+			context.setOutputStream(new FilterOutputStream(context.getOutputStream()) {
+				@Override
+				public void write(int b) throws IOException {
+					out.write(b);
+					((Exchange) exchange).sentBytes++;
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					out.write(b, off, len);
+					((Exchange) exchange).sentBytes += len;
+				}
+			});
+		}
+		context.proceed();
+	}
+
+	@Override
+	public void afterRequest(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+		RequestMetrics.Series series = record(requestContext, RequestMetrics.statusClass(responseContext.getStatus()));
+		if (series != null && responseContext.hasEntity())
+			responseContext.setEntityStream(new CountingInputStream(responseContext.getEntityStream(), series));
+	}
+
+	@Override
+	public void onException(ClientRequestContext requestContext, ExceptionContext exceptionContext) {
+		String statusClass = exceptionContext.getResponseContext().isPresent()
+				? RequestMetrics.statusClass(exceptionContext.getResponseContext().get().getStatus())
+				: RequestMetrics.STATUS_ERROR;
+		record(requestContext, statusClass);
+	}
+
+	/**
+	 * Records the latency & bytes sent of a request
+	 *
+	 * @return Series - series recorded into, null if the request was not timed
+	 **/
+	private static RequestMetrics.Series record(ClientRequestContext requestContext, String statusClass) {
+		Object exchange = requestContext.getProperty(EXCHANGE);
+		if (!(exchange instanceof Exchange))
+			return null;
+		requestContext.removeProperty(EXCHANGE);
+		long latency = System.nanoTime() - ((Exchange) exchange).startNanos;
+		URI uri = requestContext.getUri();
+		String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+		RequestMetrics.Series series = RequestMetrics.series(requestContext.getMethod(), host, uri.getRawPath(),
+				statusClass);
+		series.record(latency, ((Exchange) exchange).sentBytes);
+		return series;
+	}
+
+	/** Timing & byte count of one request **/
+	private static class Exchange {
+		private final long startNanos;
+		/** written by the thread sending the request only **/
+		private long sentBytes = 0;
+
+		private Exchange(long startNanos) {
+			this.startNanos = startNanos;
+		}
+	}
+
+	/**
+	 * Adds the bytes read from a response body to its series. Bytes read again
+	 * after a reset, as Jersey does when checking for an entity, count once.
+	 **/
+	private static class CountingInputStream extends FilterInputStream {
+		private final RequestMetrics.Series series;
+		private long position = 0;
+		private long counted = 0;
+		private long markPosition = 0;
+
+		private CountingInputStream(InputStream in, RequestMetrics.Series series) {
+			super(in);
+			this.series = series;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b != -1)
+				advance(1);
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int count = in.read(b, off, len);
+			if (count > 0)
+				advance(count);
+			return count;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(n);
+			if (skipped > 0)
+				advance(skipped);
+			return skipped;
+		}
+
+		@Override
+		public synchronized void mark(int readlimit) {
+			in.mark(readlimit);
+			markPosition = position;
+		}
+
+		@Override
+		public synchronized void reset() throws IOException {
+			in.reset();
+			position = markPosition;
+		}
+
+		private void advance(long bytes) {
+			position += bytes;
+			if (position > counted) {
+				series.addBytesIn(position - counted);
+				counted = position;
+			}
+		}
+	}
+}
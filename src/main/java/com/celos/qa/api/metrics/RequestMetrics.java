@@ -0,0 +1,530 @@
+package com.celos.qa.api.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.data.ConfigMapping;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/******************************************************************************
+ * Latency, byte and error counts of every request sent through the pooled
+ * clients, kept per endpoint (method, host & path) and status class (2xx,
+ * 3xx, 4xx, 5xx, or 'error' when no response was received).
+ *
+ * Latencies are recorded in microseconds into HdrHistogram recorders, which
+ * take no lock, and exported with the counters to a JSON file and a
+ * Prometheus text-format file at the end of the suite. Numeric and id-like
+ * path segments are replaced with {id} so each endpoint is one series.
+ *
+ * Retries and hedged requests sent by ResilientConnector, the bytes saved by
+ * CompressionInterceptor and the lookups of the ResponseCache are counted for
+ * the whole run and exported alongside the series.
+ *
+ * Every number is cumulative from the start of the JVM, or the last reset(),
+ * as Prometheus expects of counters: an export does not reset them, so when
+ * several suites run in one JVM each export holds the totals of all suites so
+ * far.
+ *******************************************************************************/
+public final class RequestMetrics {
+
+	private static Logger log = LogManager.getLogger(RequestMetrics.class.getName());
+
+	/** status class of requests that failed without a response **/
+	public static final String STATUS_ERROR = "error";
+
+	/** significant digits kept by the histograms **/
+	private static final int PRECISION = 3;
+
+	/** path segments that identify a resource instance rather than an endpoint **/
+	private static final Pattern ID_SEGMENT = Pattern
+			.compile("\\d+|[0-9a-fA-F]{8}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{12}|[0-9a-fA-F]{16,}");
+
+	private static final double[] PERCENTILES = { 50, 90, 95, 99, 99.9 };
+
+	private static final ConcurrentMap<String, Series> SERIES = new ConcurrentHashMap<String, Series>();
+
+	/** retries sent, hedges sent, hedges answering first & retries or hedges refused by the budget **/
+	private static final LongAdder RETRIES = new LongAdder();
+	private static final LongAdder HEDGES = new LongAdder();
+	private static final LongAdder HEDGE_WINS = new LongAdder();
+	private static final LongAdder BUDGET_EXHAUSTED = new LongAdder();
+
+	/** compressed responses & requests, with their bytes on the wire and decoded **/
+	private static final LongAdder DECODED_RESPONSES = new LongAdder();
+	private static final LongAdder RESPONSE_WIRE_BYTES = new LongAdder();
+	private static final LongAdder RESPONSE_DECODED_BYTES = new LongAdder();
+	private static final LongAdder COMPRESSED_REQUESTS = new LongAdder();
+	private static final LongAdder REQUEST_RAW_BYTES = new LongAdder();
+	private static final LongAdder REQUEST_WIRE_BYTES = new LongAdder();
+
+	/** GET requests served from the response cache, revalidated with a 304, or sent in full **/
+	private static final LongAdder CACHE_HITS = new LongAdder();
+	private static final LongAdder CACHE_REVALIDATED = new LongAdder();
+	private static final LongAdder CACHE_MISSES = new LongAdder();
+
+	private static final boolean ENABLED = ConfigMapping.getConfigPropertyAsBoolean(ConfigMapping.CLIENT_METRICS_ENABLED,
+			true);
+
+	/** Empty & private to control instantiation **/
+	private RequestMetrics() {
+	}
+
+	/** True if requests are being instrumented **/
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/**
+	 * Returns the series of an endpoint and status class, creating it on first
+	 * use
+	 *
+	 * @param method      - HTTP method
+	 * @param host        - host:port of the request
+	 * @param path        - path of the request
+	 * @param statusClass - 2xx, 3xx, 4xx, 5xx or 'error'
+	 * @return Series - counters & histogram of the endpoint
+	 **/
+	public static Series series(String method, String host, String path, String statusClass) {
+		String endpoint = normalizePath(path);
+		String key = method + ' ' + host + endpoint + ' ' + statusClass;
+		Series series = SERIES.get(key);
+		if (series == null)
+			series = SERIES.computeIfAbsent(key, k -> new Series(method, host, endpoint, statusClass));
+		return series;
+	}
+
+	/**
+	 * Status class of a status code
+	 *
+	 * @param statusCode - HTTP status code
+	 * @return String - e.g. 2xx
+	 **/
+	public static String statusClass(int statusCode) {
+		return (statusCode / 100) + "xx";
+	}
+
+	/** Counts a request sent again after a failed attempt **/
+	public static void recordRetry() {
+		RETRIES.increment();
+	}
+
+	/**
+	 * Counts a hedged duplicate of a slow request
+	 *
+	 * @param won - true if the duplicate answered first
+	 **/
+	public static void recordHedge(boolean won) {
+		HEDGES.increment();
+		if (won)
+			HEDGE_WINS.increment();
+	}
+
+	/** Counts a retry or hedge not sent because the retry budget was spent **/
+	public static void recordBudgetExhausted() {
+		BUDGET_EXHAUSTED.increment();
+	}
+
+	/** Counts a compressed response body being decoded **/
+	public static void recordDecodedResponse() {
+		DECODED_RESPONSES.increment();
+	}
+
+	/** Adds to the compressed response bytes received **/
+	public static void addResponseWireBytes(long bytes) {
+		RESPONSE_WIRE_BYTES.add(bytes);
+	}
+
+	/** Adds to the bytes decoded from compressed responses **/
+	public static void addResponseDecodedBytes(long bytes) {
+		RESPONSE_DECODED_BYTES.add(bytes);
+	}
+
+	/**
+	 * Counts a request body sent compressed
+	 *
+	 * @param rawBytes  - size of the body before compression
+	 * @param wireBytes - size of the body sent
+	 **/
+	public static void recordCompressedRequest(long rawBytes, long wireBytes) {
+		COMPRESSED_REQUESTS.increment();
+		REQUEST_RAW_BYTES.add(rawBytes);
+		REQUEST_WIRE_BYTES.add(wireBytes);
+	}
+
+	public static long getDecodedResponses() {
+		return DECODED_RESPONSES.sum();
+	}
+
+	public static long getResponseWireBytes() {
+		return RESPONSE_WIRE_BYTES.sum();
+	}
+
+	public static long getResponseDecodedBytes() {
+		return RESPONSE_DECODED_BYTES.sum();
+	}
+
+	public static long getCompressedRequests() {
+		return COMPRESSED_REQUESTS.sum();
+	}
+
+	public static long getRequestRawBytes() {
+		return REQUEST_RAW_BYTES.sum();
+	}
+
+	public static long getRequestWireBytes() {
+		return REQUEST_WIRE_BYTES.sum();
+	}
+
+	/** Counts a request answered by a fresh response cache entry **/
+	public static void recordCacheHit() {
+		CACHE_HITS.increment();
+	}
+
+	/** Counts a cached response confirmed by a 304 **/
+	public static void recordCacheRevalidated() {
+		CACHE_REVALIDATED.increment();
+	}
+
+	/** Counts a cacheable request the response cache could not answer **/
+	public static void recordCacheMiss() {
+		CACHE_MISSES.increment();
+	}
+
+	public static long getCacheHits() {
+		return CACHE_HITS.sum();
+	}
+
+	public static long getCacheRevalidated() {
+		return CACHE_REVALIDATED.sum();
+	}
+
+	public static long getCacheMisses() {
+		return CACHE_MISSES.sum();
+	}
+
+	public static long getRetries() {
+		return RETRIES.sum();
+	}
+
+	public static long getHedges() {
+		return HEDGES.sum();
+	}
+
+	public static long getHedgeWins() {
+		return HEDGE_WINS.sum();
+	}
+
+	public static long getBudgetExhausted() {
+		return BUDGET_EXHAUSTED.sum();
+	}
+
+	/**
+	 * Snapshot of every series, sorted by endpoint then status class
+	 *
+	 * @return List<Series> - series recorded so far
+	 **/
+	public static List<Series> getSeries() {
+		List<Series> all = new ArrayList<Series>(SERIES.values());
+		Collections.sort(all, Comparator.comparing((Series s) -> s.endpoint).thenComparing(s -> s.method)
+				.thenComparing(s -> s.host).thenComparing(s -> s.statusClass));
+		return all;
+	}
+
+	/**
+	 * Drops everything recorded so far
+	 **/
+	public static void reset() {
+		SERIES.clear();
+		RETRIES.reset();
+		HEDGES.reset();
+		HEDGE_WINS.reset();
+		BUDGET_EXHAUSTED.reset();
+		DECODED_RESPONSES.reset();
+		RESPONSE_WIRE_BYTES.reset();
+		RESPONSE_DECODED_BYTES.reset();
+		COMPRESSED_REQUESTS.reset();
+		REQUEST_RAW_BYTES.reset();
+		REQUEST_WIRE_BYTES.reset();
+		CACHE_HITS.reset();
+		CACHE_REVALIDATED.reset();
+		CACHE_MISSES.reset();
+	}
+
+	/**
+	 * Writes the metrics to request-metrics.json & request-metrics.prom in the
+	 * configured directory. The numbers written are cumulative; nothing is
+	 * reset.
+	 *
+	 * @param suiteName - name of the suite, recorded in the JSON file
+	 **/
+	public static void export(String suiteName) {
+		List<Series> all = getSeries();
+		if (all.isEmpty())
+			return;
+		String dirName = ConfigMapping.getConfigProperty(ConfigMapping.CLIENT_METRICS_DIR);
+		File dir = new File(dirName == null || dirName.trim().isEmpty() ? "target/metrics" : dirName.trim());
+		try {
+			Files.createDirectories(dir.toPath());
+			File json = new File(dir, "request-metrics.json");
+			TestContainer.mapper.writerWithDefaultPrettyPrinter().writeValue(json, toJson(suiteName, all));
+			File prometheus = new File(dir, "request-metrics.prom");
+			try (Writer writer = Files.newBufferedWriter(prometheus.toPath(), StandardCharsets.UTF_8)) {
+				writePrometheus(writer, all);
+			}
+			Log.logInfo(log, "Request metrics of " + all.size() + " series written to " + json + " & " + prometheus);
+		} catch (IOException e) {
+			Log.logWarn(log, "Unable to write request metrics to " + dir + " - " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Builds the JSON export: one entry per series with counters and latency
+	 * percentiles in milliseconds
+	 **/
+	static ObjectNode toJson(String suiteName, List<Series> all) {
+		ObjectNode root = TestContainer.mapper.createObjectNode();
+		root.put("suite", suiteName);
+		root.put("timestamp", System.currentTimeMillis());
+		ObjectNode resilience = root.putObject("resilience");
+		resilience.put("retries", RETRIES.sum());
+		resilience.put("hedges", HEDGES.sum());
+		resilience.put("hedgeWins", HEDGE_WINS.sum());
+		resilience.put("budgetExhausted", BUDGET_EXHAUSTED.sum());
+		ObjectNode compression = root.putObject("compression");
+		compression.put("decodedResponses", DECODED_RESPONSES.sum());
+		compression.put("responseWireBytes", RESPONSE_WIRE_BYTES.sum());
+		compression.put("responseDecodedBytes", RESPONSE_DECODED_BYTES.sum());
+		compression.put("compressedRequests", COMPRESSED_REQUESTS.sum());
+		compression.put("requestRawBytes", REQUEST_RAW_BYTES.sum());
+		compression.put("requestWireBytes", REQUEST_WIRE_BYTES.sum());
+		ObjectNode cache = root.putObject("cache");
+		cache.put("hits", CACHE_HITS.sum());
+		cache.put("revalidated", CACHE_REVALIDATED.sum());
+		cache.put("misses", CACHE_MISSES.sum());
+		ArrayNode series = root.putArray("series");
+		for (Series s : all) {
+			Histogram histogram = s.snapshot();
+			ObjectNode node = series.addObject();
+			node.put("method", s.method);
+			node.put("host", s.host);
+			node.put("endpoint", s.endpoint);
+			node.put("status", s.statusClass);
+			node.put("count", s.count.sum());
+			node.put("bytesIn", s.bytesIn.sum());
+			node.put("bytesOut", s.bytesOut.sum());
+			ObjectNode latency = node.putObject("latencyMs");
+			for (double percentile : PERCENTILES) {
+				latency.put("p" + label(percentile), histogram.getValueAtPercentile(percentile) / 1000.0);
+			}
+			latency.put("max", histogram.getMaxValue() / 1000.0);
+			latency.put("mean", histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1000.0);
+		}
+		return root;
+	}
+
+	/**
+	 * Writes the Prometheus text-format export: a latency summary plus byte
+	 * and error counters per series
+	 **/
+	static void writePrometheus(Writer writer, List<Series> all) throws IOException {
+		writer.write("# HELP api_request_latency_seconds Request latency by endpoint and status class\n");
+		writer.write("# TYPE api_request_latency_seconds summary\n");
+		for (Series s : all) {
+			Histogram histogram = s.snapshot();
+			for (double percentile : PERCENTILES) {
+				writer.write("api_request_latency_seconds{" + s.labels() + ",quantile=\"" + quantile(percentile) + "\"} "
+						+ seconds(histogram.getValueAtPercentile(percentile)) + "\n");
+			}
+			writer.write("api_request_latency_seconds_sum{" + s.labels() + "} "
+					+ seconds(histogram.getTotalCount() == 0 ? 0 : (long) (histogram.getMean() * histogram.getTotalCount()))
+					+ "\n");
+			writer.write("api_request_latency_seconds_count{" + s.labels() + "} " + s.count.sum() + "\n");
+		}
+		writeCounter(writer, all, "api_request_received_bytes_total", "Response bytes received", Series::getBytesIn);
+		writeCounter(writer, all, "api_request_sent_bytes_total", "Request bytes sent", Series::getBytesOut);
+		writer.write("# HELP api_request_errors_total Requests failed without a response or with a 5xx status\n");
+		writer.write("# TYPE api_request_errors_total counter\n");
+		for (Series s : all) {
+			if (s.isError())
+				writer.write("api_request_errors_total{" + s.labels() + "} " + s.count.sum() + "\n");
+		}
+		writeTotal(writer, "api_request_retries_total", "Requests sent again after a failed attempt", RETRIES);
+		writeTotal(writer, "api_request_hedges_total", "Duplicates sent for slow requests", HEDGES);
+		writeTotal(writer, "api_request_hedge_wins_total", "Duplicates answering before the original", HEDGE_WINS);
+		writeTotal(writer, "api_request_retry_budget_exhausted_total", "Retries and hedges refused by the retry budget",
+				BUDGET_EXHAUSTED);
+		writeTotal(writer, "api_response_compressed_wire_bytes_total", "Compressed response bytes received",
+				RESPONSE_WIRE_BYTES);
+		writeTotal(writer, "api_response_decoded_bytes_total", "Bytes decoded from compressed responses",
+				RESPONSE_DECODED_BYTES);
+		writeTotal(writer, "api_request_compressed_raw_bytes_total", "Request bytes before compression",
+				REQUEST_RAW_BYTES);
+		writeTotal(writer, "api_request_compressed_wire_bytes_total", "Compressed request bytes sent",
+				REQUEST_WIRE_BYTES);
+		writeTotal(writer, "api_cache_hits_total", "Requests served from the response cache", CACHE_HITS);
+		writeTotal(writer, "api_cache_revalidated_total", "Cached responses confirmed by a 304", CACHE_REVALIDATED);
+		writeTotal(writer, "api_cache_misses_total", "Cacheable requests sent in full", CACHE_MISSES);
+	}
+
+	private static void writeTotal(Writer writer, String name, String help, LongAdder value) throws IOException {
+		writer.write("# HELP " + name + " " + help + "\n");
+		writer.write("# TYPE " + name + " counter\n");
+		writer.write(name + " " + value.sum() + "\n");
+	}
+
+	private static void writeCounter(Writer writer, List<Series> all, String name, String help,
+			ToLongFunction<Series> value) throws IOException {
+		writer.write("# HELP " + name + " " + help + "\n");
+		writer.write("# TYPE " + name + " counter\n");
+		for (Series s : all) {
+			writer.write(name + "{" + s.labels() + "} " + value.applyAsLong(s) + "\n");
+		}
+	}
+
+	private static String seconds(long micros) {
+		return String.format(Locale.ROOT, "%.6f", micros / 1e6);
+	}
+
+	private static String quantile(double percentile) {
+		return BigDecimal.valueOf(percentile).movePointLeft(2).stripTrailingZeros().toPlainString();
+	}
+
+	private static String label(double percentile) {
+		return percentile == Math.rint(percentile) ? String.valueOf((long) percentile)
+				: String.valueOf(percentile).replace(".", "");
+	}
+
+	/**
+	 * Replaces numeric and id-like path segments with {id}
+	 *
+	 * @param path - path of a request
+	 * @return String - endpoint path
+	 **/
+	static String normalizePath(String path) {
+		if (path == null || path.isEmpty())
+			return "/";
+		String[] segments = path.split("/", -1);
+		StringBuilder endpoint = new StringBuilder(path.length());
+		for (int i = 0; i < segments.length; i++) {
+			if (i > 0)
+				endpoint.append('/');
+			endpoint.append(ID_SEGMENT.matcher(segments[i]).matches() ? "{id}" : segments[i]);
+		}
+		return endpoint.toString();
+	}
+
+	/** Counters & latency histogram of one endpoint and status class **/
+	public static class Series {
+		private final String method;
+		private final String host;
+		private final String endpoint;
+		private final String statusClass;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder bytesIn = new LongAdder();
+		private final LongAdder bytesOut = new LongAdder();
+		private final Recorder recorder = new Recorder(PRECISION);
+		/** everything recorded up to the last snapshot, guarded by this **/
+		private final Histogram accumulated = new Histogram(PRECISION);
+		private Histogram interval = null;
+
+		private Series(String method, String host, String endpoint, String statusClass) {
+			this.method = method;
+			this.host = host;
+			this.endpoint = endpoint;
+			this.statusClass = statusClass;
+		}
+
+		/**
+		 * Records a completed request
+		 *
+		 * @param latencyNanos - time from sending to receiving the response headers
+		 * @param sentBytes    - size of the request body, 0 if none
+		 **/
+		public void record(long latencyNanos, long sentBytes) {
+			recorder.recordValue(Math.max(0, latencyNanos / 1000));
+			count.increment();
+			if (sentBytes > 0)
+				bytesOut.add(sentBytes);
+		}
+
+		/** Adds to the response bytes received **/
+		public void addBytesIn(long bytes) {
+			bytesIn.add(bytes);
+		}
+
+		/**
+		 * Histogram of every latency recorded so far, in microseconds
+		 *
+		 * @return Histogram - copy of the latencies recorded
+		 **/
+		public synchronized Histogram snapshot() {
+			interval = recorder.getIntervalHistogram(interval);
+			accumulated.add(interval);
+			return accumulated.copy();
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public String getHost() {
+			return host;
+		}
+
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+		public String getStatusClass() {
+			return statusClass;
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public long getBytesIn() {
+			return bytesIn.sum();
+		}
+
+		public long getBytesOut() {
+			return bytesOut.sum();
+		}
+
+		/** True for requests that failed without a response or with a 5xx status **/
+		public boolean isError() {
+			return STATUS_ERROR.equals(statusClass) || "5xx".equals(statusClass);
+		}
+
+		private String labels() {
+			return "method=\"" + escape(method) + "\",host=\"" + escape(host) + "\",endpoint=\"" + escape(endpoint)
+					+ "\",status=\"" + statusClass + "\"";
+		}
+
+		private static String escape(String value) {
+			return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+		}
+	}
+}
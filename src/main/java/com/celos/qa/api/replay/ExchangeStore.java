@@ -0,0 +1,351 @@
+package com.celos.qa.api.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.data.ConfigMapping;
+
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/******************************************************************************
+ * Append-only file of recorded request/response exchanges.
+ *
+ * The file starts with the magic bytes "CRR1", followed by records of the
+ * form:
+ *
+ * int length of the rest of the record
+ * str key (method, path, sorted query & body hash, see ReplayFilter)
+ * int status code, str reason phrase
+ * int header count, then per header: str name, int value count, str values
+ * int body length, -1 when the response had no entity, then the body bytes
+ *
+ * where str is an int byte length followed by UTF-8 bytes. A record cut short
+ * by a crash is ignored on read.
+ *
+ * For replay the file is memory-mapped once and indexed by key; bodies are
+ * served straight from the mapping. A key recorded several times is replayed
+ * in recording order, repeating the last response once they are used up.
+ *******************************************************************************/
+public final class ExchangeStore {
+
+	private static Logger log = LogManager.getLogger(ExchangeStore.class.getName());
+
+	private static final byte[] MAGIC = { 'C', 'R', 'R', '1' };
+
+	private static volatile ExchangeStore instance = null;
+
+	private final File file;
+
+	/** writer of RECORD mode, opened on first record **/
+	private DataOutputStream out = null;
+
+	/** index of REPLAY mode: key to the records of that key **/
+	private Map<String, Entry> index = null;
+
+	/**
+	 * Constructor - a store of its own, apart from the shared one
+	 *
+	 * @param file - file to record to or replay from
+	 **/
+	public ExchangeStore(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns the store of the file named by client.replay.file
+	 *
+	 * @return ExchangeStore - shared store
+	 **/
+	public static ExchangeStore getInstance() {
+		if (instance == null) {
+			synchronized (ExchangeStore.class) {
+				if (instance == null) {
+					String name = ConfigMapping.getConfigProperty(ConfigMapping.CLIENT_REPLAY_FILE);
+					instance = new ExchangeStore(new File(name == null || name.trim().isEmpty()
+							? "target/replay/exchanges.bin" : name.trim()));
+					Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "exchange-store-close"));
+				}
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns the configured mode, OFF when unset or unknown
+	 *
+	 * @return ReplayMode - mode of the pooled clients
+	 **/
+	public static ReplayMode getMode() {
+		String mode = ConfigMapping.getConfigProperty(ConfigMapping.CLIENT_REPLAY_MODE);
+		try {
+			return mode == null || mode.trim().isEmpty() ? ReplayMode.OFF
+					: ReplayMode.valueOf(mode.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			Log.logWarn(log, "Unknown replay mode '" + mode + "', replay is off");
+			return ReplayMode.OFF;
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Appends an exchange to the file
+	 *
+	 * @param key          - key of the request, see ReplayFilter
+	 * @param statusCode   - HTTP status code
+	 * @param reasonPhrase - HTTP reason phrase
+	 * @param headers      - response headers
+	 * @param body         - response body, null if the response had no entity
+	 **/
+	public synchronized void record(String key, int statusCode, String reasonPhrase,
+			MultivaluedMap<String, String> headers, byte[] body) {
+		try {
+			if (out == null)
+				open();
+			byte[] keyBytes = bytes(key);
+			byte[] reasonBytes = bytes(reasonPhrase);
+			List<byte[]> headerBytes = new ArrayList<byte[]>();
+			int length = 4 + keyBytes.length + 4 + 4 + reasonBytes.length + 4;
+			for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+				byte[] name = bytes(header.getKey());
+				headerBytes.add(name);
+				length += 4 + name.length + 4;
+				for (String value : header.getValue()) {
+					byte[] valueBytes = bytes(value);
+					headerBytes.add(valueBytes);
+					length += 4 + valueBytes.length;
+				}
+			}
+			length += 4 + (body == null ? 0 : body.length);
+			out.writeInt(length);
+			writeBytes(keyBytes);
+			out.writeInt(statusCode);
+			writeBytes(reasonBytes);
+			out.writeInt(headers.size());
+			int next = 0;
+			for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+				writeBytes(headerBytes.get(next++));
+				out.writeInt(header.getValue().size());
+				for (int v = 0; v < header.getValue().size(); v++) {
+					writeBytes(headerBytes.get(next++));
+				}
+			}
+			if (body == null) {
+				out.writeInt(-1);
+			} else {
+				out.writeInt(body.length);
+				out.write(body);
+			}
+			out.flush();
+		} catch (IOException e) {
+			Log.logFatal(log, "Unable to record exchange '" + key + "' to " + file, e);
+		}
+	}
+
+	/**
+	 * Returns the next recorded response of a key
+	 *
+	 * @param key - key of the request, see ReplayFilter
+	 * @return RecordedResponse - the response, null if the key was never recorded
+	 **/
+	public RecordedResponse find(String key) {
+		Entry entry = index().get(key);
+		if (entry == null)
+			return null;
+		int next = entry.next.getAndIncrement();
+		ByteBuffer record = entry.records.get(Math.min(next, entry.records.size() - 1));
+		return new RecordedResponse(record.duplicate());
+	}
+
+	/** Number of distinct keys in the file **/
+	public int size() {
+		return index().size();
+	}
+
+	/**
+	 * Closes the writer, if recording
+	 **/
+	public synchronized void close() {
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				Log.logWarn(log, "Exception when closing exchange store " + file + " - " + e.getMessage());
+			}
+			out = null;
+		}
+	}
+
+	/** Opens the file for appending, writing the magic bytes to a new file **/
+	private void open() throws IOException {
+		if (file.getParentFile() != null)
+			Files.createDirectories(file.getParentFile().toPath());
+		boolean fresh = !file.exists() || file.length() == 0;
+		out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16));
+		if (fresh)
+			out.write(MAGIC);
+		Log.logInfo(log, "Recording exchanges to " + file);
+	}
+
+	/**
+	 * Maps the file and indexes its records by key, on first use
+	 **/
+	private synchronized Map<String, Entry> index() {
+		if (index != null)
+			return index;
+		Map<String, Entry> entries = new HashMap<String, Entry>();
+		if (!file.exists()) {
+			Log.logWarn(log, "Exchange store " + file + " does not exist, nothing to replay");
+			index = entries;
+			return index;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				Log.logFatal(log, "Exchange store " + file + " is larger than 2GB; record to several files");
+			ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			byte[] magic = new byte[MAGIC.length];
+			if (mapped.remaining() < MAGIC.length || !Arrays.equals(magic(mapped, magic), MAGIC))
+				Log.logFatal(log, "File " + file + " is not an exchange store");
+			int records = 0;
+			while (mapped.remaining() >= 4) {
+				int length = mapped.getInt();
+				if (length < 0 || length > mapped.remaining())
+					break;
+				ByteBuffer record = mapped.slice();
+				record.limit(length);
+				mapped.position(mapped.position() + length);
+				String key = readString(record.duplicate());
+				entries.computeIfAbsent(key, k -> new Entry()).records.add(record);
+				records++;
+			}
+			Log.logInfo(log, "Replaying " + records + " exchange(s) of " + entries.size() + " request(s) from " + file);
+		} catch (IOException | BufferUnderflowException e) {
+			Log.logFatal(log, "Unable to read exchange store " + file, e);
+		}
+		index = entries;
+		return index;
+	}
+
+	private static byte[] magic(ByteBuffer buffer, byte[] magic) {
+		buffer.get(magic);
+		return magic;
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static byte[] bytes(String value) {
+		return (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		String value = StandardCharsets.UTF_8.decode((ByteBuffer) buffer.slice().limit(length)).toString();
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	/** Records of one key and the position of the next one to replay **/
+	private static class Entry {
+		private final List<ByteBuffer> records = new ArrayList<ByteBuffer>(1);
+		private final AtomicInteger next = new AtomicInteger();
+	}
+
+	/** A response read back from the store; the body is a view of the mapping **/
+	public static class RecordedResponse {
+		private final int statusCode;
+		private final String reasonPhrase;
+		private final MultivaluedMap<String, String> headers = new MultivaluedHashMap<String, String>();
+		private final ByteBuffer body;
+
+		private RecordedResponse(ByteBuffer record) {
+			readString(record); // key
+			statusCode = record.getInt();
+			reasonPhrase = readString(record);
+			int headerCount = record.getInt();
+			for (int h = 0; h < headerCount; h++) {
+				String name = readString(record);
+				int valueCount = record.getInt();
+				for (int v = 0; v < valueCount; v++) {
+					headers.add(name, readString(record));
+				}
+			}
+			int bodyLength = record.getInt();
+			if (bodyLength < 0) {
+				body = null;
+			} else {
+				body = record.slice();
+				body.limit(bodyLength);
+			}
+		}
+
+		public int getStatusCode() {
+			return statusCode;
+		}
+
+		public String getReasonPhrase() {
+			return reasonPhrase;
+		}
+
+		public MultivaluedMap<String, String> getHeaders() {
+			return headers;
+		}
+
+		/** True if the recorded response had an entity **/
+		public boolean hasBody() {
+			return body != null;
+		}
+
+		/** Body as a stream over the mapped file, null if there was no entity **/
+		public InputStream getBodyStream() {
+			if (body == null)
+				return null;
+			final ByteBuffer buffer = body.duplicate();
+			return new InputStream() {
+				@Override
+				public int read() {
+					return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					if (!buffer.hasRemaining())
+						return -1;
+					int count = Math.min(len, buffer.remaining());
+					buffer.get(b, off, count);
+					return count;
+				}
+
+				@Override
+				public int available() {
+					return buffer.remaining();
+				}
+			};
+		}
+	}
+}
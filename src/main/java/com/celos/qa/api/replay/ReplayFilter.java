@@ -0,0 +1,137 @@
+package com.celos.qa.api.replay;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.commonUtils.TestContainer;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.Response;
+
+/******************************************************************************
+ * Records responses to, or replays them from, the ExchangeStore for every
+ * request of a pooled client.
+ *
+ * A request is keyed by its method, path, query parameters sorted by name and
+ * a SHA-256 hash of its body. The host is left out, so exchanges recorded
+ * against one environment replay against any other. In REPLAY mode the
+ * request is aborted with the stored response before it reaches the
+ * connector; a request that was never recorded fails the test.
+ *******************************************************************************/
+public class ReplayFilter implements ClientRequestFilter, ClientResponseFilter {
+
+	private static Logger log = LogManager.getLogger(ReplayFilter.class.getName());
+
+	/** request property holding the key of a request **/
+	private static final String KEY = ReplayFilter.class.getName() + ".key";
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final ReplayMode mode;
+	private final ExchangeStore store;
+
+	/**
+	 * Constructor
+	 *
+	 * @param mode  - RECORD or REPLAY
+	 * @param store - store to record to or replay from
+	 **/
+	public ReplayFilter(ReplayMode mode, ExchangeStore store) {
+		this.mode = mode;
+		this.store = store;
+	}
+
+	@Override
+	public void filter(ClientRequestContext requestContext) throws IOException {
+		String key = key(requestContext.getMethod(), requestContext.getUri().getRawPath(),
+				requestContext.getUri().getRawQuery(), requestContext.hasEntity() ? requestContext.getEntity() : null);
+		if (mode == ReplayMode.RECORD) {
+			requestContext.setProperty(KEY, key);
+		} else if (mode == ReplayMode.REPLAY) {
+			ExchangeStore.RecordedResponse recorded = store.find(key);
+			if (recorded == null)
+				Log.logFatal(log, "No recorded response for '" + key + "' in " + store.getFile());
+			Response.ResponseBuilder response = Response.status(recorded.getStatusCode(), recorded.getReasonPhrase());
+			for (Map.Entry<String, List<String>> header : recorded.getHeaders().entrySet()) {
+				for (String value : header.getValue()) {
+					response.header(header.getKey(), value);
+				}
+			}
+			if (recorded.hasBody())
+				response.entity(recorded.getBodyStream());
+			requestContext.abortWith(response.build());
+		}
+	}
+
+	@Override
+	public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+		Object key = requestContext.getProperty(KEY);
+		if (!(key instanceof String))
+			return;
+		requestContext.removeProperty(KEY);
+		byte[] body = null;
+		if (responseContext.hasEntity()) {
+			body = responseContext.getEntityStream().readAllBytes();
+			responseContext.setEntityStream(new ByteArrayInputStream(body));
+		}
+		store.record((String) key, responseContext.getStatus(), responseContext.getStatusInfo().getReasonPhrase(),
+				responseContext.getHeaders(), body);
+	}
+
+	/**
+	 * Builds the key of a request
+	 *
+	 * @param method - HTTP method
+	 * @param path   - raw path of the request
+	 * @param query  - raw query string, null if none
+	 * @param entity - request body, null if none
+	 * @return String - e.g. POST /api/users?name=a&page=2 #3f0a...
+	 **/
+	static String key(String method, String path, String query, Object entity) {
+		StringBuilder key = new StringBuilder(64).append(method).append(' ').append(path == null ? "" : path);
+		if (query != null && !query.isEmpty()) {
+			String[] params = query.split("&");
+			Arrays.sort(params);
+			key.append('?').append(String.join("&", params));
+		}
+		if (entity != null)
+			key.append(" #").append(hash(entity));
+		return key.toString();
+	}
+
+	/** Hex SHA-256 of a request body; JSON objects are hashed as serialized **/
+	private static String hash(Object entity) {
+		byte[] bytes;
+		try {
+			if (entity instanceof byte[])
+				bytes = (byte[]) entity;
+			else if (entity instanceof String)
+				bytes = ((String) entity).getBytes(StandardCharsets.UTF_8);
+			else
+				bytes = TestContainer.mapper.writeValueAsBytes(entity);
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+			char[] hex = new char[digest.length * 2];
+			for (int i = 0; i < digest.length; i++) {
+				hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+				hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+			}
+			return new String(hex);
+		} catch (IOException | NoSuchAlgorithmException e) {
+			Log.logFatal(log, "Unable to hash request body of type " + entity.getClass().getName(), e);
+			return null;
+		}
+	}
+}
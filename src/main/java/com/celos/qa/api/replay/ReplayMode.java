@@ -0,0 +1,15 @@
+package com.celos.qa.api.replay;
+
+/******************************************************************************
+ * What the pooled clients do with the exchange store, set by
+ * client.replay.mode
+ *
+ * OFF    - requests go to the network and nothing is stored
+ * RECORD - requests go to the network and every response received, and so
+ *          every response JsonRestClient.formatResponse sees, is appended
+ *          to the store
+ * REPLAY - requests are answered from the store without opening a socket
+ *******************************************************************************/
+public enum ReplayMode {
+	OFF, RECORD, REPLAY
+}
@@ -0,0 +1,213 @@
+package com.celos.qa.api.restClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.data.ConfigMapping;
+
+/******************************************************************************
+ * Adaptive limit on the requests in flight to one host, shared by every pooled
+ * client. The limit follows AIMD:
+ *
+ * - it grows by about one per limit's worth of successful requests, while the
+ *   requests in flight come close to it
+ * - it is multiplied by client.limiter.backoffRatio when the host answers 429
+ *   or 503, a request fails without a response, or the recent latency rises
+ *   above client.limiter.latencyTolerance times the long-run latency; at most
+ *   once per long-run latency, so one burst of rejections counts once
+ *
+ * Requests over the limit wait for a slot, up to a deadline, instead of being
+ * sent to a host that is already throttling.
+ *******************************************************************************/
+public final class AdaptiveLimiter {
+
+	private static Logger log = LogManager.getLogger(AdaptiveLimiter.class.getName());
+
+	/** weight of a sample in the recent and the long-run latency averages **/
+	private static final double SHORT_WEIGHT = 0.2;
+	private static final double LONG_WEIGHT = 0.01;
+
+	/** samples before latency is used as a congestion signal **/
+	private static final int WARMUP_SAMPLES = 20;
+
+	private static final ConcurrentMap<String, AdaptiveLimiter> LIMITERS = new ConcurrentHashMap<String, AdaptiveLimiter>();
+
+	private final String host;
+	private final int minLimit;
+	private final int maxLimit;
+	private final double backoffRatio;
+	private final double latencyTolerance;
+
+	/** guarded by this **/
+	private double limit;
+	private int inFlight = 0;
+	private long samples = 0;
+	private double shortLatency = 0;
+	private double longLatency = 0;
+	private long lastDecrease = 0;
+	private long throttled = 0;
+	private long expired = 0;
+	private long abandoned = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param host             - host:port the limit applies to
+	 * @param initialLimit     - requests allowed in flight at first
+	 * @param minLimit         - lowest limit
+	 * @param maxLimit         - highest limit
+	 * @param backoffRatio     - factor applied to the limit on congestion
+	 * @param latencyTolerance - rise of the recent over the long-run latency
+	 *                         taken as congestion, 0 to ignore latency
+	 **/
+	public AdaptiveLimiter(String host, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+			double latencyTolerance) {
+		this.host = host;
+		this.minLimit = Math.max(1, minLimit);
+		this.maxLimit = Math.max(this.minLimit, maxLimit);
+		this.backoffRatio = backoffRatio;
+		this.latencyTolerance = latencyTolerance;
+		limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+	}
+
+	/**
+	 * Returns the limiter of a host, creating it from the configuration on
+	 * first use
+	 *
+	 * @param host - host:port of a request
+	 * @return AdaptiveLimiter - limiter shared by every request to the host
+	 **/
+	public static AdaptiveLimiter forHost(String host) {
+		AdaptiveLimiter limiter = LIMITERS.get(host);
+		if (limiter == null)
+			limiter = LIMITERS.computeIfAbsent(host, h -> new AdaptiveLimiter(h,
+					ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_LIMITER_INITIAL_LIMIT, 50),
+					ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_LIMITER_MIN_LIMIT, 1),
+					ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_LIMITER_MAX_LIMIT, 200),
+					ConfigMapping.getConfigPropertyAsDouble(ConfigMapping.CLIENT_LIMITER_BACKOFF_RATIO, 0.9),
+					ConfigMapping.getConfigPropertyAsDouble(ConfigMapping.CLIENT_LIMITER_LATENCY_TOLERANCE, 2.0)));
+		return limiter;
+	}
+
+	/**
+	 * Snapshot of the limiters created so far
+	 *
+	 * @return List<AdaptiveLimiter> - one limiter per host
+	 **/
+	public static List<AdaptiveLimiter> getLimiters() {
+		return new ArrayList<AdaptiveLimiter>(LIMITERS.values());
+	}
+
+	/**
+	 * Takes a slot, waiting while the host is at its limit
+	 *
+	 * @param maxWaitNanos - longest wait for a slot
+	 * @return boolean - false if no slot freed up in time, nothing was taken
+	 * @throws InterruptedException - if interrupted while waiting
+	 **/
+	public synchronized boolean acquire(long maxWaitNanos) throws InterruptedException {
+		long deadline = System.nanoTime() + maxWaitNanos;
+		while (inFlight >= getLimit()) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				expired++;
+				return false;
+			}
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+		}
+		inFlight++;
+		return true;
+	}
+
+	/**
+	 * Gives back a slot and adapts the limit to how the request went
+	 *
+	 * @param latencyNanos - time to the response, ignored when dropped
+	 * @param dropped      - true if the host throttled the request or it failed
+	 *                     without a response
+	 **/
+	public synchronized void release(long latencyNanos, boolean dropped) {
+		inFlight--;
+		boolean congested = dropped;
+		if (dropped) {
+			throttled++;
+		} else {
+			samples++;
+			shortLatency = samples == 1 ? latencyNanos : shortLatency + (latencyNanos - shortLatency) * SHORT_WEIGHT;
+			longLatency = samples == 1 ? latencyNanos : longLatency + (latencyNanos - longLatency) * LONG_WEIGHT;
+			congested = latencyTolerance > 0 && samples > WARMUP_SAMPLES
+					&& shortLatency > latencyTolerance * longLatency;
+		}
+		long now = System.nanoTime();
+		if (congested) {
+			if (now - lastDecrease >= (long) longLatency) {
+				double previous = limit;
+				limit = Math.max(minLimit, limit * backoffRatio);
+				lastDecrease = now;
+				if ((int) previous != (int) limit)
+					Log.logDebug(log, "Concurrency limit of " + host + " lowered to " + (int) limit
+							+ (dropped ? " after a throttled request" : " as latency rose"));
+			}
+		} else if (inFlight + 1 >= limit / 2) {
+			limit = Math.min(maxLimit, limit + 1.0 / limit);
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Gives back the slot of a request whose response was dropped without being
+	 * closed, leaving the limit as it is since the time the slot was held says
+	 * nothing of the host
+	 **/
+	public synchronized void abandon() {
+		inFlight--;
+		abandoned++;
+		notifyAll();
+		Log.logWarn(log, "Response from " + host + " was never closed, its request slot is given back late");
+	}
+
+	/********************
+	 * Accessor Methods *
+	 ********************/
+
+	public String getHost() {
+		return host;
+	}
+
+	/** Requests currently allowed in flight **/
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	/** Requests throttled by the host or failed without a response **/
+	public synchronized long getThrottled() {
+		return throttled;
+	}
+
+	/** Requests that gave up waiting for a slot **/
+	public synchronized long getExpired() {
+		return expired;
+	}
+
+	/** Responses dropped without being closed **/
+	public synchronized long getAbandoned() {
+		return abandoned;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "AdaptiveLimiter [host=" + host + ", limit=" + (int) limit + ", inFlight=" + inFlight + ", throttled="
+				+ throttled + ", expired=" + expired + ", abandoned=" + abandoned + "]";
+	}
+}
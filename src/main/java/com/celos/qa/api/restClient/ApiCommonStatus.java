@@ -1,6 +1,14 @@
 package com.celos.qa.api.restClient;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -9,12 +17,16 @@ import com.celos.qa.api.commonUtils.Assertion;
 import com.celos.qa.api.commonUtils.Log;
 import com.celos.qa.api.commonUtils.TestContainer;
 import com.celos.qa.api.fields.ApiFields;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 
 public class ApiCommonStatus {
 
 	private static Logger log = LogManager.getLogger(ApiCommonStatus.class.getName());
 
+	/** compiled JSON pointers, keyed by path **/
+	private static final ConcurrentMap<String, JsonPointer> POINTERS = new ConcurrentHashMap<String, JsonPointer>();
+
 	/**
 	 * Verifies status code and reason values from an HTTP response. This method
 	 * expects statusBlock to be in the following format:
@@ -165,10 +177,121 @@ public class ApiCommonStatus {
 	 **/
 	public static void validateValueAsPerJsonPath(String responseString, String expectedValue, String jsonPath)
 			throws Exception {
-		JsonNode response = TestContainer.mapper.readTree(responseString);
-		Assertion.assertTrue(expectedValue.equalsIgnoreCase(response.at(jsonPath).asText()),
-				"Expected Value (" + expectedValue + ") != Actual Value (" + response.at(jsonPath).asText() + ")");
+		validateValueAsPerJsonPath(TestContainer.mapper.readTree(responseString), expectedValue, jsonPath);
+	}
+
+	/**
+	 * Verifies the expectedValue matches a value found within an already parsed
+	 * JSON object, see validateValueAsPerJsonPath(String, String, String)
+	 *
+	 * @param response      - parsed JSON object
+	 * @param expectedValue - value to compare against, ignoring case
+	 * @param jsonPath      - path to value
+	 **/
+	public static void validateValueAsPerJsonPath(JsonNode response, String expectedValue, String jsonPath) {
+		String actualValue = response.at(jsonPointer(jsonPath)).asText();
+		Assertion.assertTrue(expectedValue.equalsIgnoreCase(actualValue),
+				"Expected Value (" + expectedValue + ") != Actual Value (" + actualValue + ")");
 		log.info("Path - " + jsonPath + " - verified to match.");
 	}
 
+	/**
+	 * Verifies every expected value against a JSON object in one pass, failing
+	 * once with every mismatch rather than at the first. Values are compared
+	 * ignoring case, as validateValueAsPerJsonPath does; a path that is not
+	 * found is reported as <missing>. A null expected value passes when the
+	 * path is missing or null.
+	 *
+	 * Ex: expected = {"/data/0/id" : "7", "/data/0/first_name" : "Michael"}
+	 *
+	 * @param response - parsed JSON object, such as a response body
+	 * @param expected - expected values keyed by path, checked in map order
+	 **/
+	public static void validateValuesAsPerJsonPaths(JsonNode response, Map<String, String> expected) {
+		if (response == null)
+			Log.logFatal(log, "Response is null. Expected values at " + expected.keySet());
+		Map<String, JsonNode> actual = new LinkedHashMap<String, JsonNode>();
+		for (String jsonPath : expected.keySet()) {
+			actual.put(jsonPath, response.at(jsonPointer(jsonPath)));
+		}
+		verifyValues(actual, expected);
+	}
+
+	/**
+	 * Streams a JSON body and verifies every expected value, reading only as far
+	 * as the last path and never building the whole document, see
+	 * JsonPointerExtractor. Meant for very large bodies.
+	 *
+	 * @param responseStream - JSON object, left open
+	 * @param expected       - expected values keyed by path
+	 **/
+	public static void validateValuesAsPerJsonPaths(InputStream responseStream, Map<String, String> expected) {
+		verifyValues(JsonPointerExtractor.extract(responseStream, expected.keySet()), expected);
+	}
+
+	/**
+	 * Parses a raw JSON body once and verifies every expected value, see
+	 * validateValuesAsPerJsonPaths(JsonNode, Map)
+	 *
+	 * @param responseBytes - JSON object as received, e.g.
+	 *                      ApiResponse.getBodyBytes()
+	 * @param expected      - expected values keyed by path
+	 **/
+	public static void validateValuesAsPerJsonPaths(byte[] responseBytes, Map<String, String> expected) {
+		JsonNode response = null;
+		try {
+			response = responseBytes == null ? null : TestContainer.mapper.readTree(responseBytes);
+		} catch (IOException e) {
+			Log.logFatal(log, "Response is not valid JSON", e);
+		}
+		validateValuesAsPerJsonPaths(response, expected);
+	}
+
+	/**
+	 * Compares the values found against the expected ones, failing once with
+	 * every mismatch
+	 *
+	 * @param actual   - value found at each path, MissingNode if not found
+	 * @param expected - expected values keyed by path, null to expect a path
+	 *                 missing or null
+	 **/
+	private static void verifyValues(Map<String, JsonNode> actual, Map<String, String> expected) {
+		List<String> mismatches = new ArrayList<String>();
+		for (Map.Entry<String, String> expectation : expected.entrySet()) {
+			JsonNode node = actual.get(expectation.getKey());
+			boolean missing = node == null || node.isMissingNode();
+			String actualValue = missing ? "<missing>" : node.asText();
+			if (expectation.getValue() == null) {
+				// A null expected value asks for the path to be missing or null
+				if (!missing && !node.isNull())
+					mismatches.add(expectation.getKey() + " - Expected missing or null != Actual Value (" + actualValue
+							+ ")");
+			} else if (missing || !expectation.getValue().equalsIgnoreCase(actualValue))
+				mismatches.add(expectation.getKey() + " - Expected Value (" + expectation.getValue()
+						+ ") != Actual Value (" + actualValue + ")");
+		}
+		if (!mismatches.isEmpty())
+			Log.logFatal(log, mismatches.size() + " of " + expected.size() + " path(s) do not match:\n"
+					+ String.join("\n", mismatches));
+		log.info(expected.size() + " path(s) verified to match.");
+	}
+
+	/**
+	 * Returns the compiled form of a JSON pointer, compiling it on first use
+	 *
+	 * @param jsonPath - path such as /data/0/id
+	 * @return JsonPointer - compiled path
+	 **/
+	public static JsonPointer jsonPointer(String jsonPath) {
+		JsonPointer pointer = POINTERS.get(jsonPath);
+		if (pointer == null) {
+			try {
+				pointer = POINTERS.computeIfAbsent(jsonPath, JsonPointer::compile);
+			} catch (IllegalArgumentException e) {
+				Log.logFatal(log, "Invalid JSON path - " + jsonPath, e);
+			}
+		}
+		return pointer;
+	}
+
 }
@@ -0,0 +1,520 @@
+package com.celos.qa.api.restClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.fields.ApiFields;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/******************************************************************************
+ * Response of a request, as returned by JsonRestClient.formatResponse. The raw
+ * status, headers and body bytes are kept as received and each is converted to
+ * JSON only when first asked for, so a test checking only the status code never
+ * builds the headers or body nodes.
+ *
+ * The object is also a Map<String, JsonNode> with the keys "status", "headers"
+ * and "responseBody", modeling the following: { "responseBody" : {...},
+ * "status" : {"code":404,"reason":"Not Found"}, "headers" : {...} }
+ *
+ * A body larger than the spill threshold is streamed to a temporary file
+ * instead of the heap. It is still parsed on first access, but can be read
+ * without loading it through openBodyStream(), e.g. with JsonPointerExtractor.
+ * The file is deleted once the response is no longer referenced.
+ *******************************************************************************/
+public class ApiResponse extends AbstractMap<String, JsonNode> {
+
+	private static Logger log = LogManager.getLogger(ApiResponse.class.getName());
+
+	private static final String STATUS = ApiFields.RESPONSE_FIELD_STATUS.field();
+	private static final String HEADERS = ApiFields.RESPONSE_FIELD_HEADERS.field();
+	private static final String RESPONSE_BODY = ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field();
+
+	/** deletes the files of spilled bodies no longer referenced **/
+	private static final Cleaner SPILL_CLEANER = Cleaner.create();
+
+	/** raw status code & reason **/
+	private final int statusCode;
+	private final String reasonPhrase;
+
+	/** raw response headers **/
+	private final MultivaluedMap<String, String> rawHeaders;
+
+	/** raw response body, null if the response had no entity or it was spilled **/
+	private final byte[] bodyBytes;
+
+	/** file holding a spilled response body, null if kept in memory **/
+	private final Path bodyFile;
+
+	/** size of the response body in bytes, -1 if the response had no entity **/
+	private final long bodyLength;
+
+	/** charset of the response body **/
+	private final Charset charset;
+
+	/** JSON views, built on first access **/
+	private volatile ObjectNode status = null;
+	private volatile ObjectNode headers = null;
+	private volatile JsonNode body = null;
+	private volatile boolean bodyParsed = false;
+
+	/** values put through the Map view, taking precedence over the raw values **/
+	private Map<String, JsonNode> overrides = null;
+
+	/** keys removed through the Map view **/
+	private Set<String> removed = null;
+
+	/**
+	 * Constructor - keeps the raw parts of a response
+	 *
+	 * @param statusCode   - HTTP status code
+	 * @param reasonPhrase - HTTP reason phrase
+	 * @param rawHeaders   - response headers
+	 * @param bodyBytes    - response body, null if the response had no entity
+	 * @param charset      - charset of the response body
+	 **/
+	public ApiResponse(int statusCode, String reasonPhrase, MultivaluedMap<String, String> rawHeaders,
+			byte[] bodyBytes, Charset charset) {
+		this.statusCode = statusCode;
+		this.reasonPhrase = reasonPhrase;
+		this.rawHeaders = rawHeaders;
+		this.bodyBytes = bodyBytes;
+		this.bodyFile = null;
+		this.bodyLength = bodyBytes == null ? -1 : bodyBytes.length;
+		this.charset = charset == null ? StandardCharsets.UTF_8 : charset;
+	}
+
+	/**
+	 * Constructor - keeps the raw parts of a response whose body was spilled to
+	 * a file. The file is owned by the response and deleted along with it.
+	 *
+	 * @param statusCode   - HTTP status code
+	 * @param reasonPhrase - HTTP reason phrase
+	 * @param rawHeaders   - response headers
+	 * @param bodyFile     - file holding the response body
+	 * @param charset      - charset of the response body
+	 **/
+	public ApiResponse(int statusCode, String reasonPhrase, MultivaluedMap<String, String> rawHeaders, Path bodyFile,
+			Charset charset) throws IOException {
+		this.statusCode = statusCode;
+		this.reasonPhrase = reasonPhrase;
+		this.rawHeaders = rawHeaders;
+		this.bodyBytes = null;
+		this.bodyFile = bodyFile;
+		this.bodyLength = Files.size(bodyFile);
+		this.charset = charset == null ? StandardCharsets.UTF_8 : charset;
+		bodyFile.toFile().deleteOnExit();
+		SPILL_CLEANER.register(this, new DeleteFile(bodyFile));
+	}
+
+	/**
+	 * Builds a response, reading its body from a stream. Bodies up to the
+	 * threshold are kept in memory; larger ones are streamed to a temporary
+	 * file in spillDir.
+	 *
+	 * @param statusCode     - HTTP status code
+	 * @param reasonPhrase   - HTTP reason phrase
+	 * @param rawHeaders     - response headers
+	 * @param entity         - response body, null if the response had no entity
+	 * @param charset        - charset of the response body
+	 * @param spillThreshold - largest body kept in memory, in bytes; 0 or less
+	 *                       to keep every body in memory
+	 * @param spillDir       - directory of spilled bodies, null for the system
+	 *                       temporary directory
+	 * @return ApiResponse - the response
+	 **/
+	public static ApiResponse read(int statusCode, String reasonPhrase, MultivaluedMap<String, String> rawHeaders,
+			InputStream entity, Charset charset, long spillThreshold, File spillDir) throws IOException {
+		if (entity == null)
+			return new ApiResponse(statusCode, reasonPhrase, rawHeaders, (byte[]) null, charset);
+		int limit = (int) (spillThreshold <= 0 ? Integer.MAX_VALUE - 8 : Math.min(spillThreshold, Integer.MAX_VALUE - 8));
+		byte[] head = entity.readNBytes(limit);
+		int next = head.length < limit ? -1 : entity.read();
+		if (next == -1)
+			return new ApiResponse(statusCode, reasonPhrase, rawHeaders, head, charset);
+		if (spillDir != null)
+			Files.createDirectories(spillDir.toPath());
+		Path file = spillDir == null ? Files.createTempFile("response-", ".body")
+				: Files.createTempFile(spillDir.toPath(), "response-", ".body");
+		try (OutputStream out = Files.newOutputStream(file)) {
+			out.write(head);
+			out.write(next);
+			entity.transferTo(out);
+		} catch (IOException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		return new ApiResponse(statusCode, reasonPhrase, rawHeaders, file, charset);
+	}
+
+	/**
+	 * Builds a response with no status, headers or body, whose Map view is
+	 * empty; returned when a response could not be read at all
+	 *
+	 * @return ApiResponse - empty response
+	 **/
+	public static ApiResponse empty() {
+		ApiResponse response = new ApiResponse(0, null, null, (byte[]) null, null);
+		response.remove(STATUS);
+		response.remove(HEADERS);
+		return response;
+	}
+
+	/********************
+	 * Accessor Methods *
+	 ********************/
+
+	/** HTTP status code **/
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	/** HTTP reason phrase **/
+	public String getReasonPhrase() {
+		return reasonPhrase;
+	}
+
+	/** Response headers as received **/
+	public MultivaluedMap<String, String> getRawHeaders() {
+		return rawHeaders;
+	}
+
+	/**
+	 * Returns the first value of a response header
+	 *
+	 * @param name - header name
+	 * @return String - first value of the header, null if not present
+	 **/
+	public String getHeaderString(String name) {
+		return rawHeaders == null ? null : rawHeaders.getFirst(name);
+	}
+
+	/** True if the response had an entity **/
+	public boolean hasBody() {
+		return bodyLength >= 0;
+	}
+
+	/** Size of the response body in bytes, -1 if the response had no entity **/
+	public long getBodyLength() {
+		return bodyLength;
+	}
+
+	/** True if the body was too large for memory and is held in a file **/
+	public boolean isSpilled() {
+		return bodyFile != null;
+	}
+
+	/** File holding a spilled body, null if the body is in memory **/
+	public Path getBodyFile() {
+		return bodyFile;
+	}
+
+	/**
+	 * Response body as received, null if the response had no entity. A spilled
+	 * body is read into memory on every call; prefer openBodyStream() for those.
+	 **/
+	public byte[] getBodyBytes() {
+		if (bodyFile == null)
+			return bodyBytes;
+		try {
+			return Files.readAllBytes(bodyFile);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to read spilled response body " + bodyFile, e);
+		}
+	}
+
+	/**
+	 * Opens a stream over the response body, reading a spilled body from its
+	 * file rather than memory. The caller closes the stream.
+	 *
+	 * @return InputStream - body content, null if the response had no entity
+	 **/
+	public InputStream openBodyStream() throws IOException {
+		if (bodyFile != null)
+			return Files.newInputStream(bodyFile);
+		return bodyBytes == null ? null : new ByteArrayInputStream(bodyBytes);
+	}
+
+	/** Response body decoded as text, null if the response had no entity **/
+	public String getBodyAsString() {
+		byte[] bytes = getBodyBytes();
+		return bytes == null ? null : new String(bytes, charset);
+	}
+
+	/**
+	 * Start of the response body decoded as text, for logging
+	 *
+	 * @param maxBytes - most bytes of the body to decode
+	 * @return String - the start of the body, null if the response had no
+	 *         entity
+	 **/
+	public String getBodyPreview(int maxBytes) {
+		if (!hasBody())
+			return null;
+		if (bodyFile == null)
+			return new String(bodyBytes, 0, Math.min(bodyBytes.length, maxBytes), charset);
+		try (InputStream stream = Files.newInputStream(bodyFile)) {
+			return new String(stream.readNBytes(maxBytes), charset);
+		} catch (IOException e) {
+			return "<unreadable: " + e.getMessage() + ">";
+		}
+	}
+
+	/**
+	 * Returns the status block, built on first call
+	 *
+	 * @return ObjectNode - {"code":404,"reason":"Not Found"}
+	 **/
+	public ObjectNode getStatus() {
+		if (status == null) {
+			ObjectNode node = TestContainer.mapper.createObjectNode();
+			node.put(ApiFields.RESPONSE_FIELD_CODE.field(), statusCode);
+			node.put(ApiFields.RESPONSE_FIELD_REASON.field(), reasonPhrase);
+			status = node;
+		}
+		return status;
+	}
+
+	/**
+	 * Returns the headers as JSON, with an array of values per header, built on
+	 * first call
+	 *
+	 * @return ObjectNode - {"Content-Type":["application/json"], ...}
+	 **/
+	public ObjectNode getHeaders() {
+		if (headers == null) {
+			headers = headersToJson(rawHeaders);
+		}
+		return headers;
+	}
+
+	/**
+	 * Returns the parsed body, parsed on first call. Bodies that are not JSON
+	 * are returned as {"responseBodyNonJson": "..."}.
+	 *
+	 * @return JsonNode - parsed body, null if the response had no entity or the
+	 *         body could not be read
+	 **/
+	public JsonNode getBody() {
+		if (!bodyParsed) {
+			if (hasBody()) {
+				try (InputStream stream = openBodyStream()) {
+					body = readBody(stream, charset);
+				} catch (Exception e) {
+					body = null;
+					Log.logInfo(log, "Entity could not map to a String, returning null");
+				}
+			}
+			bodyParsed = true;
+		}
+		return body;
+	}
+
+	/*************
+	 * Map View *
+	 *************/
+
+	@Override
+	public JsonNode get(Object key) {
+		if (removed != null && removed.contains(key))
+			return null;
+		if (overrides != null && overrides.containsKey(key))
+			return overrides.get(key);
+		if (STATUS.equals(key))
+			return getStatus();
+		if (HEADERS.equals(key))
+			return getHeaders();
+		if (RESPONSE_BODY.equals(key))
+			return getBody();
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (removed != null && removed.contains(key))
+			return false;
+		if (overrides != null && overrides.containsKey(key))
+			return true;
+		return STATUS.equals(key) || HEADERS.equals(key) || (RESPONSE_BODY.equals(key) && hasBody());
+	}
+
+	@Override
+	public JsonNode put(String key, JsonNode value) {
+		JsonNode previous = get(key);
+		if (overrides == null)
+			overrides = new HashMap<String, JsonNode>();
+		overrides.put(key, value);
+		if (removed != null)
+			removed.remove(key);
+		return previous;
+	}
+
+	@Override
+	public JsonNode remove(Object key) {
+		if (!containsKey(key))
+			return null;
+		JsonNode previous = get(key);
+		if (removed == null)
+			removed = new HashSet<String>();
+		removed.add((String) key);
+		if (overrides != null)
+			overrides.remove(key);
+		return previous;
+	}
+
+	@Override
+	public Set<Map.Entry<String, JsonNode>> entrySet() {
+		return new AbstractSet<Map.Entry<String, JsonNode>>() {
+			@Override
+			public Iterator<Map.Entry<String, JsonNode>> iterator() {
+				final Iterator<String> keys = keys().iterator();
+				return new Iterator<Map.Entry<String, JsonNode>>() {
+					private String current = null;
+
+					@Override
+					public boolean hasNext() {
+						return keys.hasNext();
+					}
+
+					@Override
+					public Map.Entry<String, JsonNode> next() {
+						current = keys.next();
+						return new SimpleImmutableEntry<String, JsonNode>(current, get(current));
+					}
+
+					@Override
+					public void remove() {
+						ApiResponse.this.remove(current);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return keys().size();
+			}
+		};
+	}
+
+	/**
+	 * Keys present in the Map view, in the order the former HashMap iterated
+	 *
+	 * @return List<String> - keys present
+	 **/
+	private List<String> keys() {
+		List<String> keys = new ArrayList<String>(3);
+		if (containsKey(HEADERS))
+			keys.add(HEADERS);
+		if (containsKey(RESPONSE_BODY))
+			keys.add(RESPONSE_BODY);
+		if (containsKey(STATUS))
+			keys.add(STATUS);
+		if (overrides != null) {
+			for (String key : overrides.keySet()) {
+				if (!keys.contains(key) && containsKey(key))
+					keys.add(key);
+			}
+		}
+		return keys;
+	}
+
+	/*******************
+	 * Body & Headers *
+	 *******************/
+
+	/**
+	 * Reads a body from a stream. The first byte decides whether the body is
+	 * parsed as JSON or kept as text; UTF-8 JSON is parsed straight from the
+	 * stream without an intermediate String.
+	 *
+	 * @param stream  - body content
+	 * @param charset - charset of the body
+	 * @return JsonNode - parsed body, or {"responseBodyNonJson": "..."} when the
+	 *         body is not JSON
+	 **/
+	public static JsonNode readBody(InputStream stream, Charset charset) throws IOException {
+		PushbackInputStream entity = new PushbackInputStream(stream, 1);
+		int first = entity.read();
+		if (first != -1)
+			entity.unread(first);
+		// The first byte only tells JSON apart for UTF-8 bodies
+		if ((first == '[' || first == '{') && StandardCharsets.UTF_8.equals(charset)) {
+			try (JsonParser parser = TestContainer.mapper.getFactory().createParser(entity)) {
+				parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+				return TestContainer.mapper.readTree(parser);
+			}
+		}
+		String text = new String(entity.readAllBytes(), charset);
+		if (text.startsWith("[") || text.startsWith("{"))
+			return TestContainer.mapper.readTree(text);
+		ObjectNode temp = TestContainer.mapper.createObjectNode();
+		temp.put("responseBodyNonJson", text);
+		return temp;
+	}
+
+	/**
+	 * Converts headers to JSON, with an array of values per header
+	 *
+	 * @param headers - headers to convert
+	 * @return ObjectNode - {"Content-Type":["application/json"], ...}
+	 **/
+	public static ObjectNode headersToJson(MultivaluedMap<String, ?> headers) {
+		ObjectNode responseHeaders = TestContainer.mapper.createObjectNode();
+		if (headers == null)
+			return responseHeaders;
+		for (Map.Entry<String, ? extends List<?>> header : headers.entrySet()) {
+			ArrayNode array = TestContainer.mapper.createArrayNode();
+			for (Object entry : header.getValue()) {
+				array.add(entry.toString());
+			}
+			responseHeaders.set(header.getKey(), array);
+		}
+		return responseHeaders;
+	}
+
+	/** Deletes the file of a spilled body; holds no reference to the response **/
+	private static class DeleteFile implements Runnable {
+		private final Path file;
+
+		private DeleteFile(Path file) {
+			this.file = file;
+		}
+
+		@Override
+		public void run() {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				// removed on exit instead
+			}
+		}
+	}
+}
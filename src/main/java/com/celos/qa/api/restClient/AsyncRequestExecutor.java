@@ -0,0 +1,128 @@
+package com.celos.qa.api.restClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.celos.qa.api.data.ConfigMapping;
+
+/******************************************************************************
+ * Runs requests off the calling thread with a bound on how many may be in
+ * flight at once. Submitting blocks the caller while the bound is reached, so
+ * firing hundreds of calls from one test never floods the target host.
+ * The executor is pluggable; by default a shared daemon thread pool is used.
+ *******************************************************************************/
+public class AsyncRequestExecutor {
+
+	/** Shared default instance, sized from the configuration file **/
+	private static volatile AsyncRequestExecutor defaultInstance = null;
+
+	/** executor the requests run on **/
+	private final Executor executor;
+
+	/** permits for requests currently in flight **/
+	private final Semaphore inFlight;
+
+	/** maximum number of requests in flight **/
+	private final int maxInFlight;
+
+	/**
+	 * Constructor - requests run on the given executor, at most maxInFlight at a
+	 * time
+	 *
+	 * @param executor    - executor the requests run on
+	 * @param maxInFlight - maximum number of requests in flight
+	 **/
+	public AsyncRequestExecutor(Executor executor, int maxInFlight) {
+		if (maxInFlight < 1)
+			throw new IllegalArgumentException("maxInFlight must be at least 1 - found " + maxInFlight);
+		this.executor = executor;
+		this.maxInFlight = maxInFlight;
+		this.inFlight = new Semaphore(maxInFlight);
+	}
+
+	/**
+	 * Returns the shared default instance, created on first use. Its in-flight
+	 * bound is read from 'client.async.maxInFlight'.
+	 *
+	 * @return AsyncRequestExecutor - shared default instance
+	 **/
+	public static AsyncRequestExecutor getDefault() {
+		if (defaultInstance == null) {
+			synchronized (AsyncRequestExecutor.class) {
+				if (defaultInstance == null) {
+					defaultInstance = new AsyncRequestExecutor(newDaemonPool(),
+							ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_ASYNC_MAX_IN_FLIGHT, 64));
+				}
+			}
+		}
+		return defaultInstance;
+	}
+
+	/**
+	 * Runs the task asynchronously once an in-flight permit is available. The
+	 * calling thread blocks until then.
+	 *
+	 * @param task - the request to run
+	 * @return CompletableFuture - completes with the task result, or
+	 *         exceptionally with whatever the task threw
+	 **/
+	public <T> CompletableFuture<T> submit(Supplier<T> task) {
+		try {
+			inFlight.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			CompletableFuture<T> interrupted = new CompletableFuture<T>();
+			interrupted.completeExceptionally(e);
+			return interrupted;
+		}
+		CompletableFuture<T> future;
+		try {
+			future = CompletableFuture.supplyAsync(task, executor);
+		} catch (RejectedExecutionException e) {
+			inFlight.release();
+			CompletableFuture<T> rejected = new CompletableFuture<T>();
+			rejected.completeExceptionally(e);
+			return rejected;
+		}
+		return future.whenComplete((result, failure) -> inFlight.release());
+	}
+
+	/**
+	 * Returns the number of requests currently in flight
+	 *
+	 * @return int - requests in flight
+	 **/
+	public int getInFlight() {
+		return maxInFlight - inFlight.availablePermits();
+	}
+
+	/**
+	 * Returns the maximum number of requests in flight
+	 *
+	 * @return int - in-flight bound
+	 **/
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Creates an unbounded pool of daemon threads; the in-flight bound is what
+	 * limits how many of them are busy.
+	 *
+	 * @return ExecutorService - daemon thread pool
+	 **/
+	private static ExecutorService newDaemonPool() {
+		final AtomicInteger count = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "rest-async-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
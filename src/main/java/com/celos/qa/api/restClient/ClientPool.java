@@ -0,0 +1,327 @@
+package com.celos.qa.api.restClient;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.apache.connector.ApacheHttpClientBuilderConfigurator;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.HttpUrlConnectorProvider;
+import org.glassfish.jersey.client.RequestEntityProcessing;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+import com.celos.qa.api.cache.ResponseCache;
+import com.celos.qa.api.cache.ResponseCacheFilter;
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.metrics.MetricsInterceptor;
+import com.celos.qa.api.metrics.RequestMetrics;
+import com.celos.qa.api.replay.ExchangeStore;
+import com.celos.qa.api.replay.ReplayFilter;
+import com.celos.qa.api.replay.ReplayMode;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+
+/******************************************************************************
+ * Shared pool of Jersey clients. Clients are keyed by the contents of the
+ * ClientConfig that built them, so every JsonRestClient with an equal
+ * configuration reuses one Client and its persistent connections. Each Client
+ * runs on the Transport its configuration names; on the default APACHE one,
+ * connections are held by a pooling connection manager and idle ones are
+ * evicted in the background. Everything is closed by shutdown() at the end of
+ * the suite.
+ *
+ * Clients are handed out and closed under a read/write lock, so shutdown()
+ * never closes a Client while it is being looked up or created. A Client
+ * obtained before shutdown() is closed with the rest; callers fetch the
+ * Client per request rather than holding on to it.
+ *******************************************************************************/
+public final class ClientPool {
+
+	private static Logger log = LogManager.getLogger(ClientPool.class.getName());
+
+	/** pooled clients, keyed by a snapshot of their configuration **/
+	private static final ConcurrentMap<ConfigKey, PooledClient> CLIENTS = new ConcurrentHashMap<ConfigKey, PooledClient>();
+
+	/** read: handing out clients, write: closing them **/
+	private static final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+
+	/** background thread closing expired and idle connections, guarded by ClientPool.class **/
+	private static ScheduledExecutorService evictor = null;
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(ClientPool::shutdown, "client-pool-shutdown"));
+	}
+
+	/** Empty & private to control instantiation **/
+	private ClientPool() {
+	}
+
+	/**
+	 * Returns the pooled Client for the given configuration, creating it on
+	 * first use. Later changes to the configuration produce a new pooled Client
+	 * rather than altering the one already handed out.
+	 *
+	 * @param config - configuration state of the requesting JsonRestClient
+	 * @return Client - shared, thread-safe Jersey client
+	 **/
+	public static Client getClient(ClientConfig config) {
+		ConfigKey key = new ConfigKey(config);
+		LOCK.readLock().lock();
+		try {
+			PooledClient pooled = CLIENTS.get(key);
+			if (pooled == null) {
+				pooled = CLIENTS.computeIfAbsent(key, k -> createClient(config));
+			}
+			return pooled.client;
+		} finally {
+			LOCK.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Closes every pooled Client along with its connections. Clients requested
+	 * afterwards are created anew, so this is safe to call between suites.
+	 **/
+	public static void shutdown() {
+		LOCK.writeLock().lock();
+		try {
+			synchronized (ClientPool.class) {
+				if (CLIENTS.isEmpty() && evictor == null)
+					return;
+				for (PooledClient pooled : CLIENTS.values()) {
+					pooled.close();
+				}
+				for (AdaptiveLimiter limiter : AdaptiveLimiter.getLimiters()) {
+					Log.logInfo(log, limiter.toString());
+				}
+				Log.logInfo(log, "Closed " + CLIENTS.size() + " pooled client(s)");
+				CLIENTS.clear();
+				if (evictor != null) {
+					evictor.shutdownNow();
+					evictor = null;
+				}
+			}
+		} finally {
+			LOCK.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of distinct pooled clients currently open
+	 *
+	 * @return int - number of pooled clients
+	 **/
+	public static int size() {
+		return CLIENTS.size();
+	}
+
+	/**
+	 * Builds a new Client from a copy of the configuration, on the transport
+	 * it names. A ConnectorProvider set on the configuration, other than
+	 * Jersey's default HttpUrlConnectorProvider, is kept as is. Its requests go
+	 * through a LimitingConnector, and clients that retry or hedge requests get
+	 * that wrapped in a ResilientConnector. Clients caching responses serve
+	 * their GETs from the run-wide ResponseCache.
+	 *
+	 * @param config - configuration state of the requesting JsonRestClient
+	 * @return PooledClient - new client owning its connections
+	 **/
+	private static PooledClient createClient(ClientConfig config) {
+		ClientConfig pooledConfig = new ClientConfig().loadFrom(config);
+		Transport transport = getTransport(config);
+		ConnectorProvider provider = config.getConnectorProvider();
+		ScheduledFuture<?> eviction = null;
+		if (provider != null && provider.getClass() != HttpUrlConnectorProvider.class) {
+			Log.logInfo(log, "Created pooled client - connector " + provider.getClass().getName());
+		} else if (transport == Transport.JDK_HTTP) {
+			pooledConfig.connectorProvider(new JdkHttpConnector.Provider());
+			if (config.getProperty(JdkHttpConnector.HTTP2) == null)
+				pooledConfig.property(JdkHttpConnector.HTTP2,
+						ConfigMapping.getConfigPropertyAsBoolean(ConfigMapping.CLIENT_TRANSPORT_HTTP2, true));
+			Log.logInfo(log, "Created pooled client - JDK HttpClient, HTTP/2 = "
+					+ pooledConfig.getProperty(JdkHttpConnector.HTTP2));
+		} else if (transport == Transport.URL_CONNECTION) {
+			// Allow any type of headers to be added to requests with no restrictions;
+			// read once by HttpURLConnection, so set before its first request
+			System.setProperty("sun.net.http.allowRestrictedHeaders", "true");
+			Log.logInfo(log, "Created pooled client - HttpURLConnection");
+		} else {
+			eviction = configureApache(pooledConfig);
+		}
+		if (LimitingConnector.isEnabled())
+			pooledConfig.connectorProvider(new LimitingConnector.Provider(pooledConfig.getConnectorProvider()));
+		if (ResilientConnector.isEnabled(pooledConfig))
+			pooledConfig.connectorProvider(new ResilientConnector.Provider(pooledConfig.getConnectorProvider()));
+		if (CompressionInterceptor.isEnabled())
+			pooledConfig.register(new CompressionInterceptor(ClientProperties.getValue(pooledConfig.getProperties(),
+					CompressionInterceptor.REQUEST_THRESHOLD, CompressionInterceptor.getDefaultRequestThreshold(),
+					Long.class)));
+		if (ClientProperties.getValue(pooledConfig.getProperties(), ResponseCacheFilter.ENABLED,
+				ResponseCacheFilter.isEnabledByDefault(), Boolean.class))
+			pooledConfig.register(new ResponseCacheFilter(ResponseCache.getInstance()));
+		if (RequestMetrics.isEnabled())
+			pooledConfig.register(new MetricsInterceptor());
+		ReplayMode replayMode = ExchangeStore.getMode();
+		if (replayMode != ReplayMode.OFF)
+			pooledConfig.register(new ReplayFilter(replayMode, ExchangeStore.getInstance()));
+		return new PooledClient(ClientBuilder.newClient(pooledConfig), eviction);
+	}
+
+	/**
+	 * Returns the transport named by a configuration, the configured default if
+	 * it names none
+	 *
+	 * @param config - configuration state of a JsonRestClient
+	 * @return Transport - its transport
+	 **/
+	static Transport getTransport(ClientConfig config) {
+		Object transport = config.getProperty(Transport.PROPERTY);
+		return transport instanceof Transport ? (Transport) transport : Transport.getDefault();
+	}
+
+	/**
+	 * Sets the Apache connector on a configuration, backed by a pooling
+	 * connection manager sized from the configuration file
+	 *
+	 * @param pooledConfig - configuration of the Client being built
+	 * @return ScheduledFuture - eviction task of the connection manager
+	 **/
+	private static ScheduledFuture<?> configureApache(ClientConfig pooledConfig) {
+		PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager();
+		manager.setDefaultMaxPerRoute(ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_POOL_MAX_PER_ROUTE, 50));
+		manager.setMaxTotal(ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_POOL_MAX_TOTAL, 200));
+
+		pooledConfig.connectorProvider(new ApacheConnectorProvider());
+		pooledConfig.property(ApacheClientProperties.CONNECTION_MANAGER, manager);
+		// Send a Content-Length rather than chunking, as the default connector did
+		if (pooledConfig.getProperty(ClientProperties.REQUEST_ENTITY_PROCESSING) == null)
+			pooledConfig.property(ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.BUFFERED);
+		pooledConfig.register(new TransportManagedHeaders());
+
+		Log.logInfo(log, "Created pooled client - max connections per route = " + manager.getDefaultMaxPerRoute()
+				+ " / max total = " + manager.getMaxTotal());
+		return startEvictor(manager);
+	}
+
+	/**
+	 * Schedules closing of expired & idle connections for a connection manager
+	 *
+	 * @param manager - connection manager to be evicted periodically
+	 * @return ScheduledFuture - task to cancel once the manager is closed
+	 **/
+	private static synchronized ScheduledFuture<?> startEvictor(final PoolingHttpClientConnectionManager manager) {
+		final long idleTimeout = ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_POOL_IDLE_TIMEOUT_MS, 30000);
+		if (evictor == null) {
+			evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "client-pool-evictor");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		long period = Math.max(1000, idleTimeout / 2);
+		return evictor.scheduleWithFixedDelay(() -> {
+			manager.closeExpiredConnections();
+			manager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Removes a caller supplied Content-Length from requests carrying a body.
+	 * The pooled transport computes it from the entity and rejects duplicates.
+	 * Apache's own Accept-Encoding & decompression are off, CompressionInterceptor
+	 * handles compression on every transport.
+	 **/
+	private static class TransportManagedHeaders implements ApacheHttpClientBuilderConfigurator {
+		@Override
+		public HttpClientBuilder configure(HttpClientBuilder builder) {
+			return builder.disableContentCompression().addInterceptorFirst((HttpRequestInterceptor) (request, context) -> {
+				if (request instanceof HttpEntityEnclosingRequest)
+					request.removeHeaders("Content-Length");
+			});
+		}
+	}
+
+	/**
+	 * A pooled Client and the eviction task of its connection manager, if any
+	 **/
+	private static class PooledClient {
+		private final Client client;
+		private final ScheduledFuture<?> eviction;
+
+		private PooledClient(Client client, ScheduledFuture<?> eviction) {
+			this.client = client;
+			this.eviction = eviction;
+		}
+
+		private void close() {
+			if (eviction != null)
+				eviction.cancel(false);
+			try {
+				client.close();
+			} catch (Exception e) {
+				Log.logWarn(log, "Exception when closing pooled client - " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Value snapshot of a ClientConfig. ClientConfig itself compares by
+	 * identity, which would give every JsonRestClient its own pool. A connector
+	 * provider set on the config is compared as an instance, since two
+	 * providers of one class may be set up differently.
+	 **/
+	private static class ConfigKey {
+		private final Map<String, Object> properties;
+		private final Set<Class<?>> classes;
+		private final Set<Object> instances;
+		private final ConnectorProvider connectorProvider;
+
+		private ConfigKey(ClientConfig config) {
+			properties = new HashMap<String, Object>(config.getProperties());
+			classes = new HashSet<Class<?>>(config.getClasses());
+			instances = new HashSet<Object>(config.getInstances());
+			connectorProvider = config.getConnectorProvider();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof ConfigKey))
+				return false;
+			ConfigKey other = (ConfigKey) obj;
+			return properties.equals(other.properties) && classes.equals(other.classes)
+					&& instances.equals(other.instances)
+					&& (connectorProvider == null ? other.connectorProvider == null
+							: connectorProvider.equals(other.connectorProvider));
+		}
+
+		@Override
+		public int hashCode() {
+			int result = properties.hashCode();
+			result = 31 * result + classes.hashCode();
+			result = 31 * result + instances.hashCode();
+			return 31 * result + (connectorProvider == null ? 0 : connectorProvider.hashCode());
+		}
+	}
+}
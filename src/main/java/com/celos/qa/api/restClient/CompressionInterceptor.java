@@ -0,0 +1,283 @@
+package com.celos.qa.api.restClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.metrics.RequestMetrics;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/******************************************************************************
+ * Compression of the pooled clients' traffic, the same on every transport:
+ *
+ * - requests ask for gzip or deflate responses with Accept-Encoding, unless
+ *   the caller set that header itself
+ * - gzip and deflate response bodies are inflated as they are read, so the
+ *   decoded body streams into the response without the encoded one being
+ *   buffered
+ * - request bodies over the request threshold are gzipped as they are
+ *   written; bodies under it, or with a Content-Encoding set, go as they are
+ *
+ * Bytes on the wire and decoded bytes of both directions are counted in
+ * RequestMetrics.
+ *
+ * Runs after the other writer interceptors, so MetricsInterceptor counts the
+ * request bytes actually sent.
+ *******************************************************************************/
+@Priority(Priorities.USER + 100)
+public class CompressionInterceptor implements ClientRequestFilter, WriterInterceptor, ReaderInterceptor {
+
+	/** ClientConfig property: smallest request body gzipped, 0 or less for none **/
+	public static final String REQUEST_THRESHOLD = CompressionInterceptor.class.getName() + ".requestThreshold";
+
+	/** encodings asked for **/
+	public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final long requestThreshold;
+
+	/**
+	 * Constructor
+	 *
+	 * @param requestThreshold - smallest request body gzipped, 0 or less for none
+	 **/
+	public CompressionInterceptor(long requestThreshold) {
+		this.requestThreshold = requestThreshold;
+	}
+
+	/** True if the pooled clients compress, set by client.compression.enabled **/
+	public static boolean isEnabled() {
+		return ConfigMapping.getConfigPropertyAsBoolean(ConfigMapping.CLIENT_COMPRESSION_ENABLED, true);
+	}
+
+	/** Request threshold set by client.compression.requestThresholdBytes **/
+	public static long getDefaultRequestThreshold() {
+		return ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_COMPRESSION_REQUEST_THRESHOLD_BYTES, 0);
+	}
+
+	@Override
+	public void filter(ClientRequestContext requestContext) {
+		if (!requestContext.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING))
+			requestContext.getHeaders().putSingle(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+	}
+
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+		if (requestThreshold <= 0 || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			context.proceed();
+			return;
+		}
+		ThresholdOutputStream body = new ThresholdOutputStream(context.getOutputStream(), context.getHeaders(),
+				requestThreshold);
+		context.setOutputStream(body);
+		context.proceed();
+		body.finish();
+	}
+
+	@Override
+	public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+		String encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+		if (encoding != null) {
+			encoding = encoding.trim().toLowerCase();
+			if (encoding.equals("gzip") || encoding.equals("x-gzip") || encoding.equals("deflate")) {
+				context.setInputStream(decode(context.getInputStream(), !encoding.equals("deflate")));
+				context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+				context.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+			}
+		}
+		return context.proceed();
+	}
+
+	/**
+	 * Wraps an encoded body in a stream inflating it. An empty body stays
+	 * empty; a deflate body may be zlib wrapped or raw, as servers differ.
+	 *
+	 * @param encoded - body as received
+	 * @param gzip    - true for gzip, false for deflate
+	 * @return InputStream - decoded body
+	 **/
+	static InputStream decode(InputStream encoded, boolean gzip) throws IOException {
+		PushbackInputStream wire = new PushbackInputStream(new CountingInputStream(encoded, true), 2);
+		int first = wire.read();
+		if (first == -1)
+			return wire;
+		int second = wire.read();
+		if (second != -1)
+			wire.unread(second);
+		wire.unread(first);
+		RequestMetrics.recordDecodedResponse();
+		InputStream decoded;
+		if (gzip)
+			decoded = new GZIPInputStream(wire, BUFFER_SIZE);
+		else
+			decoded = new InflaterInputStream(wire, new Inflater(!isZlibHeader(first, second)), BUFFER_SIZE);
+		return new CountingInputStream(decoded, false);
+	}
+
+	/** True if two bytes open a zlib stream: deflate method and a valid check **/
+	private static boolean isZlibHeader(int first, int second) {
+		return second != -1 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+	}
+
+	/**
+	 * Holds back a request body until it is known to be over the threshold,
+	 * then sets Content-Encoding and gzips it from there on
+	 **/
+	private static class ThresholdOutputStream extends OutputStream {
+		private final OutputStream target;
+		private final MultivaluedMap<String, Object> headers;
+		private final long threshold;
+		private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+		private GZIPOutputStream gzip = null;
+		private CountingOutputStream wire = null;
+		private long rawBytes = 0;
+		private boolean finished = false;
+
+		private ThresholdOutputStream(OutputStream target, MultivaluedMap<String, Object> headers, long threshold) {
+			this.target = target;
+			this.headers = headers;
+			this.threshold = threshold;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			rawBytes += len;
+			if (gzip != null) {
+				gzip.write(b, off, len);
+				return;
+			}
+			pending.write(b, off, len);
+			if (pending.size() >= threshold) {
+				// Nothing has reached the target yet, so the headers can still change
+				headers.putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+				headers.remove(HttpHeaders.CONTENT_LENGTH);
+				wire = new CountingOutputStream(target);
+				gzip = new GZIPOutputStream(wire, BUFFER_SIZE);
+				pending.writeTo(gzip);
+				pending = null;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (gzip != null)
+				gzip.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+			target.close();
+		}
+
+		/** Writes what is held back, or completes the gzip stream **/
+		private void finish() throws IOException {
+			if (finished)
+				return;
+			finished = true;
+			if (gzip != null) {
+				gzip.finish();
+				RequestMetrics.recordCompressedRequest(rawBytes, wire.count);
+			} else {
+				pending.writeTo(target);
+			}
+		}
+	}
+
+	/** Counts the bytes written through it **/
+	private static class CountingOutputStream extends FilterOutputStream {
+		private long count = 0;
+
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		@Override
+		public void close() {
+			// the target is closed by ThresholdOutputStream
+		}
+	}
+
+	/** Adds the bytes read through it to the response wire or decoded bytes **/
+	private static class CountingInputStream extends FilterInputStream {
+		private final boolean wire;
+
+		private CountingInputStream(InputStream in, boolean wire) {
+			super(in);
+			this.wire = wire;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b != -1)
+				count(1);
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int count = in.read(b, off, len);
+			if (count > 0)
+				count(count);
+			return count;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(n);
+			if (skipped > 0)
+				count(skipped);
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		private void count(long bytes) {
+			if (wire)
+				RequestMetrics.addResponseWireBytes(bytes);
+			else
+				RequestMetrics.addResponseDecodedBytes(bytes);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.celos.qa.api.restClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+import org.glassfish.jersey.message.internal.Statuses;
+
+import com.celos.qa.api.commonUtils.Log;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Configuration;
+
+/******************************************************************************
+ * Jersey Connector sending requests through java.net.http.HttpClient. One
+ * HttpClient backs each pooled Jersey Client; it negotiates HTTP/2 when
+ * allowed, so concurrent requests to one host are multiplexed over a few
+ * connections instead of each holding a socket, and falls back to HTTP/1.1
+ * for servers that do not speak HTTP/2.
+ *
+ * Headers the HttpClient manages itself (Connection, Content-Length, Expect,
+ * Host, Upgrade) are dropped from requests rather than rejected.
+ *******************************************************************************/
+public final class JdkHttpConnector implements Connector {
+
+	private static Logger log = LogManager.getLogger(JdkHttpConnector.class.getName());
+
+	/** ClientConfig property: false to stay on HTTP/1.1, HTTP/2 is negotiated by default **/
+	public static final String HTTP2 = JdkHttpConnector.class.getName() + ".http2";
+
+	/** request headers the HttpClient refuses to have set **/
+	private static final Set<String> MANAGED_HEADERS = new HashSet<String>(
+			Arrays.asList("connection", "content-length", "expect", "host", "upgrade"));
+
+	private final HttpClient httpClient;
+
+	/**
+	 * Constructor
+	 *
+	 * @param configuration - configuration of the Jersey Client being built
+	 **/
+	public JdkHttpConnector(Configuration configuration) {
+		Map<String, Object> properties = configuration.getProperties();
+		int connectTimeout = ClientProperties.getValue(properties, ClientProperties.CONNECT_TIMEOUT, 0, Integer.class);
+		boolean followRedirects = ClientProperties.getValue(properties, ClientProperties.FOLLOW_REDIRECTS, true,
+				Boolean.class);
+		boolean http2 = ClientProperties.getValue(properties, HTTP2, true, Boolean.class);
+		HttpClient.Builder builder = HttpClient.newBuilder()
+				.version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+				.followRedirects(followRedirects ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER);
+		if (connectTimeout > 0)
+			builder.connectTimeout(Duration.ofMillis(connectTimeout));
+		httpClient = builder.build();
+	}
+
+	@Override
+	public ClientResponse apply(ClientRequest request) {
+		try {
+			return toClientResponse(request, httpClient.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream()));
+		} catch (IOException e) {
+			throw new ProcessingException(e.getMessage(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ProcessingException("Interrupted while waiting for " + request.getUri(), e);
+		}
+	}
+
+	@Override
+	public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+		HttpRequest httpRequest;
+		try {
+			httpRequest = toHttpRequest(request);
+		} catch (ProcessingException e) {
+			callback.failure(e);
+			return CompletableFuture.failedFuture(e);
+		}
+		return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream())
+				.whenComplete((response, failure) -> {
+					if (failure != null)
+						callback.failure(failure instanceof ProcessingException ? failure
+								: new ProcessingException(failure.getMessage(), failure));
+					else
+						callback.response(toClientResponse(request, response));
+				});
+	}
+
+	@Override
+	public String getName() {
+		return "JDK HttpClient " + httpClient.version();
+	}
+
+	@Override
+	public void close() {
+		// HttpClient on Java 11 has no close, its connections go with it
+	}
+
+	/**
+	 * Copies the method, headers, timeout and serialized entity of a Jersey
+	 * request into an HttpRequest
+	 *
+	 * @param request - Jersey request
+	 * @return HttpRequest - equivalent request for the HttpClient
+	 **/
+	private HttpRequest toHttpRequest(ClientRequest request) {
+		HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+		if (request.hasEntity()) {
+			final ByteArrayOutputStream entity = new ByteArrayOutputStream();
+			request.setStreamProvider(contentLength -> entity);
+			try {
+				request.writeEntity();
+			} catch (IOException e) {
+				throw new ProcessingException("Could not serialize the request entity - " + e.getMessage(), e);
+			}
+			body = HttpRequest.BodyPublishers.ofByteArray(entity.toByteArray());
+		}
+		HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri()).method(request.getMethod(), body);
+		int readTimeout = request.resolveProperty(ClientProperties.READ_TIMEOUT, 0);
+		if (readTimeout > 0)
+			builder.timeout(Duration.ofMillis(readTimeout));
+		for (Map.Entry<String, List<String>> header : request.getStringHeaders().entrySet()) {
+			if (MANAGED_HEADERS.contains(header.getKey().toLowerCase())) {
+				Log.logDebug(log, "Header " + header.getKey() + " is managed by the HttpClient, not sent as given");
+				continue;
+			}
+			for (String value : header.getValue()) {
+				builder.header(header.getKey(), value);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Wraps an HttpResponse as a Jersey response, streaming its body
+	 *
+	 * @param request  - Jersey request the response answers
+	 * @param response - response received by the HttpClient
+	 * @return ClientResponse - response for the Jersey runtime
+	 **/
+	private static ClientResponse toClientResponse(ClientRequest request, HttpResponse<InputStream> response) {
+		ClientResponse clientResponse = new ClientResponse(Statuses.from(response.statusCode()), request);
+		for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+			// HTTP/2 pseudo headers such as :status are not headers to Jersey
+			if (!header.getKey().startsWith(":"))
+				clientResponse.getHeaders().addAll(header.getKey(), header.getValue());
+		}
+		clientResponse.setEntityStream(response.body());
+		return clientResponse;
+	}
+
+	/**
+	 * ConnectorProvider for the JdkHttpConnector, set on a ClientConfig with
+	 * connectorProvider(new JdkHttpConnector.Provider())
+	 **/
+	public static final class Provider implements ConnectorProvider {
+		@Override
+		public Connector getConnector(Client client, Configuration runtimeConfig) {
+			return new JdkHttpConnector(runtimeConfig);
+		}
+	}
+}
@@ -4,6 +4,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.commonUtils.TemplateEngine;
 import com.celos.qa.api.commonUtils.TestContainer;
 import com.celos.qa.api.commonUtils.TestCoreUtils;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -21,6 +22,7 @@ public class JsonBody {
     /**
      * Retrieve file and update template values based on session object values.
      * If session is null, the search and replace is skipped and the file is taken as-is.
+     * Template files are read and compiled once, see TemplateEngine.
      *
      * @param session - SessionData object containing values to replace
      * @param filePath - Path to file
@@ -29,9 +31,10 @@ public class JsonBody {
     public static String retrieveTemplateFile(Session session, String filePath) {
     	String payload = null;
     	try {
-    		payload = TestCoreUtils.readResourceFile(filePath);
     		if (session != null)
-    			payload = TestCoreUtils.searchAndReplaceTemplate(session.getSession(), payload);
+    			payload = TemplateEngine.render(filePath, session.getSession());
+    		else
+    			payload = TestCoreUtils.readResourceFile(filePath);
     	} catch (Exception e) {
     		Log.logFatal(log, "Error when attempting to read from file - " + filePath, e);
     	}
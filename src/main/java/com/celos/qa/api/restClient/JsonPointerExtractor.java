@@ -0,0 +1,194 @@
+package com.celos.qa.api.restClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+/******************************************************************************
+ * Extracts the values at a set of JSON pointers from a JSON document while
+ * streaming it, without building the document's tree.
+ *
+ * The pointers are merged into a trie of property names & array indexes.
+ * Members that no pointer goes through are skipped token by token, only the
+ * values a pointer targets are built as JsonNodes, and reading stops as soon
+ * as every pointer has been resolved. Memory use depends on the size of the
+ * extracted values, not on the size of the document.
+ *
+ * Ex: Map<String, JsonNode> values = JsonPointerExtractor.extract(body,
+ * Arrays.asList("/total", "/data/0/id"));
+ *******************************************************************************/
+public final class JsonPointerExtractor {
+
+	private static Logger log = LogManager.getLogger(JsonPointerExtractor.class.getName());
+
+	/** Empty & private to control instantiation **/
+	private JsonPointerExtractor() {
+	}
+
+	/**
+	 * Extracts the values at the given paths from a JSON document
+	 *
+	 * @param body  - JSON document; the stream is read no further than needed
+	 *              and is left open
+	 * @param paths - JSON pointers such as /data/0/id
+	 * @return Map<String, JsonNode> - value of each path in the order given, a
+	 *         MissingNode for paths that were not found
+	 **/
+	public static Map<String, JsonNode> extract(InputStream body, Collection<String> paths) {
+		Map<String, JsonNode> values = new LinkedHashMap<String, JsonNode>();
+		Node root = new Node(0);
+		for (String path : paths) {
+			if (values.put(path, MissingNode.getInstance()) == null)
+				root.add(path, ApiCommonStatus.jsonPointer(path));
+		}
+		if (values.isEmpty())
+			return values;
+		Walk walk = new Walk(values);
+		try (JsonParser parser = TestContainer.mapper.createParser(body)) {
+			parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+			if (parser.nextToken() != null)
+				walk.value(parser, root);
+		} catch (IOException e) {
+			Log.logFatal(log, "Unable to read JSON document while extracting " + paths, e);
+		}
+		return values;
+	}
+
+	/**
+	 * Extracts the values at the given paths from a JSON document
+	 *
+	 * @param body  - JSON document as received
+	 * @param paths - JSON pointers such as /data/0/id
+	 * @return Map<String, JsonNode> - value of each path in the order given, a
+	 *         MissingNode for paths that were not found
+	 **/
+	public static Map<String, JsonNode> extract(byte[] body, Collection<String> paths) {
+		return extract(new ByteArrayInputStream(body), paths);
+	}
+
+	/** Step of the pointer trie: the paths ending here and the steps below **/
+	private static class Node {
+		private final int depth;
+		private final List<String> paths = new ArrayList<String>(1);
+		private final List<JsonPointer> pointers = new ArrayList<JsonPointer>(1);
+		private final Map<String, Node> children = new HashMap<String, Node>();
+		/** number of paths ending at or below this step **/
+		private int pathCount = 0;
+		/** set once visited, so a repeated member name is not walked again **/
+		private boolean visited = false;
+
+		private Node(int depth) {
+			this.depth = depth;
+		}
+
+		private void add(String path, JsonPointer pointer) {
+			Node node = this;
+			JsonPointer rest = pointer;
+			node.pathCount++;
+			while (!rest.matches()) {
+				final int childDepth = node.depth + 1;
+				node = node.children.computeIfAbsent(rest.getMatchingProperty(), k -> new Node(childDepth));
+				node.pathCount++;
+				rest = rest.tail();
+			}
+			node.paths.add(path);
+			node.pointers.add(pointer);
+		}
+
+		/** Adds the paths ending at or below this step, with their pointers **/
+		private void collect(List<String> allPaths, List<JsonPointer> allPointers) {
+			allPaths.addAll(paths);
+			allPointers.addAll(pointers);
+			for (Node child : children.values()) {
+				child.collect(allPaths, allPointers);
+			}
+		}
+	}
+
+	/** State of one extraction **/
+	private static class Walk {
+		private final Map<String, JsonNode> values;
+		private int unresolved;
+
+		private Walk(Map<String, JsonNode> values) {
+			this.values = values;
+			this.unresolved = values.size();
+		}
+
+		/**
+		 * Reads the value the parser is on, whose location is the given trie
+		 * step. Returns with the parser on the last token of the value.
+		 *
+		 * @return boolean - true once every path is resolved and reading can stop
+		 **/
+		private boolean value(JsonParser parser, Node node) throws IOException {
+			JsonToken token = parser.currentToken();
+			node.visited = true;
+			if (!node.paths.isEmpty()) {
+				// A path targets this value: build it, and resolve any paths below it
+				// from the built node rather than from the stream
+				JsonNode tree = parser.readValueAsTree();
+				List<String> allPaths = new ArrayList<String>();
+				List<JsonPointer> allPointers = new ArrayList<JsonPointer>();
+				node.collect(allPaths, allPointers);
+				for (int i = 0; i < allPaths.size(); i++) {
+					JsonPointer relative = allPointers.get(i);
+					for (int d = 0; d < node.depth; d++) {
+						relative = relative.tail();
+					}
+					values.put(allPaths.get(i), tree.at(relative));
+				}
+				unresolved -= allPaths.size();
+				return unresolved == 0;
+			}
+			if (token == JsonToken.START_OBJECT) {
+				int pending = node.pathCount;
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					Node child = pending > 0 ? node.children.get(parser.getCurrentName()) : null;
+					parser.nextToken();
+					if (child == null || child.visited) {
+						parser.skipChildren();
+					} else {
+						if (value(parser, child))
+							return true;
+						pending -= child.pathCount;
+					}
+				}
+			} else if (token == JsonToken.START_ARRAY) {
+				int pending = node.pathCount;
+				int index = 0;
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					Node child = pending > 0 ? node.children.get(String.valueOf(index)) : null;
+					if (child == null) {
+						parser.skipChildren();
+					} else {
+						if (value(parser, child))
+							return true;
+						pending -= child.pathCount;
+					}
+					index++;
+				}
+			} else {
+				parser.skipChildren();
+			}
+			return false;
+		}
+	}
+}
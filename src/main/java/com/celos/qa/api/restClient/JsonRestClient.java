@@ -1,26 +1,32 @@
 package com.celos.qa.api.restClient;
 
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.glassfish.jersey.client.ClientConfig;
 
+import com.celos.qa.api.cache.ResponseCacheFilter;
 import com.celos.qa.api.commonUtils.Log;
 import com.celos.qa.api.commonUtils.TestContainer;
 import com.celos.qa.api.commonUtils.TestCoreUtils;
+import com.celos.qa.api.data.ConfigMapping;
 import com.celos.qa.api.fields.ApiFields;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.MediaType;
@@ -33,16 +39,28 @@ public class JsonRestClient {
 	/** headers for a request **/
 	private Map<String, String> headers = new HashMap<String, String>();
 
-	/** Configuration state for the ClientBuilder **/
+	/** Configuration state for the pooled Client, see ClientPool **/
 	private ClientConfig config = new ClientConfig();
 
 	/** default request media type - application/json **/
 	protected MediaType mediaType = MediaType.APPLICATION_JSON_TYPE;
 
-	/** Allow any type of headers to be added to requests with no restrictions **/
-	static {
-		System.setProperty("sun.net.http.allowRestrictedHeaders", "true");
-	}
+	/** log each request & response, off for load runs **/
+	private boolean logRequests = true;
+
+	/** log each response body, in full up to PREVIEW_BYTES **/
+	private boolean logResponseBody = ConfigMapping.getConfigPropertyAsBoolean(ConfigMapping.CLIENT_LOG_RESPONSE_BODY, true);
+
+	/** most bytes of a response body logged, larger ones are logged as a preview & size **/
+	private static final int PREVIEW_BYTES = ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_LOG_PREVIEW_BYTES,
+			2048);
+
+	/** largest response body kept in memory, larger ones are spilled to a file **/
+	private long spillThresholdBytes = ConfigMapping
+			.getConfigPropertyAsLong(ConfigMapping.CLIENT_BODY_SPILL_THRESHOLD_BYTES, 16777216L);
+
+	/** executor for asynchronous requests, null to use the shared default **/
+	private AsyncRequestExecutor asyncExecutor = null;
 
 	/**
 	 * Builds a request object, based on the URL, query parameters and request
@@ -54,8 +72,9 @@ public class JsonRestClient {
 	 * @return Invocation.Builder - the built request
 	 **/
 	public final Invocation.Builder buildRequest(String domain, String resource, JsonNode queryParams) {
-		Log.logInfo(log, ">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>");
-		Client client = ClientBuilder.newClient(config);
+		if (logRequests)
+			Log.logInfo(log, ">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>");
+		Client client = ClientPool.getClient(config);
 		// Set URL
 		WebTarget target = client.target(domain).path(resource);
 		// Add query parameters
@@ -71,63 +90,139 @@ public class JsonRestClient {
 		for (Map.Entry<String, String> header : getHeaders().entrySet()) {
 			builder.header(header.getKey(), header.getValue());
 		}
-		if (!headers.isEmpty())
+		if (logRequests && log.isInfoEnabled() && !headers.isEmpty())
 			Log.logInfo(log, "Request Headers: " + headersToString());
 		return builder;
 	}
 
+	/**
+	 * Builds a request object from a RequestSpec. Unlike buildRequest(String,
+	 * String, JsonNode), the headers set on this client are not used, so one
+	 * client can build requests for any number of threads at once.
+	 *
+	 * @param spec     - headers & query parameters of the request
+	 * @param domain   - host:port of request
+	 * @param resource - the entire URL, except for the host:port
+	 * @return Invocation.Builder - the built request
+	 **/
+	public final Invocation.Builder buildRequest(RequestSpec spec, String domain, String resource) {
+		if (logRequests)
+			Log.logInfo(log, ">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>");
+		Client client = ClientPool.getClient(config);
+		WebTarget target = client.target(domain).path(resource);
+		for (int i = 0; i < spec.getQueryParamCount(); i++) {
+			target = target.queryParam(spec.getQueryParamName(i), spec.getQueryParamValue(i));
+		}
+		Invocation.Builder builder = target.request();
+		for (int i = 0; i < spec.getHeaderCount(); i++) {
+			builder.header(spec.getHeaderName(i), spec.getHeaderValue(i));
+		}
+		if (logRequests && log.isInfoEnabled() && spec.getHeaderCount() > 0)
+			Log.logInfo(log, "Request Headers: " + spec.headersToString());
+		return builder;
+	}
+
+	/**
+	 * Sends a request described by a RequestSpec, with its body if any, and
+	 * formats the response. Safe to call from several threads on one client.
+	 *
+	 * @param method   - HTTP method
+	 * @param spec     - headers, query parameters & body of the request
+	 * @param domain   - host:port of request
+	 * @param resource - the entire URL, except for the host:port
+	 * @return ApiResponse - map containing the response body, status & headers
+	 **/
+	public final ApiResponse invoke(String method, RequestSpec spec, String domain, String resource) {
+		Invocation.Builder builder = buildRequest(spec, domain, resource);
+		if (spec.getEntity() == null)
+			return formatResponse(builder.method(method));
+		if (logRequests && spec.getBody() instanceof String)
+			logRequestBody((String) spec.getBody());
+		return formatResponse(builder.method(method, spec.getEntity()));
+	}
+
 	/**
 	 * Takes in a Response object retrieved from a request. The response body,
 	 * status block & headers are extracted from the response object. The return
-	 * value is constructed as a map modeling the following: { "responseBody" :
-	 * {...}, "status" : {"code":404,"reason":"Not Found"}, "headers" : {...} }
+	 * value is an ApiResponse, which is also a map modeling the following: {
+	 * "responseBody" : {...}, "status" : {"code":404,"reason":"Not Found"},
+	 * "headers" : {...} }. Each part is converted to JSON only when first read.
 	 *
 	 * @param response - Response object retrieved from a request made
-	 * @return Map<String, JsonNode> - map containing the response body, status &
-	 *         headers
+	 * @return ApiResponse - map containing the response body, status & headers
 	 **/
-	public final Map<String, JsonNode> formatResponse(Response response) {
-		Map<String, JsonNode> formattedResponse = new HashMap<String, JsonNode>();
+	public final ApiResponse formatResponse(Response response) {
+		ApiResponse formattedResponse = ApiResponse.empty();
 		try {
-			// Print request
-			String requestLog = TestCoreUtils.parseLine(response.toString(), ".*context=ClientResponse(.*)");
-			Log.logInfo(log, "Request Executed: " + requestLog.substring(0, requestLog.length() - 1));
-			// Add status block to map
-			ObjectNode status = TestContainer.mapper.createObjectNode();
-			status.put(ApiFields.RESPONSE_FIELD_CODE.field(), response.getStatusInfo().getStatusCode());
-			status.put(ApiFields.RESPONSE_FIELD_REASON.field(), response.getStatusInfo().getReasonPhrase());
-			formattedResponse.put(ApiFields.RESPONSE_FIELD_STATUS.field(), status);
-			// Add headers to map
-			formattedResponse.put(ApiFields.RESPONSE_FIELD_HEADERS.field(), convertResponseHeadersToJson(response));
-			Log.logInfo(log, "Response Headers: " + response.getStringHeaders().toString());
+			// Print request, only parsed & formatted when INFO is on
+			if (logRequests && log.isInfoEnabled()) {
+				String requestLog = TestCoreUtils.parseLine(response.toString(), ".*context=ClientResponse(.*)");
+				Log.logInfo(log, "Request Executed: " + requestLog.substring(0, requestLog.length() - 1));
+				Log.logInfo(log, "Response Headers: " + response.getStringHeaders().toString());
+			}
 			// Check response body
-			if (response.hasEntity()) {
-				try {
-					// Read response body and store value as a JsonNode
-					String entity = response.readEntity(String.class);
-					if (entity.startsWith("[") || entity.startsWith("{")) {
-						formattedResponse.put(ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field(),
-								TestContainer.mapper.readTree(entity));
-					} else {
-						ObjectNode temp = TestContainer.mapper.createObjectNode();
-						temp.put("responseBodyNonJson", entity);
-						formattedResponse.put(ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field(), temp);
-					}
-					Log.logInfo(log, "Response Body: " + entity.toString());
-				} catch (Exception e) {
-					formattedResponse.put(ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field(), null);
-					Log.logInfo(log, "Entity could not map to a String, returning null");
-				}
+			Charset charset = StandardCharsets.UTF_8;
+			if (response.hasEntity() && response.getMediaType() != null
+					&& response.getMediaType().getParameters().containsKey(MediaType.CHARSET_PARAMETER))
+				charset = Charset.forName(response.getMediaType().getParameters().get(MediaType.CHARSET_PARAMETER));
+			try {
+				// Keep the raw response body, it is parsed when first read. Bodies over
+				// the spill threshold go to a temporary file rather than the heap
+				InputStream entity = response.hasEntity() ? response.readEntity(InputStream.class) : null;
+				formattedResponse = ApiResponse.read(response.getStatusInfo().getStatusCode(),
+						response.getStatusInfo().getReasonPhrase(), response.getStringHeaders(), entity, charset,
+						spillThresholdBytes, spillDir());
+			} catch (Exception e) {
+				Log.logWarn(log, "Response body could not be read, returning the status & headers only - " + e);
+				formattedResponse = new ApiResponse(response.getStatusInfo().getStatusCode(),
+						response.getStatusInfo().getReasonPhrase(), response.getStringHeaders(), (byte[]) null, charset);
+			}
+			// The body is only decoded for the log when INFO is on
+			if (logRequests && logResponseBody && log.isInfoEnabled() && formattedResponse.hasBody()) {
+				if (formattedResponse.getBodyLength() > PREVIEW_BYTES)
+					Log.logInfo(log, "Response Body (" + formattedResponse.getBodyLength() + " bytes"
+							+ (formattedResponse.isSpilled() ? ", spilled to " + formattedResponse.getBodyFile() : "")
+							+ "): " + formattedResponse.getBodyPreview(PREVIEW_BYTES) + "...");
+				else
+					Log.logInfo(log, "Response Body: " + formattedResponse.getBodyAsString());
 			}
 		} catch (Exception e) {
 			Log.logFatal(log, "Exception when attempting to read the response values", e);
 		} finally {
 			response.close();
 		}
-		Log.logInfo(log, "<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<");
+		if (logRequests)
+			Log.logInfo(log, "<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<");
 		return formattedResponse;
 	}
 
+	/**
+	 * Asynchronous sibling of formatResponse. The request supplied is invoked on
+	 * the async executor, bounded by its in-flight limit, and its Response is
+	 * formatted on the same thread. Build the request with buildRequest() on the
+	 * calling thread first, since the headers map is not thread-safe.
+	 *
+	 * Ex: Invocation.Builder builder = buildRequest(domain, resource, null);
+	 * return formatResponseAsync(() -> builder.get());
+	 *
+	 * @param request - invokes the built request and returns its Response
+	 * @return CompletableFuture<Map<String, JsonNode>> - completes with the
+	 *         same map formatResponse returns
+	 **/
+	public final CompletableFuture<Map<String, JsonNode>> formatResponseAsync(Supplier<Response> request) {
+		return getAsyncExecutor().<Map<String, JsonNode>>submit(() -> formatResponse(request.get()));
+	}
+
+	/**
+	 * Directory of spilled response bodies, from client.body.spillDir
+	 *
+	 * @return File - the directory, null for the system temporary directory
+	 **/
+	private static File spillDir() {
+		String dir = ConfigMapping.getConfigProperty(ConfigMapping.CLIENT_BODY_SPILL_DIR);
+		return dir == null || dir.trim().isEmpty() ? null : new File(dir.trim());
+	}
+
 	/**
 	 * Returns a String representation of the currently set headers
 	 *
@@ -149,15 +244,7 @@ public class JsonRestClient {
 	 *         JSON object
 	 **/
 	public final ObjectNode convertResponseHeadersToJson(Response response) {
-		ObjectNode responseHeaders = TestContainer.mapper.createObjectNode();
-		for (Map.Entry<String, List<Object>> header : response.getHeaders().entrySet()) {
-			ArrayNode array = TestContainer.mapper.createArrayNode();
-			for (Object entry : header.getValue()) {
-				array.add(entry.toString());
-			}
-			responseHeaders.set(header.getKey(), array);
-		}
-		return responseHeaders;
+		return ApiResponse.headersToJson(response.getHeaders());
 	}
 
 	/**
@@ -263,6 +350,115 @@ public class JsonRestClient {
 		mediaType = type;
 	}
 
+	/**
+	 * Setter: logRequests. With logging off, requests & responses are neither
+	 * logged nor kept in the TestNG report, as in load runs where the lines of
+	 * thousands of calls would only fill the heap. Failures are still logged.
+	 *
+	 * @param enabled - true to log each request & response
+	 **/
+	public void setLogRequests(boolean enabled) {
+		logRequests = enabled;
+	}
+
+	/**
+	 * Setter: logResponseBody. With logging off, or the INFO level disabled,
+	 * response bodies are never decoded into a String unless a test asks for
+	 * one.
+	 *
+	 * @param enabled - true to log each response body, or a preview of large ones
+	 **/
+	public void setLogResponseBody(boolean enabled) {
+		logResponseBody = enabled;
+	}
+
+	/**
+	 * Setter: spillThresholdBytes
+	 *
+	 * @param bytes - largest response body kept in memory, 0 or less to keep
+	 *              every body in memory
+	 **/
+	public void setSpillThresholdBytes(long bytes) {
+		spillThresholdBytes = bytes;
+	}
+
+	/**
+	 * Returns the executor used by formatResponseAsync
+	 *
+	 * @return AsyncRequestExecutor - the executor set, or the shared default
+	 **/
+	public AsyncRequestExecutor getAsyncExecutor() {
+		return asyncExecutor == null ? AsyncRequestExecutor.getDefault() : asyncExecutor;
+	}
+
+	/**
+	 * Setter: asyncExecutor
+	 *
+	 * @param executor - executor for asynchronous requests, null for the shared
+	 *                 default
+	 **/
+	public void setAsyncExecutor(AsyncRequestExecutor executor) {
+		asyncExecutor = executor;
+	}
+
+	/**
+	 * Set the HTTP engine of this client's requests. Clients on different
+	 * transports never share pooled connections.
+	 *
+	 * @param transport - engine to use, see Transport
+	 **/
+	public void setTransport(Transport transport) {
+		config.property(Transport.PROPERTY, transport);
+	}
+
+	/**
+	 * Get the HTTP engine of this client's requests
+	 *
+	 * @return Transport - engine set on this client, else the configured default
+	 **/
+	public Transport getTransport() {
+		return ClientPool.getTransport(config);
+	}
+
+	/**
+	 * Set whether idempotent requests still unanswered after the hedge delay
+	 * are duplicated, the first answer being used. See ResilientConnector.
+	 *
+	 * @param enabled - true to hedge slow requests
+	 **/
+	public void setHedging(boolean enabled) {
+		config.property(ResilientConnector.HEDGE, enabled);
+	}
+
+	/**
+	 * Set how many times a failed idempotent request is sent again, within the
+	 * run-wide RetryBudget. See ResilientConnector.
+	 *
+	 * @param maxRetries - retries after the first attempt, 0 for none
+	 **/
+	public void setMaxRetries(int maxRetries) {
+		config.property(ResilientConnector.MAX_RETRIES, maxRetries);
+	}
+
+	/**
+	 * Set the smallest request body sent gzipped. See CompressionInterceptor.
+	 *
+	 * @param bytes - body size from which requests are compressed, 0 for none
+	 **/
+	public void setRequestCompressionThreshold(long bytes) {
+		config.property(CompressionInterceptor.REQUEST_THRESHOLD, bytes);
+	}
+
+	/**
+	 * Set whether GET responses of this client are served from, and stored in,
+	 * the run-wide response cache. See ResponseCacheFilter.
+	 *
+	 * @param enabled - true to cache GET responses
+	 **/
+	public void setResponseCache(boolean enabled) {
+		config.property(ResponseCacheFilter.ENABLED, enabled);
+	}
+
 	/**
 	 * Set a configuration property for the ClientBuilder
 	 *
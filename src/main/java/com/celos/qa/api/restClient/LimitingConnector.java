@@ -0,0 +1,198 @@
+package com.celos.qa.api.restClient;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Cleaner;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+import com.celos.qa.api.data.ConfigMapping;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Configuration;
+
+/******************************************************************************
+ * Connector decorator holding every request to the AdaptiveLimiter of its
+ * host: a request waits for a slot, up to client.limiter.maxWaitMs, and its
+ * outcome - latency, 429/503 status or failure - adapts the host's limit.
+ *
+ * A response with a body holds its slot until the body is read to the end or
+ * closed, so the latency fed to the limiter covers the whole exchange. The
+ * limit and latency are tracked per host:port, shared by every client and
+ * every path of the host, so one slow endpoint lowers the limit of the others.
+ * Callers must close the responses they do not read: the slot of a response
+ * dropped unclosed is only given back once the response is garbage collected.
+ *
+ * It sits directly above the transport, so each retry or hedged duplicate of
+ * a ResilientConnector takes a slot of its own and backoff sleeps hold none.
+ * Asynchronous Jersey invocations are passed through.
+ *******************************************************************************/
+public final class LimitingConnector implements Connector {
+
+	private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS
+			.toNanos(ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_LIMITER_MAX_WAIT_MS, 30000));
+
+	/** gives back the slots of response bodies dropped without being closed **/
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private final Connector delegate;
+
+	/**
+	 * Constructor
+	 *
+	 * @param delegate - connector of the transport sending the requests
+	 **/
+	public LimitingConnector(Connector delegate) {
+		this.delegate = delegate;
+	}
+
+	/** True if requests of the pooled clients are limited, set by client.limiter.enabled **/
+	public static boolean isEnabled() {
+		return ConfigMapping.getConfigPropertyAsBoolean(ConfigMapping.CLIENT_LIMITER_ENABLED, true);
+	}
+
+	@Override
+	public ClientResponse apply(ClientRequest request) {
+		AdaptiveLimiter limiter = AdaptiveLimiter.forHost(request.getUri().getHost() + ':' + request.getUri().getPort());
+		try {
+			if (!limiter.acquire(MAX_WAIT_NANOS))
+				throw new ProcessingException("No request slot for " + limiter.getHost() + " within "
+						+ TimeUnit.NANOSECONDS.toMillis(MAX_WAIT_NANOS) + " ms, concurrency limit is "
+						+ limiter.getLimit());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ProcessingException("Interrupted while waiting for a request slot for " + limiter.getHost(), e);
+		}
+		long start = System.nanoTime();
+		ClientResponse response;
+		try {
+			response = delegate.apply(request);
+		} catch (RuntimeException e) {
+			limiter.release(System.nanoTime() - start, true);
+			throw e;
+		}
+		int status = response.getStatus();
+		boolean dropped = status == 429 || status == 503;
+		boolean hasEntity;
+		try {
+			hasEntity = response.hasEntity();
+		} catch (RuntimeException e) {
+			hasEntity = false;
+		}
+		if (hasEntity)
+			response.setEntityStream(new ReleasingInputStream(response.getEntityStream(), limiter, start, dropped));
+		else
+			limiter.release(System.nanoTime() - start, dropped);
+		return response;
+	}
+
+	@Override
+	public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+		return delegate.apply(request, callback);
+	}
+
+	@Override
+	public String getName() {
+		return delegate.getName();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	/**
+	 * Body of a response, giving back its request slot once read to the end or
+	 * closed, whichever comes first, or as a backstop once garbage collected
+	 **/
+	private static class ReleasingInputStream extends FilterInputStream {
+		private final Slot slot;
+		private final Cleaner.Cleanable cleanable;
+
+		private ReleasingInputStream(InputStream in, AdaptiveLimiter limiter, long start, boolean dropped) {
+			super(in);
+			slot = new Slot(limiter, start, dropped);
+			cleanable = CLEANER.register(this, slot);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = in.read();
+			if (read < 0)
+				release();
+			return read;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = in.read(buffer, offset, length);
+			if (read < 0)
+				release();
+			return read;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				in.close();
+			} finally {
+				release();
+			}
+		}
+
+		private void release() {
+			slot.closed = true;
+			// Runs the slot's release once, whether from here or from the cleaner
+			cleanable.clean();
+		}
+	}
+
+	/**
+	 * Request slot held by a response body; kept apart from the body so the
+	 * cleaner does not keep the body reachable
+	 **/
+	private static class Slot implements Runnable {
+		private final AdaptiveLimiter limiter;
+		private final long start;
+		private final boolean dropped;
+		private volatile boolean closed = false;
+
+		private Slot(AdaptiveLimiter limiter, long start, boolean dropped) {
+			this.limiter = limiter;
+			this.start = start;
+			this.dropped = dropped;
+		}
+
+		@Override
+		public void run() {
+			if (closed)
+				limiter.release(System.nanoTime() - start, dropped);
+			else
+				limiter.abandon();
+		}
+	}
+
+	/**
+	 * ConnectorProvider decorating the connector of another provider
+	 **/
+	public static final class Provider implements ConnectorProvider {
+		private final ConnectorProvider delegate;
+
+		public Provider(ConnectorProvider delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Connector getConnector(Client client, Configuration runtimeConfig) {
+			return new LimitingConnector(delegate.getConnector(client, runtimeConfig));
+		}
+	}
+}
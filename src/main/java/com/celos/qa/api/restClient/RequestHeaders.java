@@ -4,7 +4,7 @@ package com.celos.qa.api.restClient;
 /********************************************************************************
  * This is a Container class for all request headers. Pass a method in this class
  * an instance of JsonRestClient and the header will be added to the headers map
- * of that object.
+ * of that object, or a RequestSpec.Builder to add it to the spec being built.
  * 
  * @author subramanyamkongani
  * @since Mar 12, 2023
@@ -139,4 +139,164 @@ public class RequestHeaders {
     	client.getHeaders().put("Content-Length", contentLength);
     }
 
+    /**
+     * Adds key/value pair entry to client.headers:
+     *  Accept-Encoding : gzip, deflate
+     */
+    public static void addHeaderAcceptEncodingGzip(JsonRestClient client) {
+    	client.getHeaders().put("Accept-Encoding", CompressionInterceptor.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Adds key/value pair entry to client.headers, asking for an uncompressed response:
+     *  Accept-Encoding : identity
+     */
+    public static void addHeaderAcceptEncodingIdentity(JsonRestClient client) {
+    	client.getHeaders().put("Accept-Encoding", "identity");
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Content-Type : application/json, or the builder's media type
+     */
+    public static RequestSpec.Builder addHeaderContentTypeApplicationJson(RequestSpec.Builder builder) {
+    	return builder.header("Content-Type", builder.getMediaType().toString());
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Authorization : BEARER {token}
+     */
+    public static RequestSpec.Builder addHeaderAuthorizationBearer(RequestSpec.Builder builder, String token) {
+    	return builder.header("Authorization", "BEARER " + token);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Authorization : APIKEY {token}
+     */
+    public static RequestSpec.Builder addHeaderAuthorizationApiKey(RequestSpec.Builder builder, String token) {
+    	return builder.header("Authorization", "APIKEY " + token);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  x-authorization-gc : APIKEY {token}
+     */
+    public static RequestSpec.Builder addHeaderXAuthorizationGcApiKey(RequestSpec.Builder builder, String token) {
+    	return builder.header("x-authorization-gc", "APIKEY " + token);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Accept-Language : {lang}
+     */
+    public static RequestSpec.Builder addHeaderAcceptLanguage(RequestSpec.Builder builder, String lang) {
+    	return builder.header("Accept-Language", lang);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Connection : keep-alive
+     */
+    public static RequestSpec.Builder addHeaderConnectionKeepAlive(RequestSpec.Builder builder) {
+    	return builder.header("Connection", "keep-alive");
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Content-Type : application/x-www-form-urlencoded
+     */
+    public static RequestSpec.Builder addHeaderContentTypeApplicationXwwwFormUrlEncoded(RequestSpec.Builder builder) {
+    	return builder.header("Content-Type", "application/x-www-form-urlencoded");
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  X-Conversation-Id : {conversation-Id}
+     */
+    public static RequestSpec.Builder addHeaderXConversationId(RequestSpec.Builder builder, String conversationId) {
+    	return builder.header("X-Conversation-Id", conversationId);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Accept : application/json
+     */
+    public static RequestSpec.Builder addHeaderAcceptApplicationJson(RequestSpec.Builder builder) {
+    	return builder.header("Accept", "application/json");
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Accept : X-Entitlements
+     */
+    public static RequestSpec.Builder addHeaderXEntitlementsTrue(RequestSpec.Builder builder) {
+    	return builder.header("X-Entitlements", "true");
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Accept : source-appl-id
+     */
+    public static RequestSpec.Builder addHeaderSourceApplId(RequestSpec.Builder builder, String sourceApplId) {
+    	return builder.header("source-appl-id", sourceApplId);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  X-Disney-Internal-Site : site - i.e. wdw/dlr
+     */
+    public static RequestSpec.Builder addHeaderXDisneyInternalSite(RequestSpec.Builder builder, String site) {
+    	return builder.header("X-Disney-Internal-Site", site);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  X-Guest-ID : {guestId}
+     */
+    public static RequestSpec.Builder addHeaderXGuestId(RequestSpec.Builder builder, String guestId) {
+    	return builder.header("X-Guest-ID", guestId);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  messageId : {messageId}
+     */
+    public static RequestSpec.Builder addHeadermessageId(RequestSpec.Builder builder, String messageId) {
+    	return builder.header("messageId", messageId);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Cache-Control : {cacheControl}
+     */
+    public static RequestSpec.Builder addHeaderCacheControl(RequestSpec.Builder builder, String cacheControl) {
+    	return builder.header("Cache-Control", cacheControl);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Content-Length : {contentLength}
+     */
+    public static RequestSpec.Builder addHeaderContentLength(RequestSpec.Builder builder, String contentLength) {
+    	return builder.header("Content-Length", contentLength);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder:
+     *  Accept-Encoding : gzip, deflate
+     */
+    public static RequestSpec.Builder addHeaderAcceptEncodingGzip(RequestSpec.Builder builder) {
+    	return builder.header("Accept-Encoding", CompressionInterceptor.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Adds key/value pair entry to a RequestSpec builder, asking for an uncompressed response:
+     *  Accept-Encoding : identity
+     */
+    public static RequestSpec.Builder addHeaderAcceptEncodingIdentity(RequestSpec.Builder builder) {
+    	return builder.header("Accept-Encoding", "identity");
+    }
+
 }
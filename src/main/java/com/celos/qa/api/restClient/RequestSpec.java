@@ -0,0 +1,265 @@
+package com.celos.qa.api.restClient;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.MediaType;
+
+/******************************************************************************
+ * Immutable description of a request: headers, query parameters, media type
+ * and body. A spec holds no reference to a JsonRestClient, so one spec and one
+ * client can be shared by every thread of a parallel run, each deriving its
+ * own variant with per-request overrides.
+ *
+ * Headers and query parameters are kept as arrays built once, and the body
+ * Entity is created once, so applying a spec to a request copies nothing.
+ *
+ * Ex: RequestSpec base = RequestSpec.builder().header("Accept",
+ * "application/json").build();
+ * RequestSpec request = base.withHeader("X-Conversation-Id", id);
+ * ApiResponse response = client.invoke("GET", request, domain, "/api/users");
+ *******************************************************************************/
+public final class RequestSpec {
+
+	private static final String[] NONE = new String[0];
+
+	/** spec with no headers, query parameters or body **/
+	public static final RequestSpec EMPTY = builder().build();
+
+	private final String[] headerNames;
+	private final String[] headerValues;
+	private final String[] queryNames;
+	private final String[] queryValues;
+	private final MediaType mediaType;
+	private final Object body;
+	private final Entity<?> entity;
+	private final String headersAsString;
+
+	private RequestSpec(Builder builder) {
+		headerNames = builder.headers.keySet().toArray(NONE);
+		headerValues = builder.headers.values().toArray(NONE);
+		queryNames = builder.queryParams.keySet().toArray(NONE);
+		queryValues = builder.queryParams.values().toArray(NONE);
+		mediaType = builder.mediaType;
+		body = builder.body;
+		entity = body == null ? null : Entity.entity(body instanceof JsonNode ? body.toString() : body, mediaType);
+		StringBuilder headers = new StringBuilder("{");
+		for (int i = 0; i < headerNames.length; i++) {
+			headers.append(i == 0 ? "" : ", ").append(headerNames[i]).append('=').append(headerValues[i]);
+		}
+		headersAsString = headers.append('}').toString();
+	}
+
+	/**
+	 * Starts a new spec, with application/json as media type
+	 *
+	 * @return Builder - empty builder
+	 **/
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Starts a builder holding the values of this spec, to derive a new spec
+	 * with overrides; this spec is left unchanged
+	 *
+	 * @return Builder - builder holding this spec's values
+	 **/
+	public Builder with() {
+		Builder builder = new Builder();
+		for (int i = 0; i < headerNames.length; i++) {
+			builder.headers.put(headerNames[i], headerValues[i]);
+		}
+		for (int i = 0; i < queryNames.length; i++) {
+			builder.queryParams.put(queryNames[i], queryValues[i]);
+		}
+		builder.mediaType = mediaType;
+		builder.body = body;
+		return builder;
+	}
+
+	/**
+	 * Derives a spec with one header added or replaced
+	 *
+	 * @param name  - header name
+	 * @param value - header value
+	 * @return RequestSpec - new spec
+	 **/
+	public RequestSpec withHeader(String name, String value) {
+		return with().header(name, value).build();
+	}
+
+	/**
+	 * Derives a spec with one query parameter added or replaced
+	 *
+	 * @param name  - parameter name
+	 * @param value - parameter value
+	 * @return RequestSpec - new spec
+	 **/
+	public RequestSpec withQueryParam(String name, String value) {
+		return with().queryParam(name, value).build();
+	}
+
+	/**
+	 * Derives a spec with another body
+	 *
+	 * @param body - String, JsonNode, byte[] or object to serialize
+	 * @return RequestSpec - new spec
+	 **/
+	public RequestSpec withBody(Object body) {
+		return with().body(body).build();
+	}
+
+	/********************
+	 * Accessor Methods *
+	 ********************/
+
+	/** Number of headers **/
+	public int getHeaderCount() {
+		return headerNames.length;
+	}
+
+	public String getHeaderName(int index) {
+		return headerNames[index];
+	}
+
+	public String getHeaderValue(int index) {
+		return headerValues[index];
+	}
+
+	/**
+	 * Returns the value of a header
+	 *
+	 * @param name - header name
+	 * @return String - its value, null if not set
+	 **/
+	public String getHeader(String name) {
+		for (int i = 0; i < headerNames.length; i++) {
+			if (headerNames[i].equals(name))
+				return headerValues[i];
+		}
+		return null;
+	}
+
+	/** Number of query parameters **/
+	public int getQueryParamCount() {
+		return queryNames.length;
+	}
+
+	public String getQueryParamName(int index) {
+		return queryNames[index];
+	}
+
+	public String getQueryParamValue(int index) {
+		return queryValues[index];
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/** Request body as given, null if none **/
+	public Object getBody() {
+		return body;
+	}
+
+	/** Request body as an Entity of the spec's media type, null if none **/
+	public Entity<?> getEntity() {
+		return entity;
+	}
+
+	/** Headers formatted in a single line, as JsonRestClient.headersToString **/
+	public String headersToString() {
+		return headersAsString;
+	}
+
+	@Override
+	public String toString() {
+		return "RequestSpec [headers=" + headersAsString + ", queryParams=" + Arrays.toString(queryNames)
+				+ ", mediaType=" + mediaType + ", body=" + (body == null ? "none" : body.getClass().getSimpleName())
+				+ "]";
+	}
+
+	/**
+	 * Mutable builder of a RequestSpec; not to be shared between threads. Later
+	 * values replace earlier ones of the same name.
+	 **/
+	public static final class Builder {
+		private final Map<String, String> headers = new LinkedHashMap<String, String>();
+		private final Map<String, String> queryParams = new LinkedHashMap<String, String>();
+		private MediaType mediaType = MediaType.APPLICATION_JSON_TYPE;
+		private Object body = null;
+
+		private Builder() {
+		}
+
+		/** Adds or replaces a header; a null value removes it **/
+		public Builder header(String name, String value) {
+			if (value == null)
+				headers.remove(name);
+			else
+				headers.put(name, value);
+			return this;
+		}
+
+		/** Adds or replaces several headers **/
+		public Builder headers(Map<String, String> values) {
+			for (Map.Entry<String, String> header : values.entrySet()) {
+				header(header.getKey(), header.getValue());
+			}
+			return this;
+		}
+
+		/** Adds or replaces a query parameter; a null value removes it **/
+		public Builder queryParam(String name, String value) {
+			if (value == null)
+				queryParams.remove(name);
+			else
+				queryParams.put(name, value);
+			return this;
+		}
+
+		/** Adds or replaces the query parameters of a JSON object, as buildRequest does **/
+		public Builder queryParams(JsonNode values) {
+			if (values != null) {
+				Iterator<Map.Entry<String, JsonNode>> fields = values.fields();
+				while (fields.hasNext()) {
+					Map.Entry<String, JsonNode> field = fields.next();
+					queryParam(field.getKey(), field.getValue().asText());
+				}
+			}
+			return this;
+		}
+
+		/** Media type of the body, application/json by default **/
+		public Builder mediaType(MediaType type) {
+			mediaType = type;
+			return this;
+		}
+
+		/** Media type of the body **/
+		public MediaType getMediaType() {
+			return mediaType;
+		}
+
+		/** Request body: String, JsonNode, byte[] or object to serialize; null for none **/
+		public Builder body(Object value) {
+			body = value;
+			return this;
+		}
+
+		/**
+		 * Builds the immutable spec; the builder can keep being used
+		 *
+		 * @return RequestSpec - the spec
+		 **/
+		public RequestSpec build() {
+			return new RequestSpec(this);
+		}
+	}
+}
@@ -0,0 +1,382 @@
+package com.celos.qa.api.restClient;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.metrics.RequestMetrics;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Configuration;
+
+/******************************************************************************
+ * Connector decorator adding retries and hedged requests to any transport.
+ * Only idempotent requests without a body are retried or hedged; every other
+ * request goes straight to the decorated connector.
+ *
+ * Retries   - a request failing without a response, or answered with one of
+ *             client.retry.statuses, is sent again up to maxRetries times,
+ *             after an exponential backoff with jitter
+ * Hedging   - when a request is still unanswered after the hedge delay, a
+ *             duplicate is sent and whichever answers first is used, the
+ *             other being closed. The delay is the client.hedge.percentile
+ *             latency of earlier requests of the same method and host.
+ *             Attempts run on at most client.hedge.maxThreads threads; when
+ *             all are busy, requests are sent unhedged on the caller's thread.
+ *
+ * Retries and hedges are both drawn from the run-wide RetryBudget and counted
+ * in RequestMetrics. Asynchronous Jersey invocations are passed through.
+ *******************************************************************************/
+public final class ResilientConnector implements Connector {
+
+	private static Logger log = LogManager.getLogger(ResilientConnector.class.getName());
+
+	/** ClientConfig or request property: true to hedge slow requests **/
+	public static final String HEDGE = ResilientConnector.class.getName() + ".hedge";
+
+	/** ClientConfig or request property: retries after a failed attempt, 0 for none **/
+	public static final String MAX_RETRIES = ResilientConnector.class.getName() + ".maxRetries";
+
+	private static final Set<String> IDEMPOTENT_METHODS = new HashSet<String>(
+			Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE"));
+
+	/** latencies recorded before the percentile replaces the configured hedge delay **/
+	private static final int MIN_SAMPLES = 20;
+
+	/** samples between two refreshes of the hedge delay **/
+	private static final int REFRESH_SAMPLES = 16;
+
+	private static final Set<Integer> RETRY_STATUSES = parseStatuses(
+			ConfigMapping.getConfigProperty(ConfigMapping.CLIENT_RETRY_STATUSES));
+	private static final long BASE_DELAY_MS = ConfigMapping
+			.getConfigPropertyAsLong(ConfigMapping.CLIENT_RETRY_BASE_DELAY_MS, 100);
+	private static final long MAX_DELAY_MS = ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_RETRY_MAX_DELAY_MS,
+			2000);
+	private static final double HEDGE_PERCENTILE = ConfigMapping
+			.getConfigPropertyAsDouble(ConfigMapping.CLIENT_HEDGE_PERCENTILE, 95);
+	private static final long HEDGE_DELAY_NANOS = TimeUnit.MILLISECONDS
+			.toNanos(ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_HEDGE_DELAY_MS, 250));
+	private static final long HEDGE_MIN_DELAY_NANOS = TimeUnit.MILLISECONDS
+			.toNanos(ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_HEDGE_MIN_DELAY_MS, 10));
+
+	/** threads sending the attempts of hedged requests; rejects attempts once all are busy **/
+	private static final ExecutorService HEDGE_EXECUTOR = new ThreadPoolExecutor(0,
+			Math.max(2, ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_HEDGE_MAX_THREADS, 64)), 60,
+			TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new DaemonThreadFactory());
+
+	private final Connector delegate;
+	private final RetryBudget budget;
+	private final boolean hedge;
+	private final int maxRetries;
+	private final ConcurrentMap<String, Latency> latencies = new ConcurrentHashMap<String, Latency>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param delegate      - connector of the transport sending the requests
+	 * @param configuration - configuration of the Jersey Client being built
+	 * @param budget        - budget retries and hedges are drawn from
+	 **/
+	public ResilientConnector(Connector delegate, Configuration configuration, RetryBudget budget) {
+		this.delegate = delegate;
+		this.budget = budget;
+		Map<String, Object> properties = configuration.getProperties();
+		hedge = ClientProperties.getValue(properties, HEDGE, isHedgeDefault(), Boolean.class);
+		maxRetries = ClientProperties.getValue(properties, MAX_RETRIES, getMaxRetriesDefault(), Integer.class);
+	}
+
+	/**
+	 * True if clients of a configuration retry or hedge requests, either set
+	 * on it or by default
+	 *
+	 * @param config - configuration of a Jersey Client
+	 * @return boolean - true if a ResilientConnector is needed
+	 **/
+	public static boolean isEnabled(Configuration config) {
+		Map<String, Object> properties = config.getProperties();
+		return ClientProperties.getValue(properties, HEDGE, isHedgeDefault(), Boolean.class)
+				|| ClientProperties.getValue(properties, MAX_RETRIES, getMaxRetriesDefault(), Integer.class) > 0;
+	}
+
+	@Override
+	public ClientResponse apply(ClientRequest request) {
+		budget.onRequest();
+		if (request.hasEntity() || !IDEMPOTENT_METHODS.contains(request.getMethod()))
+			return delegate.apply(request);
+		boolean hedged = request.resolveProperty(HEDGE, hedge);
+		int retries = request.resolveProperty(MAX_RETRIES, maxRetries);
+		for (int attempt = 0;; attempt++) {
+			ClientResponse response = null;
+			ProcessingException failure = null;
+			try {
+				response = hedged ? sendHedged(request) : send(request);
+			} catch (ProcessingException e) {
+				failure = e;
+			}
+			if (attempt >= retries || (response != null && !RETRY_STATUSES.contains(response.getStatus())))
+				return complete(response, failure);
+			if (!budget.tryAcquire()) {
+				RequestMetrics.recordBudgetExhausted();
+				Log.logWarn(log, "Retry budget spent, not retrying " + request.getMethod() + " " + request.getUri());
+				return complete(response, failure);
+			}
+			String reason = response != null ? "status " + response.getStatus() : failure.getMessage();
+			if (response != null)
+				response.close();
+			long backoff = backoffMillis(attempt);
+			Log.logInfo(log, "Retrying " + request.getMethod() + " " + request.getUri() + " in " + backoff + " ms after "
+					+ reason + " (retry " + (attempt + 1) + " of " + retries + ")");
+			RequestMetrics.recordRetry();
+			try {
+				Thread.sleep(backoff);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ProcessingException("Interrupted before retrying " + request.getUri(), e);
+			}
+		}
+	}
+
+	@Override
+	public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+		return delegate.apply(request, callback);
+	}
+
+	@Override
+	public String getName() {
+		return delegate.getName();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	/**
+	 * Backoff before a retry: half of the exponential delay plus a random share
+	 * of the other half, so clients failing together do not retry together
+	 *
+	 * @param attempt - attempt that failed, from 0
+	 * @return long - milliseconds to wait
+	 **/
+	static long backoffMillis(int attempt) {
+		long delay = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << Math.min(attempt, 20));
+		long half = delay / 2;
+		return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+	}
+
+	/**
+	 * Sends a request once, recording its latency
+	 **/
+	private ClientResponse send(ClientRequest request) {
+		long start = System.nanoTime();
+		ClientResponse response = delegate.apply(request);
+		latency(request).record(System.nanoTime() - start);
+		return response;
+	}
+
+	/**
+	 * Sends a request, and a duplicate if it is unanswered after the hedge
+	 * delay, returning the first response received
+	 **/
+	private ClientResponse sendHedged(final ClientRequest request) {
+		CompletableFuture<ClientResponse> primary;
+		try {
+			primary = CompletableFuture.supplyAsync(() -> send(request), HEDGE_EXECUTOR);
+		} catch (RejectedExecutionException e) {
+			return send(request);
+		}
+		try {
+			return primary.get(latency(request).getHedgeDelayNanos(), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			// still unanswered, hedge below
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ProcessingException("Interrupted while waiting for " + request.getUri(), e);
+		}
+		if (!budget.tryAcquire()) {
+			RequestMetrics.recordBudgetExhausted();
+			return await(request, primary);
+		}
+		// The duplicate gets its own copy, as connectors set headers and properties on the request they send
+		final ClientRequest duplicate = new ClientRequest(request);
+		CompletableFuture<ClientResponse> backup;
+		try {
+			backup = CompletableFuture.supplyAsync(() -> send(duplicate), HEDGE_EXECUTOR);
+		} catch (RejectedExecutionException e) {
+			return await(request, primary);
+		}
+		final CompletableFuture<ClientResponse> first = new CompletableFuture<ClientResponse>();
+		final AtomicInteger pending = new AtomicInteger(2);
+		race(primary, first, pending);
+		race(backup, first, pending);
+		ClientResponse response = await(request, first);
+		RequestMetrics.recordHedge(backup.isDone() && !backup.isCompletedExceptionally() && backup.join() == response);
+		return response;
+	}
+
+	/**
+	 * Completes 'first' with the response of an attempt if none came before,
+	 * else closes it; fails 'first' once every attempt failed
+	 **/
+	private static void race(CompletableFuture<ClientResponse> attempt, final CompletableFuture<ClientResponse> first,
+			final AtomicInteger pending) {
+		attempt.whenComplete((response, failure) -> {
+			if (failure == null) {
+				if (!first.complete(response))
+					response.close();
+			} else if (pending.decrementAndGet() == 0) {
+				first.completeExceptionally(failure);
+			}
+		});
+	}
+
+	private static ClientResponse await(ClientRequest request, CompletableFuture<ClientResponse> response) {
+		try {
+			return response.get();
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ProcessingException("Interrupted while waiting for " + request.getUri(), e);
+		}
+	}
+
+	private static ProcessingException unwrap(Throwable e) {
+		Throwable cause = e;
+		while ((cause instanceof ExecutionException || cause instanceof CompletionException)
+				&& cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause instanceof ProcessingException ? (ProcessingException) cause
+				: new ProcessingException(cause.getMessage(), cause);
+	}
+
+	private static ClientResponse complete(ClientResponse response, ProcessingException failure) {
+		if (response == null)
+			throw failure;
+		return response;
+	}
+
+	private Latency latency(ClientRequest request) {
+		String key = request.getMethod() + ' ' + request.getUri().getHost() + ':' + request.getUri().getPort();
+		Latency latency = latencies.get(key);
+		if (latency == null)
+			latency = latencies.computeIfAbsent(key, k -> new Latency());
+		return latency;
+	}
+
+	private static boolean isHedgeDefault() {
+		return ConfigMapping.getConfigPropertyAsBoolean(ConfigMapping.CLIENT_HEDGE_ENABLED, false);
+	}
+
+	private static int getMaxRetriesDefault() {
+		return ConfigMapping.getConfigPropertyAsInt(ConfigMapping.CLIENT_RETRY_MAX_RETRIES, 0);
+	}
+
+	private static Set<Integer> parseStatuses(String statuses) {
+		Set<Integer> codes = new HashSet<Integer>();
+		if (statuses != null) {
+			for (String status : statuses.split(",")) {
+				try {
+					codes.add(Integer.parseInt(status.trim()));
+				} catch (NumberFormatException e) {
+					Log.logWarn(log, "Ignoring retry status '" + status + "'");
+				}
+			}
+		}
+		return codes;
+	}
+
+	/**
+	 * Latencies of one method and host, and the hedge delay derived from them
+	 **/
+	private static class Latency {
+		private final Recorder recorder = new Recorder(3);
+		private final AtomicLong samples = new AtomicLong();
+		/** everything recorded up to the last refresh, guarded by this **/
+		private final Histogram accumulated = new Histogram(3);
+		private Histogram interval = null;
+		private volatile long hedgeDelayNanos = -1;
+
+		private void record(long nanos) {
+			recorder.recordValue(Math.max(0, nanos / 1000));
+			long count = samples.incrementAndGet();
+			if (count >= MIN_SAMPLES && (hedgeDelayNanos < 0 || count % REFRESH_SAMPLES == 0))
+				refresh();
+		}
+
+		private synchronized void refresh() {
+			interval = recorder.getIntervalHistogram(interval);
+			accumulated.add(interval);
+			hedgeDelayNanos = Math.max(HEDGE_MIN_DELAY_NANOS,
+					TimeUnit.MICROSECONDS.toNanos(accumulated.getValueAtPercentile(HEDGE_PERCENTILE)));
+		}
+
+		private long getHedgeDelayNanos() {
+			long delay = hedgeDelayNanos;
+			return delay < 0 ? HEDGE_DELAY_NANOS : delay;
+		}
+	}
+
+	/** Daemon threads, so hedged attempts never hold the JVM open **/
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "hedged-request-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * ConnectorProvider decorating the connector of another provider
+	 **/
+	public static final class Provider implements ConnectorProvider {
+		private final ConnectorProvider delegate;
+
+		public Provider(ConnectorProvider delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Connector getConnector(Client client, Configuration runtimeConfig) {
+			return new ResilientConnector(delegate.getConnector(client, runtimeConfig), runtimeConfig,
+					RetryBudget.getInstance());
+		}
+	}
+}
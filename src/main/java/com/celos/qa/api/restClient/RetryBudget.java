@@ -0,0 +1,74 @@
+package com.celos.qa.api.restClient;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.celos.qa.api.data.ConfigMapping;
+
+/******************************************************************************
+ * Run-wide allowance of retries and hedged requests. Every request sent earns
+ * a fraction of a retry (client.retry.budgetRatio) on top of a fixed reserve
+ * (client.retry.budgetMin), so extra requests stay a bounded share of the
+ * traffic: when an upstream fails everything, retries stop once the budget is
+ * spent instead of multiplying the load on it.
+ *******************************************************************************/
+public final class RetryBudget {
+
+	private static final RetryBudget INSTANCE = new RetryBudget(
+			ConfigMapping.getConfigPropertyAsDouble(ConfigMapping.CLIENT_RETRY_BUDGET_RATIO, 0.1),
+			ConfigMapping.getConfigPropertyAsLong(ConfigMapping.CLIENT_RETRY_BUDGET_MIN, 10));
+
+	private final double ratio;
+	private final long reserve;
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong spent = new AtomicLong();
+
+	/**
+	 * Constructor
+	 *
+	 * @param ratio   - retries earned by each request, e.g. 0.1 for one in ten
+	 * @param reserve - retries allowed before any request was sent
+	 **/
+	public RetryBudget(double ratio, long reserve) {
+		this.ratio = ratio;
+		this.reserve = reserve;
+	}
+
+	/**
+	 * Returns the budget shared by every pooled client
+	 *
+	 * @return RetryBudget - run-wide budget
+	 **/
+	public static RetryBudget getInstance() {
+		return INSTANCE;
+	}
+
+	/** Counts a request sent for the first time **/
+	public void onRequest() {
+		requests.incrementAndGet();
+	}
+
+	/**
+	 * Takes one retry or hedge from the budget
+	 *
+	 * @return boolean - false if the budget is spent and nothing was taken
+	 **/
+	public boolean tryAcquire() {
+		while (true) {
+			long current = spent.get();
+			if (current >= getLimit())
+				return false;
+			if (spent.compareAndSet(current, current + 1))
+				return true;
+		}
+	}
+
+	/** Retries & hedges allowed so far **/
+	public long getLimit() {
+		return reserve + (long) (requests.get() * ratio);
+	}
+
+	/** Retries & hedges taken so far **/
+	public long getSpent() {
+		return spent.get();
+	}
+}
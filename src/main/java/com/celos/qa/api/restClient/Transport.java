@@ -0,0 +1,46 @@
+package com.celos.qa.api.restClient;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.data.ConfigMapping;
+
+/******************************************************************************
+ * HTTP engine under the pooled Jersey clients, chosen per JsonRestClient with
+ * setTransport or for all of them by client.transport
+ *
+ * APACHE         - Apache HttpClient with a pooling connection manager,
+ *                  HTTP/1.1 with persistent connections
+ * URL_CONNECTION - Jersey's HttpURLConnection connector, HTTP/1.1, with
+ *                  restricted headers such as Host allowed JVM wide
+ * JDK_HTTP       - java.net.http.HttpClient, negotiating HTTP/2 so concurrent
+ *                  requests to one host share a few multiplexed connections
+ *
+ * Any other engine can be plugged in by setting a Jersey ConnectorProvider on
+ * the client's ClientConfig; it is then used as is.
+ *******************************************************************************/
+public enum Transport {
+	APACHE, URL_CONNECTION, JDK_HTTP;
+
+	private static Logger log = LogManager.getLogger(Transport.class.getName());
+
+	/** ClientConfig property holding the Transport of a client **/
+	public static final String PROPERTY = Transport.class.getName();
+
+	/**
+	 * Returns the transport set by client.transport, APACHE if none
+	 *
+	 * @return Transport - configured default transport
+	 **/
+	public static Transport getDefault() {
+		String transport = ConfigMapping.getConfigProperty(ConfigMapping.CLIENT_TRANSPORT);
+		try {
+			return transport == null || transport.trim().isEmpty() ? APACHE
+					: Transport.valueOf(transport.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			Log.logWarn(log, "Unknown transport '" + transport + "', using " + APACHE);
+			return APACHE;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.celos.qa.api.stub;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.celos.qa.api.commonUtils.ResourceCache;
+
+/******************************************************************************
+ * Canned response of a StubServer route: status, headers, body and an
+ * artificial latency. Built fluently and registered with StubServer.route, e.g.
+ *
+ * server.route(new StubRoute("GET", "/api/users").status(200).jsonBody("{...}")
+ *     .latencyMs(20));
+ *
+ * The body is encoded once when set, so serving it copies no data.
+ *******************************************************************************/
+public class StubRoute {
+
+	/** method matching any request method **/
+	public static final String ANY_METHOD = "*";
+
+	private final String method;
+	private final String path;
+	private int status = 200;
+	private final Map<String, String> headers = new LinkedHashMap<String, String>();
+	private byte[] body = new byte[0];
+	private long latencyMs = 0;
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param method - request method, or '*' for any
+	 * @param path   - exact request path, without the query string
+	 **/
+	public StubRoute(String method, String path) {
+		this.method = method.toUpperCase();
+		this.path = path;
+	}
+
+	/** Status code of the response **/
+	public StubRoute status(int status) {
+		this.status = status;
+		return this;
+	}
+
+	/** Adds a response header **/
+	public StubRoute header(String name, String value) {
+		headers.put(name, value);
+		return this;
+	}
+
+	/** Response body, sent as is **/
+	public StubRoute body(byte[] body) {
+		this.body = body == null ? new byte[0] : body;
+		return this;
+	}
+
+	/** Response body, encoded as UTF-8 **/
+	public StubRoute body(String body) {
+		return body(body == null ? null : body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/** JSON response body, also setting Content-Type to application/json **/
+	public StubRoute jsonBody(String json) {
+		header("Content-Type", "application/json; charset=utf-8");
+		return body(json);
+	}
+
+	/**
+	 * Response body read from a resource file
+	 *
+	 * @param pathname - path to file within resources
+	 * @return StubRoute - this route
+	 **/
+	public StubRoute bodyFile(String pathname) {
+		ByteBuffer data = ResourceCache.getBytes(pathname);
+		byte[] bytes = new byte[data.remaining()];
+		data.get(bytes);
+		return body(bytes);
+	}
+
+	/** Time to wait before responding, in milliseconds **/
+	public StubRoute latencyMs(long latencyMs) {
+		this.latencyMs = latencyMs;
+		return this;
+	}
+
+	/********************
+	 * Accessor Methods *
+	 ********************/
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public Map<String, String> getHeaders() {
+		return Collections.unmodifiableMap(headers);
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	public long getLatencyMs() {
+		return latencyMs;
+	}
+
+	/** Number of requests served by this route **/
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	void hit() {
+		hits.increment();
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + path + " -> " + status + (latencyMs > 0 ? " after " + latencyMs + "ms" : "");
+	}
+}
@@ -0,0 +1,258 @@
+package com.celos.qa.api.stub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celos.qa.api.commonUtils.Log;
+import com.celos.qa.api.commonUtils.ResourceCache;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.data.ConfigMapping;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/******************************************************************************
+ * In-process HTTP stub built on the JDK's HttpServer, serving canned
+ * StubRoutes so tests can run offline and client overhead can be measured
+ * without a remote service. Unmatched requests get a 404.
+ *
+ * Kept out of the way when benchmarking: requests are handled on a fixed pool
+ * sized from the CPU count, responses are precomputed byte arrays sent with a
+ * fixed length, TCP_NODELAY is on, and artificial latency is served from a
+ * timer rather than by sleeping on a server thread.
+ *******************************************************************************/
+public class StubServer {
+
+	private static Logger log = LogManager.getLogger(StubServer.class.getName());
+
+	/** JDK HttpServer switch for TCP_NODELAY on accepted connections **/
+	private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+	private static final byte[] NOT_FOUND = "{\"error\":\"No stub route\"}".getBytes(StandardCharsets.UTF_8);
+
+	/** routes keyed by method & path **/
+	private final ConcurrentMap<String, StubRoute> routes = new ConcurrentHashMap<String, StubRoute>();
+
+	private final LongAdder unmatched = new LongAdder();
+
+	private HttpServer server = null;
+	private ExecutorService workers = null;
+	private ScheduledExecutorService timer = null;
+
+	/**
+	 * Starts the server on the configured port, 0 for any free port
+	 *
+	 * @return StubServer - this server
+	 **/
+	public StubServer start() {
+		return start(ConfigMapping.getConfigPropertyAsInt(ConfigMapping.STUB_PORT, 0));
+	}
+
+	/**
+	 * Starts the server on localhost
+	 *
+	 * @param port - port to listen on, 0 for any free port
+	 * @return StubServer - this server
+	 **/
+	public synchronized StubServer start(int port) {
+		if (server != null)
+			return this;
+		if (System.getProperty(NO_DELAY_PROPERTY) == null)
+			System.setProperty(NO_DELAY_PROPERTY, "true");
+		int threads = ConfigMapping.getConfigPropertyAsInt(ConfigMapping.STUB_THREADS, 0);
+		if (threads < 1)
+			threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+		try {
+			server = HttpServer.create(new InetSocketAddress("localhost", port),
+					ConfigMapping.getConfigPropertyAsInt(ConfigMapping.STUB_BACKLOG, 1024));
+		} catch (IOException e) {
+			Log.logFatal(log, "Unable to start stub server on port " + port, e);
+		}
+		workers = Executors.newFixedThreadPool(threads, daemonThreads("stub-server"));
+		timer = Executors.newScheduledThreadPool(2, daemonThreads("stub-latency"));
+		server.setExecutor(workers);
+		server.createContext("/", this::handle);
+		server.start();
+		Log.logInfo(log, "Stub server started on " + getBaseUrl() + " with " + threads + " thread(s) and " + routes.size()
+				+ " route(s)");
+		return this;
+	}
+
+	/**
+	 * Stops the server, dropping requests in progress
+	 **/
+	public synchronized void stop() {
+		if (server == null)
+			return;
+		server.stop(0);
+		workers.shutdownNow();
+		timer.shutdownNow();
+		server = null;
+		Log.logInfo(log, "Stub server stopped");
+	}
+
+	/** True while the server is started **/
+	public synchronized boolean isRunning() {
+		return server != null;
+	}
+
+	/**
+	 * Base URL of the server, e.g. http://localhost:41235
+	 *
+	 * @return String - scheme, host & port of the server
+	 **/
+	public synchronized String getBaseUrl() {
+		if (server == null)
+			throw new IllegalStateException("Stub server is not started");
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	/**
+	 * Adds or replaces a route; routes can be changed while the server runs
+	 *
+	 * @param route - canned response and where to serve it
+	 * @return StubServer - this server
+	 **/
+	public StubServer route(StubRoute route) {
+		routes.put(key(route.getMethod(), route.getPath()), route);
+		return this;
+	}
+
+	/**
+	 * Adds the routes described in a JSON resource file: an array of
+	 * {"method", "path", "status", "headers", "body" or "bodyFile", "latencyMs"}
+	 *
+	 * @param pathname - path to file within resources
+	 * @return StubServer - this server
+	 **/
+	public StubServer routes(String pathname) {
+		JsonNode definitions = null;
+		try {
+			definitions = TestContainer.mapper.readTree(ResourceCache.getText(pathname));
+		} catch (IOException e) {
+			Log.logFatal(log, "Unable to parse stub routes file: " + pathname, e);
+		}
+		for (JsonNode definition : definitions) {
+			StubRoute route = new StubRoute(definition.path("method").asText(StubRoute.ANY_METHOD),
+					definition.path("path").asText("/"));
+			route.status(definition.path("status").asInt(200));
+			Iterator<Map.Entry<String, JsonNode>> headers = definition.path("headers").fields();
+			while (headers.hasNext()) {
+				Map.Entry<String, JsonNode> header = headers.next();
+				route.header(header.getKey(), header.getValue().asText());
+			}
+			if (definition.hasNonNull("bodyFile"))
+				route.bodyFile(definition.get("bodyFile").asText());
+			else if (definition.path("body").isTextual())
+				route.body(definition.get("body").asText());
+			else if (definition.has("body"))
+				route.jsonBody(definition.get("body").toString());
+			route.latencyMs(definition.path("latencyMs").asLong(0));
+			route(route);
+		}
+		Log.logInfo(log, "Loaded " + definitions.size() + " stub route(s) from " + pathname);
+		return this;
+	}
+
+	/**
+	 * Returns the route registered for a method & path
+	 *
+	 * @return StubRoute - the route, null if none
+	 **/
+	public StubRoute getRoute(String method, String path) {
+		return routes.get(key(method.toUpperCase(), path));
+	}
+
+	/** Removes every route **/
+	public void clearRoutes() {
+		routes.clear();
+	}
+
+	/** Number of requests that matched no route **/
+	public long getUnmatchedCount() {
+		return unmatched.sum();
+	}
+
+	/**
+	 * Serves a request: drains its body so the connection can be reused, then
+	 * answers with the route's response, right away or after its latency
+	 **/
+	private void handle(final HttpExchange exchange) {
+		try (InputStream requestBody = exchange.getRequestBody()) {
+			requestBody.transferTo(OutputStream.nullOutputStream());
+		} catch (IOException e) {
+			exchange.close();
+			return;
+		}
+		String path = exchange.getRequestURI().getRawPath();
+		StubRoute route = routes.get(key(exchange.getRequestMethod(), path));
+		if (route == null)
+			route = routes.get(key(StubRoute.ANY_METHOD, path));
+		if (route == null) {
+			unmatched.increment();
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			send(exchange, 404, NOT_FOUND);
+			return;
+		}
+		route.hit();
+		final StubRoute matched = route;
+		Headers headers = exchange.getResponseHeaders();
+		for (Map.Entry<String, String> header : matched.getHeaders().entrySet()) {
+			headers.set(header.getKey(), header.getValue());
+		}
+		if (matched.getLatencyMs() > 0) {
+			timer.schedule(() -> send(exchange, matched.getStatus(), matched.getBody()), matched.getLatencyMs(),
+					TimeUnit.MILLISECONDS);
+		} else {
+			send(exchange, matched.getStatus(), matched.getBody());
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, byte[] body) {
+		try {
+			boolean noBody = body.length == 0 || status == 204 || status == 304
+					|| "HEAD".equals(exchange.getRequestMethod());
+			exchange.sendResponseHeaders(status, noBody ? -1 : body.length);
+			if (!noBody) {
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			}
+		} catch (IOException e) {
+			// client went away
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static String key(String method, String path) {
+		return method + ' ' + path;
+	}
+
+	private static ThreadFactory daemonThreads(final String name) {
+		final AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
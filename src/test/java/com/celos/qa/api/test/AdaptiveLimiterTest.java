@@ -0,0 +1,190 @@
+package com.celos.qa.api.test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.restClient.AdaptiveLimiter;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.LimitingConnector;
+import com.celos.qa.api.restClient.RequestSpec;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.Response;
+
+public class AdaptiveLimiterTest {
+
+	@Test
+	public void testThrottlingLowersAndSuccessRaisesLimit() throws Exception {
+		AdaptiveLimiter limiter = new AdaptiveLimiter("host:80", 10, 1, 20, 0.5, 0);
+		Assertion.assertTrue(limiter.acquire(0), "No slot under the limit");
+		limiter.release(1000000, true);
+		Assertion.assertEquals(limiter.getLimit(), 5);
+		Assertion.assertEquals(limiter.getThrottled(), 1L);
+		for (int i = 0; i < 5; i++) {
+			Assertion.assertTrue(limiter.acquire(0), "No slot under the limit");
+		}
+		for (int i = 0; i < 5; i++) {
+			limiter.release(1000000, false);
+		}
+		Assertion.assertEquals(limiter.getLimit(), 5);
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < limiter.getLimit(); i++) {
+				limiter.acquire(0);
+			}
+			for (int i = limiter.getInFlight(); i > 0; i--) {
+				limiter.release(1000000, false);
+			}
+		}
+		Assertion.assertTrue(limiter.getLimit() > 5, "Limit did not grow back, still " + limiter.getLimit());
+		Assertion.assertTrue(limiter.getLimit() <= 20, "Limit went over its maximum");
+	}
+
+	@Test
+	public void testRisingLatencyLowersLimit() throws Exception {
+		AdaptiveLimiter limiter = new AdaptiveLimiter("host:80", 10, 1, 20, 0.5, 2.0);
+		for (int i = 0; i < 50; i++) {
+			limiter.acquire(0);
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+		}
+		int before = limiter.getLimit();
+		for (int i = 0; i < 10; i++) {
+			limiter.acquire(0);
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(50), false);
+			Thread.sleep(5);
+		}
+		Assertion.assertTrue(limiter.getLimit() < before,
+				"Limit " + limiter.getLimit() + " did not drop from " + before + " as latency rose");
+	}
+
+	@Test
+	public void testWaitsForSlotUntilDeadline() throws Exception {
+		final AdaptiveLimiter limiter = new AdaptiveLimiter("host:80", 1, 1, 1, 0.5, 0);
+		Assertion.assertTrue(limiter.acquire(0), "No slot under the limit");
+		Assertion.assertFalse(limiter.acquire(TimeUnit.MILLISECONDS.toNanos(50)), "Slot given over the limit");
+		Assertion.assertEquals(limiter.getExpired(), 1L);
+		CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+			try {
+				return limiter.acquire(TimeUnit.SECONDS.toNanos(10));
+			} catch (InterruptedException e) {
+				return false;
+			}
+		});
+		Thread.sleep(50);
+		limiter.release(1000000, false);
+		Assertion.assertTrue(waiter.get(5, TimeUnit.SECONDS), "Waiting request did not get the freed slot");
+	}
+
+	@Test
+	public void testSlotHeldUntilBodyClosed() {
+		ClientConfig config = new ClientConfig();
+		config.connectorProvider(new LimitingConnector.Provider(new OriginProvider()));
+		Client client = ClientBuilder.newClient(config);
+		try {
+			AdaptiveLimiter limiter = AdaptiveLimiter.forHost("limited:8080");
+			Response response = client.target("http://limited:8080/api/users").request().get();
+			Assertion.assertEquals(limiter.getInFlight(), 1, "Slot given back before the body was read");
+			response.close();
+			Assertion.assertEquals(limiter.getInFlight(), 0, "Slot kept after the body was closed");
+
+			Assertion.assertEquals(client.target("http://limited:8080/api/users").request().get(String.class),
+					"{\"id\":1}");
+			Assertion.assertEquals(limiter.getInFlight(), 0, "Slot kept after the body was read");
+		} finally {
+			client.close();
+		}
+	}
+
+	@Test
+	public void testSlotOfUnclosedResponseGivenBackWhenCollected() throws Exception {
+		ClientConfig config = new ClientConfig();
+		config.connectorProvider(new LimitingConnector.Provider(new OriginProvider()));
+		Client client = ClientBuilder.newClient(config);
+		try {
+			AdaptiveLimiter limiter = AdaptiveLimiter.forHost("abandoned:8080");
+			dropUnclosed(client, "http://abandoned:8080/api/users");
+			Assertion.assertEquals(limiter.getInFlight(), 1, "Slot given back before the body was read");
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (limiter.getInFlight() > 0 && System.nanoTime() < deadline) {
+				System.gc();
+				Thread.sleep(50);
+			}
+			Assertion.assertEquals(limiter.getInFlight(), 0, "Slot of a collected response never given back");
+			Assertion.assertEquals(limiter.getAbandoned(), 1L);
+		} finally {
+			client.close();
+		}
+	}
+
+	/** Sends a request and drops its response without closing it **/
+	private static void dropUnclosed(Client client, String url) {
+		Assertion.assertEquals(client.target(url).request().get().getStatus(), 200);
+	}
+
+	@Test
+	public void testPooledClientReportsThrottling() {
+		StubServer server = new StubServer().start(0);
+		try {
+			server.route(new StubRoute("GET", "/api/users").status(429));
+			JsonRestClient client = new JsonRestClient();
+			for (int i = 0; i < 5; i++) {
+				Assertion.assertEquals(client.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/api/users")
+						.getStatusCode(), 429);
+			}
+			URI base = URI.create(server.getBaseUrl());
+			AdaptiveLimiter limiter = AdaptiveLimiter.forHost(base.getHost() + ':' + base.getPort());
+			Assertion.assertEquals(limiter.getThrottled(), 5L);
+			Assertion.assertEquals(limiter.getInFlight(), 0);
+			Assertion.assertTrue(limiter.getLimit() < 50, "Limit was not lowered, " + limiter);
+		} finally {
+			server.stop();
+		}
+	}
+
+	/** Answers every request with a small JSON body, without a socket **/
+	private static class OriginProvider implements ConnectorProvider {
+		@Override
+		public Connector getConnector(Client client, Configuration runtimeConfig) {
+			return new Connector() {
+				@Override
+				public ClientResponse apply(ClientRequest request) {
+					ClientResponse response = new ClientResponse(Response.Status.OK, request);
+					response.getHeaders().add("Content-Type", "application/json");
+					response.setEntityStream(new ByteArrayInputStream("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+					return response;
+				}
+
+				@Override
+				public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+					callback.response(apply(request));
+					return CompletableFuture.completedFuture(null);
+				}
+
+				@Override
+				public String getName() {
+					return "origin";
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.celos.qa.api.test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.restClient.ApiCommonStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class ApiCommonStatusTest {
+
+	private static final String BODY = "{\"page\":2,\"data\":[{\"id\":7,\"first_name\":\"Michael\"},"
+			+ "{\"id\":8,\"first_name\":\"Lindsay\"}]}";
+
+	@Test
+	public void testAllPathsMatch() throws Exception {
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		expected.put("/page", "2");
+		expected.put("/data/0/id", "7");
+		expected.put("/data/1/first_name", "LINDSAY");
+		ApiCommonStatus.validateValuesAsPerJsonPaths(TestContainer.mapper.readTree(BODY), expected);
+		ApiCommonStatus.validateValuesAsPerJsonPaths(BODY.getBytes(StandardCharsets.UTF_8), expected);
+		ApiCommonStatus.validateValueAsPerJsonPath(BODY, "michael", "/data/0/first_name");
+	}
+
+	@Test
+	public void testEveryMismatchIsReported() throws Exception {
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		expected.put("/page", "2");
+		expected.put("/data/0/id", "9");
+		expected.put("/data/5/first_name", "Tobias");
+		String message = null;
+		try {
+			ApiCommonStatus.validateValuesAsPerJsonPaths(TestContainer.mapper.readTree(BODY), expected);
+		} catch (AssertionError e) {
+			message = e.getMessage();
+		}
+		Assertion.assertTrue(message != null, "Mismatches were not reported");
+		Assertion.assertTrue(message.startsWith("2 of 3 path(s) do not match"), message);
+		Assertion.assertTrue(message.contains("/data/0/id - Expected Value (9) != Actual Value (7)"), message);
+		Assertion.assertTrue(message.contains("/data/5/first_name - Expected Value (Tobias) != Actual Value (<missing>)"),
+				message);
+	}
+
+	@Test
+	public void testNullExpectsMissingOrNull() throws Exception {
+		String body = "{\"page\":2,\"support\":null}";
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		expected.put("/support", null);
+		expected.put("/total", null);
+		ApiCommonStatus.validateValuesAsPerJsonPaths(TestContainer.mapper.readTree(body), expected);
+		ApiCommonStatus.validateValuesAsPerJsonPaths(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+				expected);
+
+		expected.put("/page", null);
+		String message = null;
+		try {
+			ApiCommonStatus.validateValuesAsPerJsonPaths(TestContainer.mapper.readTree(body), expected);
+		} catch (AssertionError e) {
+			message = e.getMessage();
+		}
+		Assertion.assertTrue(message != null, "Value found where none was expected");
+		Assertion.assertTrue(message.contains("/page - Expected missing or null != Actual Value (2)"), message);
+	}
+
+	@Test
+	public void testPointersAreCompiledOnce() {
+		Assertion.assertTrue(ApiCommonStatus.jsonPointer("/data/0/id") == ApiCommonStatus.jsonPointer("/data/0/id"),
+				"JSON pointer was compiled again");
+		JsonNode node = TestContainer.mapper.createObjectNode().put("a/b", "slash");
+		Assertion.assertEquals(node.at(ApiCommonStatus.jsonPointer("/a~1b")).asText(), "slash");
+	}
+}
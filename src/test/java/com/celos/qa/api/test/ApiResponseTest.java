@@ -0,0 +1,139 @@
+package com.celos.qa.api.test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.fields.ApiFields;
+import com.celos.qa.api.restClient.ApiResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+public class ApiResponseTest {
+
+	private static final String STATUS = ApiFields.RESPONSE_FIELD_STATUS.field();
+	private static final String HEADERS = ApiFields.RESPONSE_FIELD_HEADERS.field();
+	private static final String RESPONSE_BODY = ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field();
+
+	private static final String USERS = "{\"page\":2,\"data\":[{\"id\":7,\"first_name\":\"Michael\"}]}";
+
+	@Test
+	public void testGetEachKeyBeforeAndAfterParsing() {
+		ApiResponse response = response(USERS);
+		Assertion.assertEquals(response.getStatusCode(), 200);
+		Assertion.assertEquals(response.getHeaderString("Content-Type"), "application/json");
+		Assertion.assertEquals(response.getBodyLength(), (long) USERS.length());
+
+		JsonNode status = response.get(STATUS);
+		Assertion.assertEquals(status.get("code").asInt(), 200);
+		Assertion.assertEquals(status.get("reason").asText(), "OK");
+		JsonNode headers = response.get(HEADERS);
+		Assertion.assertEquals(headers.get("Content-Type").get(0).asText(), "application/json");
+		Assertion.assertEquals(headers.get("Set-Cookie").size(), 2);
+		JsonNode body = response.get(RESPONSE_BODY);
+		Assertion.assertEquals(body.at("/data/0/first_name").asText(), "Michael");
+
+		Assertion.assertSame(response.get(STATUS), status, "Status block was built twice");
+		Assertion.assertSame(response.get(HEADERS), headers, "Headers were converted twice");
+		Assertion.assertSame(response.get(RESPONSE_BODY), body, "Body was parsed twice");
+		Assertion.assertNull(response.get("unknown"));
+	}
+
+	@Test
+	public void testPutAndRemoveOverrideRawValues() {
+		ApiResponse response = response(USERS);
+		JsonNode replacement = TestContainer.mapper.createObjectNode().put("code", 201);
+		JsonNode previous = response.put(STATUS, replacement);
+		Assertion.assertEquals(previous.get("code").asInt(), 200);
+		Assertion.assertSame(response.get(STATUS), replacement);
+		Assertion.assertEquals(response.getStatusCode(), 200, "Raw status changed by the Map view");
+
+		Assertion.assertEquals(response.remove(RESPONSE_BODY).get("page").asInt(), 2);
+		Assertion.assertFalse(response.containsKey(RESPONSE_BODY));
+		Assertion.assertNull(response.get(RESPONSE_BODY));
+		Assertion.assertNull(response.remove(RESPONSE_BODY));
+		Assertion.assertEquals(response.size(), 2);
+
+		JsonNode extra = TestContainer.mapper.createObjectNode().put("attempt", 1);
+		response.put("retry", extra);
+		response.put(RESPONSE_BODY, extra);
+		Assertion.assertSame(response.get(RESPONSE_BODY), extra);
+		Assertion.assertEquals(response.size(), 4);
+
+		Map<String, JsonNode> copy = new HashMap<String, JsonNode>(response);
+		Assertion.assertEquals(response, copy);
+	}
+
+	@Test
+	public void testEntrySetOrder() {
+		ApiResponse response = response(USERS);
+		response.put("retry", TestContainer.mapper.createObjectNode());
+		Assertion.assertEquals(keys(response), List.of(HEADERS, RESPONSE_BODY, STATUS, "retry"));
+
+		Iterator<Map.Entry<String, JsonNode>> entries = response.entrySet().iterator();
+		entries.next();
+		entries.remove();
+		Assertion.assertEquals(keys(response), List.of(RESPONSE_BODY, STATUS, "retry"));
+	}
+
+	@Test
+	public void testNonJsonBody() {
+		ApiResponse response = response("Service Unavailable");
+		Assertion.assertEquals(response.get(RESPONSE_BODY).get("responseBodyNonJson").asText(), "Service Unavailable");
+		Assertion.assertEquals(response.getBodyAsString(), "Service Unavailable");
+	}
+
+	@Test
+	public void testMissingEntity() throws Exception {
+		ApiResponse response = ApiResponse.read(204, "No Content", headers(), null, StandardCharsets.UTF_8, 0, null);
+		Assertion.assertFalse(response.hasBody());
+		Assertion.assertEquals(response.getBodyLength(), -1L);
+		Assertion.assertFalse(response.containsKey(RESPONSE_BODY));
+		Assertion.assertNull(response.get(RESPONSE_BODY));
+		Assertion.assertNull(response.getBodyAsString());
+		Assertion.assertEquals(keys(response), List.of(HEADERS, STATUS));
+
+		ApiResponse empty = ApiResponse.empty();
+		Assertion.assertTrue(empty.isEmpty(), "Empty response has keys " + empty.keySet());
+		Assertion.assertNull(empty.get(STATUS));
+	}
+
+	@Test
+	public void testSpilledBodyParsedFromFile() throws Exception {
+		ApiResponse response = ApiResponse.read(200, "OK", headers(),
+				new ByteArrayInputStream(USERS.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, 16, null);
+		Assertion.assertTrue(response.isSpilled(), "Body over the threshold was kept in memory");
+		Assertion.assertEquals(response.getBodyPreview(9), "{\"page\":2");
+		Assertion.assertEquals(response.get(RESPONSE_BODY).at("/data/0/id").asInt(), 7);
+	}
+
+	private static ApiResponse response(String body) {
+		return new ApiResponse(200, "OK", headers(), body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+	}
+
+	private static MultivaluedMap<String, String> headers() {
+		MultivaluedMap<String, String> headers = new MultivaluedHashMap<String, String>();
+		headers.add("Content-Type", "application/json");
+		headers.add("Set-Cookie", "a=1");
+		headers.add("Set-Cookie", "b=2");
+		return headers;
+	}
+
+	private static List<String> keys(Map<String, JsonNode> map) {
+		List<String> keys = new ArrayList<String>();
+		for (Map.Entry<String, JsonNode> entry : map.entrySet()) {
+			keys.add(entry.getKey());
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,100 @@
+package com.celos.qa.api.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.endpPoints.CommonBaseApi;
+import com.celos.qa.api.fields.ApiFields;
+import com.celos.qa.api.restClient.AsyncRequestExecutor;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class AsyncRequestExecutorTest {
+
+	@Test
+	public void testInFlightNeverExceedsBound() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		try {
+			AsyncRequestExecutor executor = new AsyncRequestExecutor(pool, 3);
+			final AtomicInteger running = new AtomicInteger();
+			final AtomicInteger maxRunning = new AtomicInteger();
+			List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+			for (int i = 0; i < 24; i++) {
+				final int value = i;
+				futures.add(executor.submit(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					running.decrementAndGet();
+					return value;
+				}));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				Assertion.assertEquals(futures.get(i).get(10, TimeUnit.SECONDS), i);
+			}
+			Assertion.assertTrue(maxRunning.get() <= 3, maxRunning.get() + " tasks ran at once over a bound of 3");
+			Assertion.assertEquals(executor.getInFlight(), 0);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFailedTaskReleasesItsPermit() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			AsyncRequestExecutor executor = new AsyncRequestExecutor(pool, 1);
+			CompletableFuture<Object> failed = executor.submit(() -> {
+				throw new IllegalStateException("request failed");
+			});
+			try {
+				failed.get(10, TimeUnit.SECONDS);
+				Assertion.assertTrue(false, "Failure of the task was not passed on");
+			} catch (ExecutionException e) {
+				Assertion.assertTrue(e.getCause() instanceof IllegalStateException, "Unexpected failure " + e.getCause());
+			}
+			Assertion.assertEquals(executor.submit(() -> "next").get(10, TimeUnit.SECONDS), "next");
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testAsyncRequestsAgainstStub() throws Exception {
+		StubServer server = new StubServer().start(0);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			server.route(new StubRoute("GET", "/api/users").latencyMs(20).jsonBody("{\"page\":1}"));
+			CommonBaseApi api = new CommonBaseApi(server.getBaseUrl());
+			api.setAsyncExecutor(new AsyncRequestExecutor(pool, 2));
+			List<CompletableFuture<Map<String, JsonNode>>> futures = new ArrayList<CompletableFuture<Map<String, JsonNode>>>();
+			for (int i = 0; i < 6; i++) {
+				futures.add(api.requestUsersDataAsync());
+			}
+			for (CompletableFuture<Map<String, JsonNode>> future : futures) {
+				Map<String, JsonNode> response = future.get(30, TimeUnit.SECONDS);
+				Assertion.assertEquals(response.get(ApiFields.RESPONSE_FIELD_STATUS.field()).get("code").asInt(), 200);
+				Assertion.assertEquals(
+						response.get(ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field()).get("page").asInt(), 1);
+			}
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 6L);
+		} finally {
+			pool.shutdownNow();
+			server.stop();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.celos.qa.api.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.JerseyClient;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.restClient.ClientPool;
+
+import jakarta.ws.rs.client.Client;
+
+public class ClientPoolTest {
+
+	@Test
+	public void testEqualConfigsShareOneClient() {
+		Client first = ClientPool.getClient(new ClientConfig().property(ClientProperties.CONNECT_TIMEOUT, 1111));
+		Client second = ClientPool.getClient(new ClientConfig().property(ClientProperties.CONNECT_TIMEOUT, 1111));
+		Client other = ClientPool.getClient(new ClientConfig().property(ClientProperties.CONNECT_TIMEOUT, 2222));
+		Assertion.assertSame(first, second, "Equal configurations got different clients");
+		Assertion.assertNotSame(first, other, "Different configurations shared a client");
+	}
+
+	@Test
+	public void testShutdownClosesEveryClient() {
+		JerseyClient first = (JerseyClient) ClientPool
+				.getClient(new ClientConfig().property(ClientProperties.READ_TIMEOUT, 3333));
+		JerseyClient second = (JerseyClient) ClientPool
+				.getClient(new ClientConfig().property(ClientProperties.READ_TIMEOUT, 4444));
+		ClientPool.shutdown();
+		Assertion.assertTrue(first.isClosed() && second.isClosed(), "Pooled clients were left open");
+		Assertion.assertEquals(ClientPool.size(), 0);
+
+		JerseyClient again = (JerseyClient) ClientPool
+				.getClient(new ClientConfig().property(ClientProperties.READ_TIMEOUT, 3333));
+		Assertion.assertNotSame(again, first, "Closed client was handed out after shutdown");
+		Assertion.assertFalse(again.isClosed());
+	}
+
+	@Test
+	public void testShutdownDuringLookupsNeverLeavesClientOpen() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<JerseyClient>>> lookups = new ArrayList<Future<List<JerseyClient>>>();
+			for (int t = 0; t < 4; t++) {
+				final int thread = t;
+				lookups.add(executor.submit(() -> {
+					List<JerseyClient> clients = new ArrayList<JerseyClient>();
+					for (int i = 0; i < 50; i++) {
+						clients.add((JerseyClient) ClientPool.getClient(
+								new ClientConfig().property(ClientProperties.CONNECT_TIMEOUT, 10000 + thread * 100 + i % 5)));
+					}
+					return clients;
+				}));
+			}
+			for (int i = 0; i < 5; i++) {
+				ClientPool.shutdown();
+			}
+			List<JerseyClient> handedOut = new ArrayList<JerseyClient>();
+			for (Future<List<JerseyClient>> lookup : lookups) {
+				handedOut.addAll(lookup.get(30, TimeUnit.SECONDS));
+			}
+			ClientPool.shutdown();
+			for (JerseyClient client : handedOut) {
+				Assertion.assertTrue(client.isClosed(), "Client created during shutdown was never closed");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
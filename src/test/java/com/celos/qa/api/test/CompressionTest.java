@@ -0,0 +1,186 @@
+package com.celos.qa.api.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.metrics.RequestMetrics;
+import com.celos.qa.api.restClient.ApiResponse;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.RequestSpec;
+import com.celos.qa.api.restClient.Transport;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.Response;
+
+public class CompressionTest {
+
+	private StubServer server;
+	private String users;
+
+	@BeforeClass
+	public void startServer() throws IOException {
+		StringBuilder body = new StringBuilder("{\"data\":[");
+		for (int i = 0; i < 500; i++) {
+			body.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"first_name\":\"Janet\"}");
+		}
+		users = body.append("]}").toString();
+		byte[] raw = users.getBytes(StandardCharsets.UTF_8);
+		server = new StubServer().start(0);
+		server.route(new StubRoute("GET", "/gzip").header("Content-Type", "application/json")
+				.header("Content-Encoding", "gzip").body(gzip(raw)));
+		server.route(new StubRoute("GET", "/deflate").header("Content-Type", "application/json")
+				.header("Content-Encoding", "deflate").body(deflate(raw, false)));
+		server.route(new StubRoute("GET", "/rawDeflate").header("Content-Type", "application/json")
+				.header("Content-Encoding", "deflate").body(deflate(raw, true)));
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+	}
+
+	@DataProvider(name = "transports")
+	public Object[][] transports() {
+		return new Object[][] { { Transport.APACHE }, { Transport.URL_CONNECTION }, { Transport.JDK_HTTP } };
+	}
+
+	@Test(dataProvider = "transports")
+	public void testCompressedResponsesAreDecoded(Transport transport) {
+		JsonRestClient client = new JsonRestClient();
+		client.setTransport(transport);
+		for (String path : new String[] { "/gzip", "/deflate", "/rawDeflate" }) {
+			long wire = RequestMetrics.getResponseWireBytes();
+			long decoded = RequestMetrics.getResponseDecodedBytes();
+			ApiResponse response = client.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), path);
+			Assertion.assertEquals(response.getStatusCode(), 200);
+			Assertion.assertEquals(response.getBodyAsString(), users, "Body of " + path + " on " + transport);
+			Assertion.assertEquals(RequestMetrics.getResponseDecodedBytes() - decoded, (long) users.length());
+			Assertion.assertTrue(RequestMetrics.getResponseWireBytes() - wire < users.length() / 4,
+					"Wire bytes of " + path + " were not the compressed size");
+		}
+	}
+
+	@Test
+	public void testRequestBodyCompressedOverThreshold() throws IOException {
+		ClientConfig config = new ClientConfig();
+		config.connectorProvider(new EchoProvider());
+		JsonRestClient client = new JsonRestClient();
+		client.setConfig(config);
+		client.setRequestCompressionThreshold(1024);
+		long compressed = RequestMetrics.getCompressedRequests();
+
+		ApiResponse small = client.invoke("POST", RequestSpec.EMPTY.withBody("{\"name\":\"neo\"}"), "http://echo", "/");
+		Assertion.assertEquals(small.getBody().get("encoding").asText(), "none");
+		Assertion.assertEquals(small.getBody().get("accept").asText(), "gzip, deflate");
+		Assertion.assertEquals(small.getBody().get("body").asText(), "{\"name\":\"neo\"}");
+
+		ApiResponse large = client.invoke("POST", RequestSpec.EMPTY.withBody(users), "http://echo", "/");
+		Assertion.assertEquals(large.getBody().get("encoding").asText(), "gzip");
+		Assertion.assertEquals(large.getBody().get("body").asText(), users);
+		Assertion.assertTrue(large.getBody().get("wireBytes").asInt() < users.length() / 4,
+				"Request was sent at " + large.getBody().get("wireBytes").asInt() + " bytes");
+		Assertion.assertEquals(RequestMetrics.getCompressedRequests() - compressed, 1L);
+
+		ApiResponse identity = client.invoke("GET",
+				RequestSpec.builder().header("Accept-Encoding", "identity").build(), "http://echo", "/");
+		Assertion.assertEquals(identity.getBody().get("accept").asText(), "identity");
+	}
+
+	private static byte[] gzip(byte[] raw) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(raw);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] deflate(byte[] raw, boolean nowrap) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap))) {
+			deflate.write(raw);
+		}
+		return out.toByteArray();
+	}
+
+	/** Answers each request with its encoding, Accept-Encoding and decoded body **/
+	private static class EchoProvider implements ConnectorProvider {
+		@Override
+		public Connector getConnector(Client client, Configuration runtimeConfig) {
+			return new Connector() {
+				@Override
+				public ClientResponse apply(ClientRequest request) {
+					ObjectNode echo = TestContainer.mapper.createObjectNode();
+					try {
+						byte[] sent = new byte[0];
+						if (request.hasEntity()) {
+							final ByteArrayOutputStream entity = new ByteArrayOutputStream();
+							request.setStreamProvider(contentLength -> entity);
+							request.writeEntity();
+							sent = entity.toByteArray();
+						}
+						String encoding = request.getHeaderString("Content-Encoding");
+						echo.put("encoding", encoding == null ? "none" : encoding);
+						echo.put("accept", request.getHeaderString("Accept-Encoding"));
+						echo.put("wireBytes", sent.length);
+						InputStream body = new ByteArrayInputStream(sent);
+						if ("gzip".equals(encoding))
+							body = new GZIPInputStream(body);
+						echo.put("body", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+					} catch (IOException e) {
+						throw new ProcessingException(e);
+					}
+					ClientResponse response = new ClientResponse(Response.Status.OK, request);
+					response.getHeaders().add("Content-Type", "application/json");
+					response.setEntityStream(new ByteArrayInputStream(echo.toString().getBytes(StandardCharsets.UTF_8)));
+					return response;
+				}
+
+				@Override
+				public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+					try {
+						callback.response(apply(request));
+					} catch (RuntimeException e) {
+						callback.failure(e);
+					}
+					return CompletableFuture.completedFuture(null);
+				}
+
+				@Override
+				public String getName() {
+					return "echo";
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+	}
+}
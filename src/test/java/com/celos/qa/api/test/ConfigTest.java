@@ -0,0 +1,97 @@
+package com.celos.qa.api.test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.Config;
+
+public class ConfigTest {
+
+	private Path dir;
+	private String file;
+
+	@BeforeMethod
+	public void createFile() throws Exception {
+		dir = Files.createTempDirectory("config-test");
+		file = dir.resolve("test.properties").toString();
+		write(1);
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void deleteFile() throws Exception {
+		Config.getInstance().stopWatching();
+		for (File child : dir.toFile().listFiles()) {
+			child.delete();
+		}
+		Files.delete(dir);
+	}
+
+	@Test
+	public void testFileOverriddenBySystemProperty() {
+		System.setProperty("config.test.override", "fromCommandLine");
+		try {
+			Config.getInstance().reload();
+			Assertion.assertEquals(Config.getInstance().getPropConfigOnly(file, "config.test.override"), "fromFile");
+			Assertion.assertEquals(Config.getInstance().getPropCmdLineOverWrite(file, "config.test.override"),
+					"fromCommandLine");
+		} finally {
+			System.clearProperty("config.test.override");
+			Config.getInstance().reload();
+		}
+	}
+
+	@Test
+	public void testWatchedFileSwapsSnapshotAtomically() throws Exception {
+		final Config config = Config.getInstance();
+		Assertion.assertEquals(config.getPropConfigOnly(file, "first"), "1");
+		config.watch(file);
+
+		final AtomicBoolean done = new AtomicBoolean();
+		// Readers see the old snapshot or the new one, never an empty or older one
+		CompletableFuture<String> reader = CompletableFuture.supplyAsync(() -> {
+			int last = 1;
+			while (!done.get()) {
+				String value = config.getPropConfigOnly(file, "second");
+				if (value == null || Integer.parseInt(value) < last)
+					return "second = " + value + " after " + last;
+				last = Integer.parseInt(value);
+			}
+			return null;
+		});
+		try {
+			for (int version = 2; version <= 5; version++) {
+				write(version);
+				long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+				while (!String.valueOf(version).equals(config.getPropConfigOnly(file, "first"))
+						&& System.nanoTime() < deadline) {
+					Thread.sleep(20);
+				}
+				Assertion.assertEquals(config.getPropConfigOnly(file, "first"), String.valueOf(version),
+						"Change to the watched file was not picked up");
+			}
+		} finally {
+			done.set(true);
+		}
+		Assertion.assertNull(reader.get(10, TimeUnit.SECONDS), "Reader saw a partly loaded snapshot");
+	}
+
+	/** Replaces the file in one move, so the watcher never reads it half written **/
+	private void write(int version) throws Exception {
+		Path temp = dir.resolve("test.properties.tmp");
+		String content = "first=" + version + "\nsecond=" + version + "\nconfig.test.override=fromFile\n";
+		Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+		Files.move(temp, dir.resolve("test.properties"), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+}
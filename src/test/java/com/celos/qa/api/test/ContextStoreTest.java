@@ -0,0 +1,32 @@
+package com.celos.qa.api.test;
+
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.ContextStore;
+import com.celos.qa.api.commonUtils.ContextStore.Scope;
+import com.celos.qa.api.commonUtils.TestContainer;
+
+public class ContextStoreTest {
+
+	@Test(invocationCount = 50, threadPoolSize = 8)
+	public void testScopeIsPerInvocation() {
+		String value = Thread.currentThread().getName() + "-" + System.nanoTime();
+		Assertion.assertEquals(ContextStore.get(Scope.TEST, "value"), null);
+		ContextStore.put(Scope.TEST, "value", value);
+		ContextStore.put(Scope.THREAD, "value", value);
+		Thread.yield();
+		Assertion.assertEquals(ContextStore.get(Scope.TEST, "value"), value);
+		Assertion.assertEquals(ContextStore.lookup("value"), value);
+		ContextStore.clear(Scope.THREAD);
+	}
+
+	@Test
+	public void testGlobalsAreSuiteScoped() {
+		TestContainer.setEnvironment("qa");
+		Assertion.assertEquals(TestContainer.getEnvironment(), "qa");
+		Assertion.assertEquals(ContextStore.get(Scope.SUITE, "environment"), "qa");
+		TestContainer.setGlobal("environment", null);
+		Assertion.assertEquals(TestContainer.getGlobal("environment"), null);
+	}
+}
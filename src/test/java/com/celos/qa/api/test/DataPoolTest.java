@@ -0,0 +1,169 @@
+package com.celos.qa.api.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.DataPool;
+import com.celos.qa.api.commonUtils.DataPool.EmptyPolicy;
+
+public class DataPoolTest {
+
+	private static List<String> items(int count) {
+		List<String> items = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			items.add("id-" + i);
+		}
+		return items;
+	}
+
+	@Test
+	public void testTakesLastInFirstOut() {
+		DataPool<String> pool = new DataPool<String>("ids", items(5)).setBatchSize(2);
+		Assertion.assertEquals(pool.take(3), Arrays.asList("id-4", "id-3", "id-2"));
+		Assertion.assertEquals(pool.take(2), Arrays.asList("id-1", "id-0"));
+	}
+
+	@Test
+	public void testParallelTakesAreUnique() throws Exception {
+		final DataPool<String> pool = new DataPool<String>("ids", items(4000)).setBatchSize(16);
+		final Set<String> taken = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < 16; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 50; i++) {
+						for (String item : pool.take(5)) {
+							Assertion.assertTrue(taken.add(item), "Item taken twice: " + item);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Assertion.assertEquals(taken.size(), 4000);
+		Assertion.assertEquals(pool.size(), 0);
+	}
+
+	@Test
+	public void testParallelTakesUnderFailPolicyNeverFailEarly() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			for (int round = 0; round < 2000; round++) {
+				final DataPool<String> pool = new DataPool<String>("ids", items(16)).setBatchSize(3)
+						.setEmptyPolicy(EmptyPolicy.FAIL);
+				final CountDownLatch start = new CountDownLatch(1);
+				List<Future<?>> futures = new ArrayList<Future<?>>();
+				for (int t = 0; t < 8; t++) {
+					futures.add(executor.submit(() -> {
+						start.await();
+						pool.take(2);
+						return null;
+					}));
+				}
+				start.countDown();
+				for (Future<?> future : futures) {
+					future.get();
+				}
+				Assertion.assertEquals(pool.size(), 0);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testWaitingPartialTakesDoNotStarveEachOther() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 10; round++) {
+				final DataPool<String> pool = new DataPool<String>("ids").setBatchSize(1)
+						.setEmptyPolicy(EmptyPolicy.WAIT).setWaitTimeoutMs(1500);
+				final CountDownLatch start = new CountDownLatch(1);
+				List<Future<List<String>>> takers = new ArrayList<Future<List<String>>>();
+				for (int t = 0; t < 2; t++) {
+					takers.add(executor.submit(() -> {
+						start.await();
+						return pool.take(3);
+					}));
+				}
+				start.countDown();
+				// Items arriving one by one at uneven gaps are shared out between
+				// the two waiting takes
+				Thread.sleep(50);
+				for (String item : items(4)) {
+					pool.addAll(Arrays.asList(item));
+					Thread.sleep(1 + ThreadLocalRandom.current().nextInt(25));
+				}
+				// 4 items meet one take of 3 well before the timeout, whichever way
+				// the two interleave
+				Thread.sleep(500);
+				int met = 0;
+				for (Future<List<String>> taker : takers) {
+					if (taker.isDone()) {
+						Assertion.assertEquals(taker.get().size(), 3);
+						met++;
+					}
+				}
+				Assertion.assertEquals(met, 1, "Takes holding part of the pool starved each other");
+				for (Future<List<String>> taker : takers) {
+					try {
+						taker.get(10, TimeUnit.SECONDS);
+					} catch (ExecutionException e) {
+						Assertion.assertTrue(e.getCause() instanceof AssertionError, "Unexpected failure " + e.getCause());
+					}
+				}
+				Assertion.assertEquals(pool.size(), 1);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testPartitionsOfFinishedThreadsArePruned() throws Exception {
+		final DataPool<String> pool = new DataPool<String>("ids", items(100)).setBatchSize(8);
+		for (int t = 0; t < 10; t++) {
+			Thread thread = new Thread(() -> pool.take());
+			thread.start();
+			thread.join();
+		}
+		// Taking on a new thread prunes the partitions left by finished ones
+		Thread last = new Thread(() -> pool.take());
+		last.start();
+		last.join();
+		Assertion.assertTrue(pool.getPartitionCount() <= 1, pool.getPartitionCount() + " partitions kept");
+		Assertion.assertEquals(pool.take(89).size(), 89, "Items of finished threads were lost");
+	}
+
+	@Test
+	public void testRefillAndEmptyPolicy() {
+		DataPool<String> pool = new DataPool<String>("ids", items(2)).setEmptyPolicy(EmptyPolicy.FAIL);
+		try {
+			pool.take(3);
+			Assertion.fail("Take beyond the pool size should fail");
+		} catch (AssertionError e) {
+			Assertion.assertTrue(e.getMessage().contains("could not supply 3"));
+		}
+		Assertion.assertEquals(pool.size(), 2);
+		pool.setLowWaterMark(1).setRefill(() -> items(10)).setEmptyPolicy(EmptyPolicy.WAIT).setWaitTimeoutMs(1000);
+		Assertion.assertEquals(pool.take(3).size(), 3);
+	}
+}
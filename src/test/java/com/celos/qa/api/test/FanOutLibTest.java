@@ -0,0 +1,81 @@
+package com.celos.qa.api.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.fields.ApiFields;
+import com.celos.qa.api.lib.FanOutLib;
+import com.celos.qa.api.lib.FanOutReport;
+import com.celos.qa.api.restClient.ApiCommonStatus;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.RequestSpec;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class FanOutLibTest {
+
+	@Test
+	public void testReportAggregatesFailedStatusChecks() {
+		StubServer server = new StubServer().start(0);
+		try {
+			server.route(new StubRoute("GET", "/ok").jsonBody("{\"id\":1}"));
+			server.route(new StubRoute("GET", "/down").status(503));
+			final JsonRestClient client = new JsonRestClient();
+			final String base = server.getBaseUrl();
+			List<Callable<Map<String, JsonNode>>> calls = new ArrayList<Callable<Map<String, JsonNode>>>();
+			for (int i = 0; i < 10; i++) {
+				final String path = i % 4 == 3 ? "/down" : "/ok";
+				calls.add(() -> client.invoke("GET", RequestSpec.EMPTY, base, path));
+			}
+			calls.add(() -> {
+				throw new IllegalStateException("no response");
+			});
+
+			FanOutReport report = FanOutLib.fanOut(calls, 4, ApiCommonStatus::validateStatusOk);
+			Assertion.assertEquals(report.getTotalCount(), 11);
+			Assertion.assertEquals(report.getFailedCount(), 3);
+			Assertion.assertEquals(report.getPassedCount(), 8);
+			Assertion.assertEquals(new ArrayList<Integer>(report.getFailures().keySet()), List.of(3, 7, 10));
+			Assertion.assertTrue(report.getFailures().get(10).contains("IllegalStateException"),
+					"Failure message was " + report.getFailures().get(10));
+			Assertion.assertNotNull(report.getResults().get(3), "Response of a failed status check was dropped");
+			Assertion.assertNull(report.getResults().get(10));
+			Assertion.assertEquals(report.getResults().get(0).get(ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field()).get("id").asInt(), 1);
+			try {
+				report.assertAllPassed();
+				Assertion.assertTrue(false, "assertAllPassed passed with failed calls");
+			} catch (AssertionError e) {
+				Assertion.assertTrue(e.getMessage().contains("3 of 11 call(s) failed"), e.getMessage());
+			}
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testConcurrencyCapHolds() {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		List<Callable<Map<String, JsonNode>>> calls = new ArrayList<Callable<Map<String, JsonNode>>>();
+		for (int i = 0; i < 30; i++) {
+			calls.add(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				Thread.sleep(5);
+				running.decrementAndGet();
+				return Collections.<String, JsonNode>emptyMap();
+			});
+		}
+		FanOutReport report = FanOutLib.fanOut(calls, 5, null);
+		Assertion.assertEquals(report.getPassedCount(), 30);
+		Assertion.assertTrue(maxRunning.get() <= 5, maxRunning.get() + " calls ran at once over a cap of 5");
+		report.assertAllPassed();
+	}
+}
@@ -0,0 +1,99 @@
+package com.celos.qa.api.test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+import com.celos.qa.api.restClient.JsonRestClient;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.Response;
+
+/******************************************************************************
+ * Connector answering requests with a function instead of sending them, for
+ * tests needing full control of the responses a client sees. Asynchronous
+ * requests are answered on the calling thread.
+ *******************************************************************************/
+class FunctionConnector implements Connector, ConnectorProvider {
+
+	private final String name;
+	private final Function<ClientRequest, ClientResponse> answer;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name   - name of the connector
+	 * @param answer - builds the response to each request
+	 **/
+	FunctionConnector(String name, Function<ClientRequest, ClientResponse> answer) {
+		this.name = name;
+		this.answer = answer;
+	}
+
+	/**
+	 * Returns a client sending its requests to this connector
+	 *
+	 * @return JsonRestClient - new client on this connector
+	 **/
+	JsonRestClient client() {
+		ClientConfig config = new ClientConfig();
+		config.connectorProvider(this);
+		JsonRestClient client = new JsonRestClient();
+		client.setConfig(config);
+		return client;
+	}
+
+	/**
+	 * Builds a JSON response to a request
+	 *
+	 * @param request - request answered
+	 * @param status  - status of the response
+	 * @param body    - JSON body of the response
+	 * @return ClientResponse - the response
+	 **/
+	static ClientResponse json(ClientRequest request, Response.Status status, String body) {
+		ClientResponse response = new ClientResponse(status, request);
+		response.getHeaders().add("Content-Type", "application/json");
+		response.setEntityStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+		return response;
+	}
+
+	@Override
+	public Connector getConnector(Client client, Configuration runtimeConfig) {
+		return this;
+	}
+
+	@Override
+	public ClientResponse apply(ClientRequest request) {
+		return answer.apply(request);
+	}
+
+	@Override
+	public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+		try {
+			callback.response(apply(request));
+		} catch (RuntimeException e) {
+			callback.failure(e);
+		}
+		return CompletableFuture.completedFuture(null);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,97 @@
+package com.celos.qa.api.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.restClient.ApiCommonStatus;
+import com.celos.qa.api.restClient.JsonPointerExtractor;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class JsonPointerExtractorTest {
+
+	private static final String BODY = "{\"page\":2,\"meta\":{\"a/b\":\"slash\",\"tags\":[\"x\",\"y\"]},"
+			+ "\"data\":[{\"id\":7,\"name\":{\"first\":\"Michael\"}},{\"id\":8,\"name\":{\"first\":\"Lindsay\"}}],"
+			+ "\"total\":12}";
+
+	@Test
+	public void testMatchesTreeLookup() throws IOException {
+		List<String> paths = Arrays.asList("/page", "/meta/a~1b", "/meta/tags/1", "/data/1", "/data/1/name/first",
+				"/data/0/id", "/data/5/id", "/missing", "/page/deeper", "/total", "");
+		JsonNode tree = TestContainer.mapper.readTree(BODY);
+		Map<String, JsonNode> values = JsonPointerExtractor.extract(BODY.getBytes(StandardCharsets.UTF_8), paths);
+		Assertion.assertEquals(values.keySet().size(), paths.size());
+		for (String path : paths) {
+			Assertion.assertEquals(values.get(path), tree.at(path), "Value at " + path);
+		}
+	}
+
+	@Test
+	public void testStopsReadingOnceResolved() {
+		StringBuilder large = new StringBuilder("{\"page\":1,\"total\":100000,\"data\":[");
+		for (int i = 0; i < 100000; i++) {
+			large.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"first_name\":\"Name\"}");
+		}
+		byte[] body = large.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+		CountingStream stream = new CountingStream(body);
+		Map<String, JsonNode> values = JsonPointerExtractor.extract(stream, Arrays.asList("/total", "/data/2/id"));
+		Assertion.assertEquals(values.get("/total").asInt(), 100000);
+		Assertion.assertEquals(values.get("/data/2/id").asInt(), 2);
+		Assertion.assertTrue(stream.read < body.length / 10,
+				"Read " + stream.read + " of " + body.length + " bytes after every path was resolved");
+	}
+
+	@Test
+	public void testStreamingValidation() {
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		expected.put("/data/0/name/first", "michael");
+		expected.put("/total", "12");
+		ApiCommonStatus.validateValuesAsPerJsonPaths(new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)),
+				expected);
+		expected.put("/data/1/id", "9");
+		boolean failed = false;
+		try {
+			ApiCommonStatus.validateValuesAsPerJsonPaths(
+					new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)), expected);
+		} catch (AssertionError e) {
+			failed = e.getMessage().contains("/data/1/id - Expected Value (9) != Actual Value (8)");
+		}
+		Assertion.assertTrue(failed, "Mismatch was not reported");
+	}
+
+	/** Counts the bytes handed to the parser **/
+	private static class CountingStream extends InputStream {
+		private final ByteArrayInputStream in;
+		private int read = 0;
+
+		private CountingStream(byte[] body) {
+			in = new ByteArrayInputStream(body);
+		}
+
+		@Override
+		public int read() {
+			int b = in.read();
+			if (b != -1)
+				read++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			// small reads, so the count reflects where parsing stopped
+			int count = in.read(b, off, Math.min(len, 512));
+			if (count > 0)
+				read += count;
+			return count;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.celos.qa.api.test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.Config;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.endpPoints.CommonBaseApi;
+import com.celos.qa.api.fields.ApiFields;
+import com.celos.qa.api.load.LoadProfile;
+import com.celos.qa.api.load.LoadReport;
+import com.celos.qa.api.load.LoadRunner;
+import com.celos.qa.api.load.LoadScenario;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class LoadRunnerTest {
+
+	private static Map<String, JsonNode> response(int code) {
+		ObjectNode status = TestContainer.mapper.createObjectNode();
+		status.put(ApiFields.RESPONSE_FIELD_CODE.field(), code);
+		status.put(ApiFields.RESPONSE_FIELD_REASON.field(), code == 200 ? "OK" : "Internal Server Error");
+		return Collections.<String, JsonNode>singletonMap(ApiFields.RESPONSE_FIELD_STATUS.field(), status);
+	}
+
+	@Test
+	public void testKeepsArrivalRateAndCountsErrors() {
+		final AtomicInteger calls = new AtomicInteger();
+		LoadScenario scenario = new LoadScenario("synthetic").operation("call", 1, () -> {
+			Thread.sleep(5);
+			return response(calls.incrementAndGet() % 10 == 0 ? 500 : 200);
+		});
+		LoadReport report = new LoadRunner(100).run(scenario, LoadProfile.constant(200, 1, TimeUnit.SECONDS));
+		Assertion.assertEquals(report.getScheduledCount(), 200L);
+		Assertion.assertEquals(report.getCompletedCount(), 200L);
+		Assertion.assertEquals(report.getErrorCount(), 20L);
+		Assertion.assertEquals(report.getErrors(), Collections.singletonMap("IllegalStateException: Status 500", 20L));
+		report.assertErrorRateAtMost(0.1);
+		Assertion.assertTrue(report.getLatencyMillis(50) >= 5, report.toString());
+	}
+
+	@Test
+	public void testCallsAfterDrainTimeoutAreNotRecorded() throws Exception {
+		final AtomicInteger finished = new AtomicInteger();
+		LoadScenario scenario = new LoadScenario("slow").operation("call", 1, () -> {
+			// Outlasts the drain timeout even when the runner interrupts it
+			long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+			while (System.nanoTime() < end) {
+				LockSupport.parkNanos(end - System.nanoTime());
+			}
+			finished.incrementAndGet();
+			return response(200);
+		});
+		LoadReport report = new LoadRunner(10).setDrainTimeoutMs(50).run(scenario,
+				LoadProfile.constant(100, 100, TimeUnit.MILLISECONDS));
+		long completed = report.getCompletedCount();
+		long errors = report.getErrorCount();
+		Thread.sleep(700);
+		Assertion.assertEquals(finished.get(), 10, "Calls did not all finish");
+		Assertion.assertEquals(report.getCompletedCount(), completed, "Report changed after the run");
+		Assertion.assertEquals(report.getErrorCount(), errors, "Report changed after the run");
+	}
+
+	@Test
+	public void testLatencyIncludesTimeBehindSchedule() {
+		// One slot and 20ms calls at 100/s: the schedule runs ahead of the
+		// calls, and that queueing shows in the latency, not in fewer calls
+		LoadScenario scenario = new LoadScenario("saturated").operation("call", 1, () -> {
+			Thread.sleep(20);
+			return response(200);
+		});
+		LoadReport report = new LoadRunner(1).run(scenario, LoadProfile.constant(100, 500, TimeUnit.MILLISECONDS));
+		Assertion.assertEquals(report.getScheduledCount(), 50L);
+		Assertion.assertTrue(report.getLatencyMillis(99) > 2 * report.getServiceTimeMillis(99), report.toString());
+	}
+
+	@Test
+	public void testEndpointCallsAreNotLogged() {
+		StubServer server = new StubServer().start(0);
+		server.route(new StubRoute("GET", "/api/users").jsonBody("{\"page\":1}"));
+		System.setProperty(ConfigMapping.URL_API_WDPRO_STARWAVE, server.getBaseUrl());
+		Config.getInstance().reload();
+		try {
+			LoadScenario scenario = new LoadScenario("users").endpoint("getUsers", 1, CommonBaseApi::requestUsersData);
+			int lines = Reporter.getOutput().size();
+			LoadReport report = new LoadRunner(10).run(scenario, LoadProfile.constant(50, 500, TimeUnit.MILLISECONDS));
+			Assertion.assertEquals(report.getCompletedCount(), 25L);
+			Assertion.assertEquals(report.getErrorCount(), 0L, report.toString());
+			// The run itself reports a few lines, its calls none
+			for (String line : Reporter.getOutput().subList(lines, Reporter.getOutput().size())) {
+				Assertion.assertFalse(line.startsWith(">>>") || line.startsWith("Request Executed"),
+						"Load call logged to the report: " + line);
+			}
+		} finally {
+			System.clearProperty(ConfigMapping.URL_API_WDPRO_STARWAVE);
+			Config.getInstance().reload();
+			server.stop();
+		}
+	}
+}
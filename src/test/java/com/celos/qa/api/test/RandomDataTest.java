@@ -0,0 +1,72 @@
+package com.celos.qa.api.test;
+
+import java.util.SplittableRandom;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.RandomData;
+import com.celos.qa.api.commonUtils.TestCoreUtils;
+
+public class RandomDataTest {
+
+	@AfterMethod(alwaysRun = true)
+	public void resetGenerator() {
+		RandomData.reset();
+	}
+
+	@Test
+	public void testSameLabelReplaysSameValues() {
+		RandomData.reseed("RandomDataTest.replay[1]#0");
+		long first = RandomData.current().nextLong();
+		String name = RandomData.name();
+		RandomData.reseed("RandomDataTest.other[1]#0");
+		RandomData.current().nextLong();
+
+		RandomData.reseed("RandomDataTest.replay[1]#0");
+		Assertion.assertEquals(RandomData.current().nextLong(), first, "Reseed with the same label drew other values");
+		Assertion.assertEquals(RandomData.name(), name);
+
+		// "Aa" and "BB" share a String hash code
+		RandomData.reseed("Aa");
+		long aa = RandomData.current().nextLong();
+		RandomData.reseed("BB");
+		Assertion.assertNotEquals(RandomData.current().nextLong(), aa, "Labels with equal hash codes share a generator");
+	}
+
+	@Test
+	public void testEachResetDrawsNewValues() {
+		RandomData.reseed("RandomDataTest.reset");
+		long initial = RandomData.current().nextLong();
+		TestCoreUtils.resetRandomSeed();
+		long first = RandomData.current().nextLong();
+		TestCoreUtils.resetRandomSeed();
+		long second = RandomData.current().nextLong();
+		Assertion.assertNotEquals(first, initial, "Reset replayed the values drawn before it");
+		Assertion.assertNotEquals(second, first, "Two resets drew the same values");
+
+		// Resets replay like the rest of the test
+		RandomData.reseed("RandomDataTest.reset");
+		RandomData.current().nextLong();
+		RandomData.reset();
+		Assertion.assertEquals(RandomData.current().nextLong(), first);
+	}
+
+	@Test
+	public void testRandomNameBuildsOneName() {
+		RandomData.reseed("RandomDataTest.name");
+		String name = TestCoreUtils.randomName();
+		long after = RandomData.current().nextLong();
+
+		RandomData.reseed("RandomDataTest.name");
+		SplittableRandom random = RandomData.current();
+		int length = random.nextInt(6) + 6;
+		for (int i = 0; i < length; i++) {
+			random.nextInt(TestCoreUtils.charSet_alpha_upperCase.length());
+		}
+		Assertion.assertEquals(name.length(), length);
+		Assertion.assertTrue(name.matches("[A-Z]{6,11}"), "Unexpected name " + name);
+		Assertion.assertEquals(random.nextLong(), after, "randomName drew more than one name");
+	}
+}
@@ -0,0 +1,116 @@
+package com.celos.qa.api.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.replay.ExchangeStore;
+import com.celos.qa.api.replay.ReplayFilter;
+import com.celos.qa.api.replay.ReplayMode;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.Response;
+
+public class ReplayTest {
+
+	private StubServer server;
+	private File file;
+
+	@BeforeClass
+	public void startServer() throws IOException {
+		server = new StubServer().start(0);
+		server.route(new StubRoute("GET", "/api/users").jsonBody("{\"page\":2}").header("X-Trace", "abc"));
+		server.route(new StubRoute("POST", "/api/users").status(201).jsonBody("{\"id\":\"7\"}"));
+		server.route(new StubRoute("DELETE", "/api/users/7").status(204));
+		file = Files.createTempFile("exchanges", ".bin").toFile();
+		file.delete();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+		file.delete();
+	}
+
+	@Test
+	public void testRecordThenReplayOffline() throws IOException {
+		ExchangeStore recording = new ExchangeStore(file);
+		Client client = ClientBuilder.newClient().register(new ReplayFilter(ReplayMode.RECORD, recording));
+		String baseUrl = server.getBaseUrl();
+		try {
+			Response get = client.target(baseUrl).path("/api/users").queryParam("page", "2").queryParam("a", "b")
+					.request().get();
+			Assertion.assertEquals(get.readEntity(String.class), "{\"page\":2}");
+			Response post = client.target(baseUrl).path("/api/users").request()
+					.post(Entity.json("{\"name\":\"morpheus\"}"));
+			Assertion.assertEquals(post.getStatus(), 201);
+			post.close();
+			client.target(baseUrl).path("/api/users/7").request().delete().close();
+		} finally {
+			client.close();
+			recording.close();
+		}
+		server.stop();
+
+		ExchangeStore replaying = new ExchangeStore(file);
+		Assertion.assertEquals(replaying.size(), 3);
+		client = ClientBuilder.newClient().register(new ReplayFilter(ReplayMode.REPLAY, replaying));
+		try {
+			// query parameters in another order & another host match the recording
+			Response get = client.target("http://replay.invalid").path("/api/users").queryParam("a", "b")
+					.queryParam("page", "2").request().get();
+			Assertion.assertEquals(get.getStatus(), 200);
+			Assertion.assertEquals(get.getHeaderString("X-Trace"), "abc");
+			Assertion.assertEquals(get.readEntity(String.class), "{\"page\":2}");
+			Response post = client.target(baseUrl).path("/api/users").request()
+					.post(Entity.json("{\"name\":\"morpheus\"}"));
+			Assertion.assertEquals(post.getStatus(), 201);
+			Assertion.assertEquals(post.readEntity(String.class), "{\"id\":\"7\"}");
+			Response delete = client.target(baseUrl).path("/api/users/7").request().delete();
+			Assertion.assertEquals(delete.getStatus(), 204);
+			Assertion.assertTrue(!delete.hasEntity(), "Replayed a body for a response without one");
+		} finally {
+			client.close();
+		}
+	}
+
+	@Test(dependsOnMethods = "testRecordThenReplayOffline")
+	public void testUnrecordedRequestFails() {
+		Client client = ClientBuilder.newClient().register(new ReplayFilter(ReplayMode.REPLAY, new ExchangeStore(file)));
+		boolean failed = false;
+		try {
+			client.target("http://replay.invalid").path("/api/users").request()
+					.post(Entity.json("{\"name\":\"neo\"}")).close();
+		} catch (Throwable e) {
+			failed = true;
+		} finally {
+			client.close();
+		}
+		Assertion.assertTrue(failed, "An unrecorded request was answered");
+	}
+
+	@Test(dependsOnMethods = "testRecordThenReplayOffline")
+	public void testTruncatedRecordIsIgnored() throws IOException {
+		File truncated = Files.createTempFile("exchanges", ".bin").toFile();
+		try {
+			Files.copy(file.toPath(), truncated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			try (RandomAccessFile raf = new RandomAccessFile(truncated, "rw")) {
+				raf.setLength(raf.length() - 3);
+			}
+			Assertion.assertEquals(new ExchangeStore(truncated).size(), 2);
+		} finally {
+			truncated.delete();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.celos.qa.api.test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.Config;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.data.ConfigMapping;
+import com.celos.qa.api.metrics.RequestMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class RequestMetricsTest {
+
+	private static final String HOST = "metrics-test:8080";
+
+	@Test
+	public void testIdSegmentsNormalized() {
+		Assertion.assertEquals(RequestMetrics.series("GET", HOST, "/api/users/123", "2xx").getEndpoint(),
+				"/api/users/{id}");
+		Assertion.assertEquals(RequestMetrics.series("GET", HOST,
+				"/api/users/3f2504e0-4f89-11d3-9a0c-0305e82c3301/orders/deadbeefdeadbeef", "2xx").getEndpoint(),
+				"/api/users/{id}/orders/{id}");
+		Assertion.assertEquals(RequestMetrics.series("GET", HOST, "/api/v2/users", "2xx").getEndpoint(), "/api/v2/users");
+		Assertion.assertEquals(RequestMetrics.series("GET", HOST, "", "2xx").getEndpoint(), "/");
+		Assertion.assertSame(RequestMetrics.series("GET", HOST, "/api/users/7", "2xx"),
+				RequestMetrics.series("GET", HOST, "/api/users/8", "2xx"), "Ids of one endpoint made two series");
+	}
+
+	@Test
+	public void testExportedJsonAndPrometheus() throws Exception {
+		RequestMetrics.Series ok = RequestMetrics.series("POST", HOST, "/export/42", "2xx");
+		RequestMetrics.Series failed = RequestMetrics.series("POST", HOST, "/export/42", RequestMetrics.STATUS_ERROR);
+		for (int i = 1; i <= 100; i++) {
+			ok.record(TimeUnit.MILLISECONDS.toNanos(i), 10);
+		}
+		ok.addBytesIn(500);
+		failed.record(TimeUnit.MILLISECONDS.toNanos(5), 0);
+
+		Path dir = Files.createTempDirectory("metrics-test");
+		System.setProperty(ConfigMapping.CLIENT_METRICS_DIR, dir.toString());
+		Config.getInstance().reload();
+		try {
+			RequestMetrics.export("metricsSuite");
+			JsonNode json = TestContainer.mapper.readTree(dir.resolve("request-metrics.json").toFile());
+			Assertion.assertEquals(json.get("suite").asText(), "metricsSuite");
+			JsonNode series = null;
+			for (JsonNode node : json.get("series")) {
+				if (HOST.equals(node.get("host").asText()) && "/export/{id}".equals(node.get("endpoint").asText())
+						&& "2xx".equals(node.get("status").asText()))
+					series = node;
+			}
+			Assertion.assertNotNull(series, "Series missing from " + json);
+			Assertion.assertEquals(series.get("count").asLong(), 100L);
+			Assertion.assertEquals(series.get("bytesOut").asLong(), 1000L);
+			Assertion.assertEquals(series.get("bytesIn").asLong(), 500L);
+			Assertion.assertTrue(Math.abs(series.at("/latencyMs/p50").asDouble() - 50) < 0.1,
+					"p50 was " + series.at("/latencyMs/p50"));
+			Assertion.assertTrue(Math.abs(series.at("/latencyMs/max").asDouble() - 100) < 0.1,
+					"max was " + series.at("/latencyMs/max"));
+			Assertion.assertTrue(json.at("/resilience/retries").isNumber(), "Resilience counters missing");
+
+			String prometheus = new String(Files.readAllBytes(dir.resolve("request-metrics.prom")), StandardCharsets.UTF_8);
+			String labels = "method=\"POST\",host=\"" + HOST + "\",endpoint=\"/export/{id}\"";
+			Assertion.assertTrue(prometheus.contains("# TYPE api_request_latency_seconds summary\n"), prometheus);
+			Assertion.assertTrue(prometheus.contains(
+					"api_request_latency_seconds{" + labels + ",status=\"2xx\",quantile=\"0.999\"} 0.1"), prometheus);
+			Assertion.assertTrue(prometheus.contains("api_request_latency_seconds_count{" + labels + ",status=\"2xx\"} 100\n"),
+					prometheus);
+			Assertion.assertTrue(prometheus.contains("api_request_sent_bytes_total{" + labels + ",status=\"2xx\"} 1000\n"),
+					prometheus);
+			Assertion.assertTrue(prometheus.contains("api_request_errors_total{" + labels + ",status=\"error\"} 1\n"),
+					prometheus);
+			Assertion.assertFalse(prometheus.contains("api_request_errors_total{" + labels + ",status=\"2xx\"}"),
+					"Successful series counted as errors");
+
+			RequestMetrics.export("metricsSuite");
+			Assertion.assertEquals(ok.getCount(), 100L, "Export reset the cumulative counts");
+		} finally {
+			System.clearProperty(ConfigMapping.CLIENT_METRICS_DIR);
+			Config.getInstance().reload();
+			for (File file : dir.toFile().listFiles()) {
+				file.delete();
+			}
+			Files.delete(dir);
+		}
+	}
+}
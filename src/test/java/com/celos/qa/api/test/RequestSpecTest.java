@@ -0,0 +1,116 @@
+package com.celos.qa.api.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.TestContainer;
+import com.celos.qa.api.restClient.ApiResponse;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.RequestHeaders;
+import com.celos.qa.api.restClient.RequestSpec;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+public class RequestSpecTest {
+
+	private StubServer server;
+
+	@BeforeClass
+	public void startServer() {
+		server = new StubServer().start(0);
+		server.route(new StubRoute("GET", "/api/users").jsonBody("{\"page\":1}"));
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	public void testDerivingLeavesOriginalUnchanged() {
+		RequestSpec base = RequestHeaders.addHeaderAcceptApplicationJson(RequestSpec.builder())
+				.header("X-Conversation-Id", "base").queryParam("page", "1").build();
+		RequestSpec derived = base.with().header("X-Conversation-Id", "derived").header("Accept", null)
+				.queryParam("per_page", "6").body("{}").build();
+		Assertion.assertEquals(base.getHeader("X-Conversation-Id"), "base");
+		Assertion.assertEquals(base.getHeader("Accept"), "application/json");
+		Assertion.assertEquals(base.getQueryParamCount(), 1);
+		Assertion.assertTrue(base.getEntity() == null, "Base spec gained a body");
+		Assertion.assertEquals(derived.getHeader("X-Conversation-Id"), "derived");
+		Assertion.assertTrue(derived.getHeader("Accept") == null, "Removed header is still set");
+		Assertion.assertEquals(derived.getQueryParamCount(), 2);
+		Assertion.assertEquals(derived.getEntity().getMediaType(), MediaType.APPLICATION_JSON_TYPE);
+		Assertion.assertEquals(base.withQueryParam("page", "2").getQueryParamValue(0), "2");
+		Assertion.assertEquals(base.headersToString(), "{Accept=application/json, X-Conversation-Id=base}");
+	}
+
+	@Test
+	public void testInvokeAgainstStub() {
+		JsonRestClient client = new JsonRestClient();
+		client.setHeader("X-Ignored", "true");
+		ApiResponse response = client.invoke("GET", RequestSpec.EMPTY.withQueryParam("page", "1"),
+				server.getBaseUrl(), "/api/users");
+		Assertion.assertEquals(response.getStatusCode(), 200);
+		Assertion.assertEquals(response.getBody().get("page").asInt(), 1);
+	}
+
+	@Test
+	public void testSharedClientAcrossThreads() throws Exception {
+		ClientConfig config = new ClientConfig();
+		config.register(new EchoFilter());
+		final JsonRestClient client = new JsonRestClient();
+		client.setConfig(config);
+		final RequestSpec base = RequestSpec.builder().header("Accept", "application/json").build();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < 64; i++) {
+				final String id = "worker-" + i;
+				results.add(pool.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						ApiResponse response = client.invoke("GET", base.with().header("X-Conversation-Id", id)
+								.queryParam("id", id).build(), server.getBaseUrl(), "/api/users");
+						return id.equals(response.getBody().get("header").asText())
+								&& id.equals(response.getBody().get("query").asText())
+								&& "application/json".equals(response.getBody().get("accept").asText());
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				Assertion.assertTrue(result.get(), "A request carried another thread's values");
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		Assertion.assertEquals(base.getHeaderCount(), 1);
+	}
+
+	/** Answers every request with the values it was sent, without reaching the server **/
+	private static class EchoFilter implements ClientRequestFilter {
+		@Override
+		public void filter(ClientRequestContext request) {
+			ObjectNode echo = TestContainer.mapper.createObjectNode();
+			echo.put("header", request.getHeaderString("X-Conversation-Id"));
+			echo.put("accept", request.getHeaderString("Accept"));
+			echo.put("query", request.getUri().getQuery().replace("id=", ""));
+			request.abortWith(Response.ok(echo.toString(), MediaType.APPLICATION_JSON_TYPE).build());
+		}
+	}
+}
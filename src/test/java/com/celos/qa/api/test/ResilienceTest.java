@@ -0,0 +1,108 @@
+package com.celos.qa.api.test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.metrics.RequestMetrics;
+import com.celos.qa.api.restClient.ApiResponse;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.RequestSpec;
+import com.celos.qa.api.restClient.RetryBudget;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.core.Response;
+
+public class ResilienceTest {
+
+	@Test
+	public void testRetriesUntilSuccess() {
+		Script script = new Script(0, 503, -1, 200);
+		JsonRestClient client = new FunctionConnector("scripted", script).client();
+		client.setMaxRetries(3);
+		long retries = RequestMetrics.getRetries();
+		ApiResponse response = client.invoke("GET", RequestSpec.EMPTY, "http://scripted", "/api/users");
+		Assertion.assertEquals(response.getStatusCode(), 200);
+		Assertion.assertEquals(script.calls.get(), 3);
+		Assertion.assertEquals(RequestMetrics.getRetries() - retries, 2L);
+	}
+
+	@Test
+	public void testBodyOrUnsafeRequestIsNotRetried() {
+		Script script = new Script(0, 503, 200);
+		JsonRestClient client = new FunctionConnector("scripted", script).client();
+		client.setMaxRetries(2);
+		ApiResponse response = client.invoke("POST", RequestSpec.EMPTY.withBody("{}"), "http://scripted", "/api/users");
+		Assertion.assertEquals(response.getStatusCode(), 503);
+		Assertion.assertEquals(script.calls.get(), 1);
+	}
+
+	@Test
+	public void testHedgeAnswersFirst() {
+		Script script = new Script(3000, 200);
+		JsonRestClient client = new FunctionConnector("scripted", script).client();
+		client.setHedging(true);
+		long hedges = RequestMetrics.getHedges();
+		long wins = RequestMetrics.getHedgeWins();
+		long start = System.nanoTime();
+		ApiResponse response = client.invoke("GET", RequestSpec.EMPTY, "http://scripted", "/api/users");
+		long elapsedMs = (System.nanoTime() - start) / 1000000;
+		Assertion.assertEquals(response.getStatusCode(), 200);
+		Assertion.assertTrue(elapsedMs < 2000, "Hedged request took " + elapsedMs + " ms");
+		Assertion.assertEquals(script.calls.get(), 2);
+		Assertion.assertNotSame(script.requests.get(1), script.requests.get(0), "Hedge sent the primary's request");
+		Assertion.assertEquals(RequestMetrics.getHedges() - hedges, 1L);
+		Assertion.assertEquals(RequestMetrics.getHedgeWins() - wins, 1L);
+	}
+
+	@Test
+	public void testBudgetCapsRetries() {
+		RetryBudget budget = new RetryBudget(0.5, 1);
+		Assertion.assertTrue(budget.tryAcquire(), "Reserve was not available");
+		Assertion.assertFalse(budget.tryAcquire(), "Budget allowed more than its reserve");
+		budget.onRequest();
+		budget.onRequest();
+		Assertion.assertTrue(budget.tryAcquire(), "Requests did not earn a retry");
+		Assertion.assertFalse(budget.tryAcquire(), "Budget allowed more than its ratio");
+		Assertion.assertEquals(budget.getSpent(), 2L);
+	}
+
+	/**
+	 * Answers successive calls with the given statuses, -1 failing without a
+	 * response; the first call is delayed by firstDelayMs
+	 **/
+	private static class Script implements Function<ClientRequest, ClientResponse> {
+		private final long firstDelayMs;
+		private final int[] statuses;
+		private final AtomicInteger calls = new AtomicInteger();
+		private final List<ClientRequest> requests = new CopyOnWriteArrayList<ClientRequest>();
+
+		private Script(long firstDelayMs, int... statuses) {
+			this.firstDelayMs = firstDelayMs;
+			this.statuses = statuses;
+		}
+
+		@Override
+		public ClientResponse apply(ClientRequest request) {
+			requests.add(request);
+			int call = calls.getAndIncrement();
+			if (call == 0 && firstDelayMs > 0) {
+				try {
+					Thread.sleep(firstDelayMs);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			int status = statuses[Math.min(call, statuses.length - 1)];
+			if (status < 0)
+				throw new ProcessingException("Connection reset");
+			return FunctionConnector.json(request, Response.Status.fromStatusCode(status), "{\"call\":" + call + "}");
+		}
+	}
+}
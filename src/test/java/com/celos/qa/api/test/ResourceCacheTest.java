@@ -0,0 +1,88 @@
+package com.celos.qa.api.test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.ResourceCache;
+
+public class ResourceCacheTest {
+
+	private static final String TEMPLATE = "/templates/createUser.json";
+	private static final String USERS = "/stubs/users.json";
+	private static final String ROUTES = "/stubs/routes.json";
+
+	private long maxBytes;
+
+	@BeforeMethod
+	public void clearCache() {
+		maxBytes = ResourceCache.getMaxBytes();
+		ResourceCache.clear();
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void restoreBound() {
+		ResourceCache.setMaxBytes(maxBytes);
+		ResourceCache.clear();
+	}
+
+	@Test
+	public void testHitAndMissCounters() {
+		long hits = ResourceCache.getHitCount();
+		long misses = ResourceCache.getMissCount();
+		ByteBuffer first = ResourceCache.getBytes(USERS);
+		ByteBuffer second = ResourceCache.getBytes(USERS);
+		Assertion.assertEquals(ResourceCache.getMissCount() - misses, 1L);
+		Assertion.assertEquals(ResourceCache.getHitCount() - hits, 1L);
+		Assertion.assertEquals(second, first);
+		Assertion.assertTrue(first.isReadOnly(), "Cached resource was served writable");
+		Assertion.assertEquals(ResourceCache.size(), 1);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvictedOverBound() {
+		long template = ResourceCache.getBytes(TEMPLATE).remaining();
+		long users = ResourceCache.getBytes(USERS).remaining();
+		long routes = ResourceCache.getBytes(ROUTES).remaining();
+		ResourceCache.clear();
+		ResourceCache.setMaxBytes(template + Math.max(users, routes));
+		long evictions = ResourceCache.getEvictionCount();
+
+		ResourceCache.getBytes(TEMPLATE);
+		ResourceCache.getBytes(USERS);
+		ResourceCache.getBytes(TEMPLATE);
+		ResourceCache.getBytes(ROUTES);
+		Assertion.assertEquals(ResourceCache.getEvictionCount() - evictions, 1L);
+		Assertion.assertEquals(ResourceCache.getTotalBytes(), template + routes);
+
+		long misses = ResourceCache.getMissCount();
+		ResourceCache.getBytes(TEMPLATE);
+		Assertion.assertEquals(ResourceCache.getMissCount(), misses, "Recently used resource was evicted");
+		ResourceCache.getBytes(USERS);
+		Assertion.assertEquals(ResourceCache.getMissCount() - misses, 1L, "Least recently used resource was kept");
+	}
+
+	@Test
+	public void testDecodedTextCountsAgainstBound() {
+		long raw = ResourceCache.getBytes(TEMPLATE).remaining();
+		Assertion.assertEquals(ResourceCache.getTotalBytes(), raw);
+		String text = ResourceCache.getText(TEMPLATE);
+		Assertion.assertEquals(ResourceCache.getTotalBytes(), raw + 2L * text.length());
+
+		ResourceCache.setMaxBytes(raw + 2L * text.length() - 1);
+		Assertion.assertEquals(ResourceCache.size(), 0, "Cache kept text past its bound");
+		Assertion.assertEquals(ResourceCache.getTotalBytes(), 0L);
+	}
+
+	@Test
+	public void testLineBreaksNormalized() {
+		Assertion.assertEquals(ResourceCache.getText("/data/lineBreaks.txt"), "first\nsecond\nthird");
+		ByteBuffer raw = ResourceCache.getBytes("/data/lineBreaks.txt");
+		Assertion.assertEquals(StandardCharsets.UTF_8.decode(raw).toString(), "first\r\nsecond\rthird\r\n",
+				"Raw bytes were altered");
+	}
+}
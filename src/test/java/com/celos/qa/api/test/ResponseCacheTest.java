@@ -0,0 +1,260 @@
+package com.celos.qa.api.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.cache.ResponseCache;
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.metrics.RequestMetrics;
+import com.celos.qa.api.restClient.ApiResponse;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.RequestHeaders;
+import com.celos.qa.api.restClient.RequestSpec;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.Response;
+
+public class ResponseCacheTest {
+
+	private static final String USERS = "{\"data\":[{\"id\":1,\"first_name\":\"George\"}]}";
+
+	@BeforeMethod
+	public void clearCache() {
+		ResponseCache.getInstance().clear();
+	}
+
+	@Test
+	public void testFreshResponseServedFromCache() {
+		StubServer server = new StubServer().start(0);
+		try {
+			server.route(new StubRoute("GET", "/api/users").header("Cache-Control", "max-age=60")
+					.header("ETag", "\"v1\"").jsonBody(USERS));
+			JsonRestClient client = new JsonRestClient();
+			client.setResponseCache(true);
+			long hits = RequestMetrics.getCacheHits();
+			for (int i = 0; i < 3; i++) {
+				ApiResponse response = client.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/api/users");
+				Assertion.assertEquals(response.getStatusCode(), 200);
+				Assertion.assertEquals(response.getBody().get("data").get(0).get("id").asInt(), 1);
+			}
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 1L);
+			Assertion.assertEquals(RequestMetrics.getCacheHits() - hits, 2L);
+
+			client.invoke("GET", RequestSpec.builder().header("Authorization", "Bearer other").build(),
+					server.getBaseUrl(), "/api/users");
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 2L,
+					"Response cached for one identity was served to another");
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testVaryAcceptEncodingServedWithCompression() throws Exception {
+		StubServer server = new StubServer().start(0);
+		try {
+			ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+			try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+				gzip.write(USERS.getBytes(StandardCharsets.UTF_8));
+			}
+			server.route(new StubRoute("GET", "/api/users").header("Content-Type", "application/json")
+					.header("Content-Encoding", "gzip").header("Vary", "Accept-Encoding")
+					.header("Cache-Control", "max-age=60").body(gzipped.toByteArray()));
+			JsonRestClient client = new JsonRestClient();
+			client.setResponseCache(true);
+			long hits = RequestMetrics.getCacheHits();
+			for (int i = 0; i < 3; i++) {
+				ApiResponse response = client.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/api/users");
+				Assertion.assertEquals(response.getBodyAsString(), USERS);
+			}
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 1L,
+					"Response varying on Accept-Encoding was not served from the cache");
+			Assertion.assertEquals(RequestMetrics.getCacheHits() - hits, 2L);
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testApiKeyAndCookieAreNotShared() {
+		StubServer server = new StubServer().start(0);
+		try {
+			server.route(new StubRoute("GET", "/api/users").header("Cache-Control", "max-age=60").jsonBody(USERS));
+			JsonRestClient client = new JsonRestClient();
+			client.setResponseCache(true);
+			RequestSpec first = RequestHeaders.addHeaderXAuthorizationGcApiKey(RequestSpec.builder(), "first").build();
+			RequestSpec second = RequestHeaders.addHeaderXAuthorizationGcApiKey(RequestSpec.builder(), "second").build();
+			client.invoke("GET", first, server.getBaseUrl(), "/api/users");
+			client.invoke("GET", first, server.getBaseUrl(), "/api/users");
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 1L);
+			client.invoke("GET", second, server.getBaseUrl(), "/api/users");
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 2L,
+					"Response cached for one API key was served to another");
+
+			client.invoke("GET", RequestSpec.builder().header("Cookie", "session=a").build(), server.getBaseUrl(),
+					"/api/users");
+			client.invoke("GET", RequestSpec.builder().header("Cookie", "session=b").build(), server.getBaseUrl(),
+					"/api/users");
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 4L,
+					"Response cached for one session was served to another");
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testStaleResponseRevalidatedWithETag() {
+		ConditionalProvider provider = new ConditionalProvider();
+		ClientConfig config = new ClientConfig();
+		config.connectorProvider(provider);
+		JsonRestClient client = new JsonRestClient();
+		client.setConfig(config);
+		client.setResponseCache(true);
+		long revalidated = RequestMetrics.getCacheRevalidated();
+
+		ApiResponse first = client.invoke("GET", RequestSpec.EMPTY, "http://origin", "/api/users");
+		Assertion.assertEquals(first.getBodyAsString(), USERS);
+		for (int i = 0; i < 2; i++) {
+			ApiResponse again = client.invoke("GET", RequestSpec.EMPTY, "http://origin", "/api/users");
+			Assertion.assertEquals(again.getStatusCode(), 200);
+			Assertion.assertEquals(again.getBodyAsString(), USERS);
+			Assertion.assertEquals(again.getHeaderString("ETag"), "\"v1\"");
+		}
+		Assertion.assertEquals(provider.full.get(), 1);
+		Assertion.assertEquals(provider.notModified.get(), 2);
+		Assertion.assertEquals(RequestMetrics.getCacheRevalidated() - revalidated, 2L);
+	}
+
+	@Test
+	public void testNoStoreAndUncachedClientsReachServer() {
+		StubServer server = new StubServer().start(0);
+		try {
+			server.route(new StubRoute("GET", "/noStore").header("Cache-Control", "no-store").header("ETag", "\"v1\"")
+					.jsonBody(USERS));
+			server.route(new StubRoute("GET", "/cacheable").header("Cache-Control", "max-age=60").jsonBody(USERS));
+			JsonRestClient caching = new JsonRestClient();
+			caching.setResponseCache(true);
+			JsonRestClient plain = new JsonRestClient();
+			for (int i = 0; i < 2; i++) {
+				caching.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/noStore");
+				plain.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/cacheable");
+			}
+			Assertion.assertEquals(server.getRoute("GET", "/noStore").getHitCount(), 2L);
+			Assertion.assertEquals(server.getRoute("GET", "/cacheable").getHitCount(), 2L);
+
+			caching.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/cacheable");
+			caching.invoke("GET", RequestSpec.builder().header("Cache-Control", "no-cache").build(),
+					server.getBaseUrl(), "/cacheable");
+			Assertion.assertEquals(server.getRoute("GET", "/cacheable").getHitCount(), 4L,
+					"Request asking for no-cache was served from the cache");
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testUnsafeMethodInvalidates() {
+		StubServer server = new StubServer().start(0);
+		try {
+			server.route(new StubRoute("GET", "/api/users").header("Cache-Control", "max-age=60").jsonBody(USERS));
+			server.route(new StubRoute("POST", "/api/users").status(201).jsonBody("{\"id\":\"2\"}"));
+			JsonRestClient client = new JsonRestClient();
+			client.setResponseCache(true);
+			client.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/api/users");
+			client.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/api/users");
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 1L);
+			client.invoke("POST", RequestSpec.EMPTY.withBody("{\"name\":\"neo\"}"), server.getBaseUrl(), "/api/users");
+			client.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/api/users");
+			Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 2L);
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvictedOverBound() {
+		ResponseCache cache = new ResponseCache(100, 60);
+		cache.put("a", entry(40));
+		cache.put("b", entry(40));
+		cache.get("a");
+		cache.put("c", entry(40));
+		Assertion.assertNotNull(cache.get("a"));
+		Assertion.assertNull(cache.get("b"));
+		Assertion.assertNotNull(cache.get("c"));
+		Assertion.assertEquals(cache.getBytes(), 80L);
+		Assertion.assertFalse(cache.put("d", entry(61)), "Body over the entry bound was kept");
+		Assertion.assertEquals(cache.size(), 2);
+	}
+
+	private static ResponseCache.Entry entry(int bodyBytes) {
+		MultivaluedHashMap<String, String> headers = new MultivaluedHashMap<String, String>();
+		headers.putSingle("Cache-Control", "max-age=60");
+		return new ResponseCache.Entry(200, "OK", headers, new byte[bodyBytes], Collections.<String, String>emptyMap());
+	}
+
+	/** Answers with a body tagged "v1" that is stale at once, and 304 when asked If-None-Match "v1" **/
+	private static class ConditionalProvider implements ConnectorProvider {
+		private final AtomicInteger full = new AtomicInteger();
+		private final AtomicInteger notModified = new AtomicInteger();
+
+		@Override
+		public Connector getConnector(Client client, Configuration runtimeConfig) {
+			return new Connector() {
+				@Override
+				public ClientResponse apply(ClientRequest request) {
+					ClientResponse response;
+					if ("\"v1\"".equals(request.getHeaderString("If-None-Match"))) {
+						notModified.incrementAndGet();
+						response = new ClientResponse(Response.Status.NOT_MODIFIED, request);
+					} else {
+						full.incrementAndGet();
+						response = new ClientResponse(Response.Status.OK, request);
+						response.getHeaders().add("Content-Type", "application/json");
+						response.setEntityStream(new ByteArrayInputStream(USERS.getBytes(StandardCharsets.UTF_8)));
+					}
+					response.getHeaders().add("Cache-Control", "max-age=0");
+					response.getHeaders().add("ETag", "\"v1\"");
+					return response;
+				}
+
+				@Override
+				public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+					try {
+						callback.response(apply(request));
+					} catch (RuntimeException e) {
+						callback.failure(e);
+					}
+					return CompletableFuture.completedFuture(null);
+				}
+
+				@Override
+				public String getName() {
+					return "conditional";
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+	}
+}
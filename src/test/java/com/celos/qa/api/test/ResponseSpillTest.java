@@ -0,0 +1,121 @@
+package com.celos.qa.api.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.testng.Reporter;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.endpPoints.CommonBaseApi;
+import com.celos.qa.api.restClient.ApiCommonStatus;
+import com.celos.qa.api.restClient.ApiResponse;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+
+import jakarta.ws.rs.core.MultivaluedHashMap;
+
+public class ResponseSpillTest {
+
+	private StubServer server;
+	private String largeBody;
+
+	@BeforeClass
+	public void startServer() {
+		StringBuilder body = new StringBuilder("{\"page\":1,\"data\":[");
+		for (int i = 0; i < 5000; i++) {
+			body.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"first_name\":\"Janet\"}");
+		}
+		largeBody = body.append("],\"total\":5000}").toString();
+		server = new StubServer().start(0);
+		server.route(new StubRoute("GET", "/api/users").jsonBody(largeBody));
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	public void testLargeBodyIsSpilled() throws Exception {
+		CommonBaseApi api = new CommonBaseApi(server.getBaseUrl());
+		api.setSpillThresholdBytes(16 * 1024);
+		ApiResponse response = (ApiResponse) api.requestUsersData();
+		Assertion.assertTrue(response.isSpilled(), "Body of " + largeBody.length() + " bytes was kept in memory");
+		Assertion.assertTrue(Files.exists(response.getBodyFile()), "Spilled body file is missing");
+		Assertion.assertEquals(response.getBodyLength(), (long) largeBody.length());
+		Assertion.assertEquals(response.getBody().at("/data/4999/id").asInt(), 4999);
+		Assertion.assertEquals(response.getBodyPreview(10), "{\"page\":1,");
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		expected.put("/data/10/first_name", "Janet");
+		try (InputStream stream = response.openBodyStream()) {
+			ApiCommonStatus.validateValuesAsPerJsonPaths(stream, expected);
+		}
+	}
+
+	@Test
+	public void testLargeBodyLoggedAsPreview() {
+		CommonBaseApi api = new CommonBaseApi(server.getBaseUrl());
+		api.setSpillThresholdBytes(0);
+		String logger = JsonRestClient.class.getName();
+		Level level = LogManager.getLogger(logger).getLevel();
+		ApiResponse response;
+		try {
+			Configurator.setLevel(logger, Level.INFO);
+			response = (ApiResponse) api.requestUsersData();
+		} finally {
+			Configurator.setLevel(logger, level);
+		}
+		Assertion.assertFalse(response.isSpilled(), "Body was spilled with spilling off");
+		String logged = null;
+		for (String line : Reporter.getOutput(Reporter.getCurrentTestResult())) {
+			if (line.startsWith("Response Body"))
+				logged = line;
+		}
+		Assertion.assertNotNull(logged, "Response body was not logged");
+		Assertion.assertTrue(logged.startsWith("Response Body (" + largeBody.length() + " bytes): {\"page\":1,"), logged);
+		Assertion.assertTrue(logged.length() < 2200, "Logged " + logged.length() + " characters of the body");
+	}
+
+	@Test
+	public void testExchangeNotLoggedWithInfoOff() {
+		CommonBaseApi api = new CommonBaseApi(server.getBaseUrl());
+		api.setHeader("X-Trace", "1");
+		String logger = JsonRestClient.class.getName();
+		Level level = LogManager.getLogger(logger).getLevel();
+		try {
+			Configurator.setLevel(logger, Level.WARN);
+			api.requestUsersData();
+		} finally {
+			Configurator.setLevel(logger, level);
+		}
+		for (String line : Reporter.getOutput(Reporter.getCurrentTestResult())) {
+			Assertion.assertFalse(line.startsWith("Request") || line.startsWith("Response"), "Logged with INFO off: " + line);
+		}
+	}
+
+	@Test
+	public void testBodyAtThresholdStaysInMemory() throws Exception {
+		byte[] body = "{\"id\":7}".getBytes(StandardCharsets.UTF_8);
+		ApiResponse atThreshold = ApiResponse.read(200, "OK", new MultivaluedHashMap<String, String>(),
+				new ByteArrayInputStream(body), StandardCharsets.UTF_8, body.length, null);
+		Assertion.assertFalse(atThreshold.isSpilled(), "Body at the threshold was spilled");
+		Assertion.assertEquals(atThreshold.getBodyAsString(), "{\"id\":7}");
+		ApiResponse overThreshold = ApiResponse.read(200, "OK", new MultivaluedHashMap<String, String>(),
+				new ByteArrayInputStream(body), StandardCharsets.UTF_8, body.length - 1, null);
+		Assertion.assertTrue(overThreshold.isSpilled(), "Body over the threshold was kept in memory");
+		Assertion.assertEquals(overThreshold.getBodyAsString(), "{\"id\":7}");
+		Assertion.assertEquals(overThreshold.getBody().get("id").asInt(), 7);
+		Files.delete(overThreshold.getBodyFile());
+	}
+}
@@ -0,0 +1,56 @@
+package com.celos.qa.api.test;
+
+import java.util.Map;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.endpPoints.CommonBaseApi;
+import com.celos.qa.api.fields.ApiFields;
+import com.celos.qa.api.restClient.ApiCommonStatus;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class StubServerTest {
+
+	private StubServer server;
+
+	@BeforeClass
+	public void startServer() {
+		server = new StubServer().start(0);
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void clearRoutes() {
+		server.clearRoutes();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	public void testServesCannedResponse() {
+		server.route(new StubRoute("GET", "/api/users").header("Content-Type", "application/json")
+				.bodyFile("/stubs/users.json"));
+		Map<String, JsonNode> response = new CommonBaseApi(server.getBaseUrl()).requestUsersData();
+		ApiCommonStatus.validateStatusOk(response.get(ApiFields.RESPONSE_FIELD_STATUS.field()));
+		Assertion.assertEquals(response.get(ApiFields.RESPONSE_FIELD_RESPONSE_BODY.field()).at("/data/1/first_name")
+				.asText(), "Janet");
+		Assertion.assertEquals(server.getRoute("GET", "/api/users").getHitCount(), 1L);
+	}
+
+	@Test
+	public void testStatusAndLatency() {
+		server.route(new StubRoute("GET", "/api/users").status(503).latencyMs(100));
+		long start = System.nanoTime();
+		Map<String, JsonNode> response = new CommonBaseApi(server.getBaseUrl()).requestUsersData();
+		Assertion.assertTrue(System.nanoTime() - start >= 100000000L, "Response came before the stub latency");
+		Assertion.assertEquals(response.get(ApiFields.RESPONSE_FIELD_STATUS.field()).get("code").asInt(), 503);
+	}
+}
@@ -0,0 +1,71 @@
+package com.celos.qa.api.test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.commonUtils.ResourceCache;
+import com.celos.qa.api.commonUtils.TemplateEngine;
+import com.celos.qa.api.commonUtils.TestCoreUtils;
+
+public class TemplateEngineTest {
+
+	private static final String TEMPLATE = "/templates/createUser.json";
+
+	@DataProvider(name = "sessions")
+	public Object[][] sessions() {
+		return new Object[][] {
+				{ session("$firstName", "Janet", "$lastName", "Weaver", "$job", "leader", "$id", "7", "$idType", "guest") },
+				// '$id' claims the start of '$idType' when it is replaced first
+				{ session("$idType", "guest", "$id", "7", "$firstName", "Janet") },
+				// replacement strings are processed the way replaceAll does
+				{ session("$job", "C:\\\\temp", "$notes", "costs $5", "$firstName", null) },
+				// a value holding a later key is replaced again
+				{ session("$notes", "see $job", "$job", "leader") },
+				// a value ending in '$' before the literal "Name" forms the later key "$Name"
+				{ session("$first", "\\$", "$Name", "Janet", "$lastName", "Weaver") },
+				// an empty value joins "$id" and "pe" into the later key "$idpe"
+				{ session("Ty", "", "$idpe", "guest") },
+				// "Name" is replaced before "$Name" can form across the '$' value
+				{ session("$first", "\\$", "job", "lead", "Name", "x", "$Name", "Janet") },
+				// keys with regular expression characters are patterns
+				{ session("$firstName.", "Janet", "$lastName", "Weaver") },
+				{ session("$unused", "value") } };
+	}
+
+	@Test(dataProvider = "sessions")
+	public void renderMatchesSearchAndReplace(Map<String, String> session) {
+		String expected = TestCoreUtils.searchAndReplaceTemplate(session, TestCoreUtils.readResourceFile(TEMPLATE));
+		// Render twice to use the compiled form cached by the first call
+		Assertion.assertEquals(TemplateEngine.render(TEMPLATE, session), expected);
+		Assertion.assertEquals(TemplateEngine.render(TEMPLATE, session), expected);
+	}
+
+	@Test
+	public void testCompiledFormsDroppedWithCachedText() throws Exception {
+		Map<String, String> session = session("$firstName", "Janet");
+		TemplateEngine.render(TEMPLATE, session);
+		Assertion.assertTrue(TemplateEngine.size() > 0, "Compiled template was not kept");
+		ResourceCache.clear();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (TemplateEngine.size() > 0 && System.nanoTime() < deadline) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		Assertion.assertEquals(TemplateEngine.size(), 0, "Compiled template outlived its text in the ResourceCache");
+		Assertion.assertEquals(TemplateEngine.render(TEMPLATE, session),
+				TestCoreUtils.searchAndReplaceTemplate(session, TestCoreUtils.readResourceFile(TEMPLATE)));
+	}
+
+	private static Map<String, String> session(String... keysAndValues) {
+		Map<String, String> session = new LinkedHashMap<String, String>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			session.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return session;
+	}
+}
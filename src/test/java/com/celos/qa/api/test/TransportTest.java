@@ -0,0 +1,78 @@
+package com.celos.qa.api.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.celos.qa.api.commonUtils.Assertion;
+import com.celos.qa.api.restClient.ApiResponse;
+import com.celos.qa.api.restClient.JsonRestClient;
+import com.celos.qa.api.restClient.RequestSpec;
+import com.celos.qa.api.restClient.Transport;
+import com.celos.qa.api.stub.StubRoute;
+import com.celos.qa.api.stub.StubServer;
+
+public class TransportTest {
+
+	private StubServer server;
+
+	@BeforeClass
+	public void startServer() {
+		server = new StubServer().start(0);
+		server.route(new StubRoute("GET", "/api/users").jsonBody("{\"page\":2,\"data\":[{\"id\":7}]}"));
+		server.route(new StubRoute("POST", "/api/users").status(201).jsonBody("{\"id\":\"42\"}"));
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+	}
+
+	@DataProvider(name = "transports")
+	public Object[][] transports() {
+		return new Object[][] { { Transport.APACHE }, { Transport.URL_CONNECTION }, { Transport.JDK_HTTP } };
+	}
+
+	@Test(dataProvider = "transports")
+	public void testGetAndPost(Transport transport) {
+		JsonRestClient client = new JsonRestClient();
+		client.setTransport(transport);
+		Assertion.assertEquals(client.getTransport(), transport);
+		ApiResponse get = client.invoke("GET", RequestSpec.EMPTY.withQueryParam("page", "2"), server.getBaseUrl(),
+				"/api/users");
+		Assertion.assertEquals(get.getStatusCode(), 200);
+		Assertion.assertEquals(get.getBody().at("/data/0/id").asInt(), 7);
+		Assertion.assertTrue(get.getHeaderString("Content-Type").startsWith("application/json"),
+				"Content-Type was " + get.getHeaderString("Content-Type"));
+		RequestSpec post = RequestSpec.builder().header("Connection", "keep-alive").header("Content-Length", "16")
+				.body("{\"name\":\"neo\"}").build();
+		ApiResponse created = client.invoke("POST", post, server.getBaseUrl(), "/api/users");
+		Assertion.assertEquals(created.getStatusCode(), 201);
+		Assertion.assertEquals(created.getBody().get("id").asText(), "42");
+	}
+
+	@Test
+	public void testConcurrentRequestsOnJdkHttp() {
+		final JsonRestClient client = new JsonRestClient();
+		client.setTransport(Transport.JDK_HTTP);
+		List<CompletableFuture<ApiResponse>> responses = new ArrayList<CompletableFuture<ApiResponse>>();
+		for (int i = 0; i < 50; i++) {
+			responses.add(CompletableFuture
+					.supplyAsync(() -> client.invoke("GET", RequestSpec.EMPTY, server.getBaseUrl(), "/api/users")));
+		}
+		for (CompletableFuture<ApiResponse> response : responses) {
+			Assertion.assertEquals(response.join().getStatusCode(), 200);
+		}
+	}
+
+	@Test
+	public void testDefaultTransport() {
+		Assertion.assertEquals(new JsonRestClient().getTransport(), Transport.getDefault());
+		Assertion.assertEquals(Transport.getDefault(), Transport.APACHE);
+	}
+}